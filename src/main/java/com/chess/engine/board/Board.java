@@ -22,6 +22,12 @@ public class Board {
     private final Player currentPlayer;
 
     private final Pawn enPassantPawn;
+    private final long zobristKey;
+    private final long pawnZobristKey;
+    private final int materialBalance;
+    private final int middlegameScore;
+    private final int endgameScore;
+    private final int gamePhase;
 
 
     /**
@@ -39,6 +45,23 @@ public class Board {
         this.whitePlayer = new WhitePlayer(this, whiteStandardLegalMoves, blackStandardLegalMoves);
         this.blackPlayer = new BlackPlayer(this, whiteStandardLegalMoves, blackStandardLegalMoves);
         this.currentPlayer = builder.nextMoveMaker.choosePlayer(this.whitePlayer, this.blackPlayer);
+        this.zobristKey = ZobristHash.calculateKey(this);
+        this.pawnZobristKey = ZobristHash.calculatePawnKey(this);
+        if (builder.incrementalScores) {
+            this.materialBalance = builder.materialBalance;
+            this.middlegameScore = builder.middlegameScore;
+            this.endgameScore = builder.endgameScore;
+            this.gamePhase = builder.gamePhase;
+        } else {
+            final Builder scores = new Builder();
+            for (final Piece piece : Iterables.concat(this.whitePieces, this.blackPieces)) {
+                scores.addScores(piece);
+            }
+            this.materialBalance = scores.materialBalance;
+            this.middlegameScore = scores.middlegameScore;
+            this.endgameScore = scores.endgameScore;
+            this.gamePhase = scores.gamePhase;
+        }
     }
 
 
@@ -91,6 +114,72 @@ public class Board {
         return this.enPassantPawn;
     }
 
+    /**
+     * Returns the Zobrist key identifying this position
+     * @return
+     */
+
+    public long getZobristKey(){
+        return this.zobristKey;
+    }
+
+    /**
+     * Returns the Zobrist key of the pawns alone, shared by every position with the same pawn structure
+     * @return
+     */
+
+    public long getPawnZobristKey(){
+        return this.pawnZobristKey;
+    }
+
+    /**
+     * Returns white's material less black's, counted with Piece.getPieceValue
+     * @return
+     */
+
+    public int getMaterialBalance(){
+        return this.materialBalance;
+    }
+
+    /**
+     * Returns the middlegame material and piece-square score from PieceSquareTables, from white's point of view
+     * @return
+     */
+
+    public int getMiddlegameScore(){
+        return this.middlegameScore;
+    }
+
+    /**
+     * Returns the endgame material and piece-square score from PieceSquareTables, from white's point of view
+     * @return
+     */
+
+    public int getEndgameScore(){
+        return this.endgameScore;
+    }
+
+    /**
+     * Returns the game phase from the remaining non-pawn material, PieceSquareTables.MAX_PHASE at the start
+     * and 0 with only kings and pawns left
+     * @return
+     */
+
+    public int getGamePhase(){
+        return this.gamePhase;
+    }
+
+    /**
+     * Returns the material the move wins, or loses if negative, once the exchange it starts on the destination
+     * square has been played out, from the point of view of the player making it
+     * @param move
+     * @return
+     */
+
+    public int staticExchange(final Move move){
+        return StaticExchange.evaluate(this, move);
+    }
+
 
 
     /**
@@ -240,6 +329,11 @@ public class Board {
         Map<Integer, Piece> boardConfig;
         Alliance nextMoveMaker;
         Pawn enPassantPawn;
+        boolean incrementalScores;
+        int materialBalance;
+        int middlegameScore;
+        int endgameScore;
+        int gamePhase;
 
         /**
          * Constructor for Builder - Creates Map called boardConfig using Int as key and Piece as value.
@@ -284,6 +378,38 @@ public class Board {
         public void setEnPassantPawn(Pawn enPassantPawn) {
             this.enPassantPawn = enPassantPawn;
         }
+
+        /**
+         * Starts from the evaluation sums of the board a move is made on. The move then adjusts them for the
+         * pieces it removes and adds, instead of the new board summing every piece again.
+         * @param board
+         * @return
+         */
+
+        public Builder setScoresFrom(final Board board) {
+            this.incrementalScores = true;
+            this.materialBalance = board.materialBalance;
+            this.middlegameScore = board.middlegameScore;
+            this.endgameScore = board.endgameScore;
+            this.gamePhase = board.gamePhase;
+            return this;
+        }
+
+        public Builder addScores(final Piece piece) {
+            this.materialBalance += PieceSquareTables.material(piece);
+            this.middlegameScore += PieceSquareTables.middlegame(piece);
+            this.endgameScore += PieceSquareTables.endgame(piece);
+            this.gamePhase += PieceSquareTables.phase(piece);
+            return this;
+        }
+
+        public Builder removeScores(final Piece piece) {
+            this.materialBalance -= PieceSquareTables.material(piece);
+            this.middlegameScore -= PieceSquareTables.middlegame(piece);
+            this.endgameScore -= PieceSquareTables.endgame(piece);
+            this.gamePhase -= PieceSquareTables.phase(piece);
+            return this;
+        }
     }
 
 }
@@ -144,7 +144,12 @@ public abstract class Move {
             builder.setPiece(piece); //adds to builder
         }
         //Move the moved piece!
-        builder.setPiece(this.movedPiece.movePiece(this)); //Adds moved piece to builder
+        final Piece movedPiece = this.movedPiece.movePiece(this);
+        builder.setPiece(movedPiece); //Adds moved piece to builder
+        builder.setScoresFrom(this.board).removeScores(this.movedPiece).addScores(movedPiece);
+        if (isAttack()) { //the captured piece is overwritten on its tile
+            builder.removeScores(getAttackedPiece());
+        }
         builder.setMoveMaker(this.board.currentPlayer().getOpponent().getAlliance()); //Sets next player
         return builder.build(); // builds new board
     }
@@ -356,7 +361,12 @@ public abstract class Move {
                     builder.setPiece(piece);
                 }
             }
-            builder.setPiece(this.movedPiece.movePiece(this));
+            final Piece movedPiece = this.movedPiece.movePiece(this);
+            builder.setPiece(movedPiece);
+            builder.setScoresFrom(this.board)
+                    .removeScores(this.movedPiece)
+                    .removeScores(this.getAttackedPiece())
+                    .addScores(movedPiece);
             builder.setMoveMaker(this.board.currentPlayer().getOpponent().getAlliance());
             return builder.build();
 
@@ -396,7 +406,11 @@ public abstract class Move {
             for(final Piece piece : pawnMovedBoard.currentPlayer().getOpponent().getActivePieces()){
                 builder.setPiece(piece);
             }
-            builder.setPiece(this.promotedPawn.getPromotionPiece().movePiece(this));
+            final Piece promotionPiece = this.promotedPawn.getPromotionPiece().movePiece(this);
+            builder.setPiece(promotionPiece);
+            builder.setScoresFrom(pawnMovedBoard)
+                    .removeScores(pawnMovedBoard.getTile(this.destinationCoordinate).getPiece())
+                    .addScores(promotionPiece);
             builder.setMoveMaker(pawnMovedBoard.currentPlayer().getAlliance());
             return builder.build();
         }
@@ -456,6 +470,7 @@ public abstract class Move {
             }
             final Pawn movedPawn = (Pawn) this.movedPiece.movePiece(this); //Sets selected pawn as variable
             builder.setPiece(movedPawn); //Sets pawn as piece to be moved
+            builder.setScoresFrom(this.board).removeScores(this.movedPiece).addScores(movedPawn);
             builder.setEnPassantPawn(movedPawn);
             builder.setMoveMaker(this.board.currentPlayer().getOpponent().getAlliance()); //sets move maker
             return builder.build(); //builds new board
@@ -536,9 +551,16 @@ public abstract class Move {
             for (final Piece piece : this.board.currentPlayer().getOpponent().getActivePieces()) { //Cycles opponents pieces
                 builder.setPiece(piece); //Adds to builder
             }
-            builder.setPiece(this.movedPiece.movePiece(this)); //adds moved piece
+            final Piece movedKing = this.movedPiece.movePiece(this);
+            builder.setPiece(movedKing); //adds moved piece
             //TODO look into the first move on normal pieces
-            builder.setPiece(new Rook(this.castleRook.getPieceAlliance(), this.castleRookDestination)); //creates new rook
+            final Rook movedRook = new Rook(this.castleRook.getPieceAlliance(), this.castleRookDestination);
+            builder.setPiece(movedRook); //creates new rook
+            builder.setScoresFrom(this.board)
+                    .removeScores(this.movedPiece)
+                    .removeScores(this.castleRook)
+                    .addScores(movedKing)
+                    .addScores(movedRook);
             builder.setMoveMaker(this.board.currentPlayer().getOpponent().getAlliance()); //sets move maker
             return builder.build(); //creates board
         }
@@ -0,0 +1,184 @@
+package com.chess.engine.board;
+
+import com.chess.engine.pieces.Piece;
+
+/**
+ * Default middlegame and endgame piece values and piece-square tables. Tables are laid out from white's point of
+ * view in tile order, a8 first; black pieces read the vertically mirrored tile. Board keeps the sums of these
+ * values up to date as moves are made so evaluators can read them without visiting every piece.
+ */
+public final class PieceSquareTables {
+
+    //Indexed by PieceType ordinal: pawn, knight, bishop, rook, queen, king
+    static final int[] MIDDLEGAME_VALUES = {82, 337, 365, 477, 1025, 0};
+    static final int[] ENDGAME_VALUES = {94, 281, 297, 512, 936, 0};
+    static final int[] PHASE_WEIGHTS = {0, 1, 1, 2, 4, 0};
+    public static final int MAX_PHASE = 24;
+
+    private static final int[] PAWN_MIDDLEGAME = {
+             0,   0,   0,   0,   0,   0,   0,   0,
+            50,  50,  50,  50,  50,  50,  50,  50,
+            10,  10,  20,  30,  30,  20,  10,  10,
+             5,   5,  10,  25,  25,  10,   5,   5,
+             0,   0,   0,  20,  20,   0,   0,   0,
+             5,  -5, -10,   0,   0, -10,  -5,   5,
+             5,  10,  10, -20, -20,  10,  10,   5,
+             0,   0,   0,   0,   0,   0,   0,   0
+    };
+
+    private static final int[] PAWN_ENDGAME = {
+             0,   0,   0,   0,   0,   0,   0,   0,
+            80,  80,  80,  80,  80,  80,  80,  80,
+            50,  50,  50,  50,  50,  50,  50,  50,
+            30,  30,  30,  30,  30,  30,  30,  30,
+            20,  20,  20,  20,  20,  20,  20,  20,
+            10,  10,  10,  10,  10,  10,  10,  10,
+             5,   5,   5,   5,   5,   5,   5,   5,
+             0,   0,   0,   0,   0,   0,   0,   0
+    };
+
+    private static final int[] KNIGHT = {
+           -50, -40, -30, -30, -30, -30, -40, -50,
+           -40, -20,   0,   0,   0,   0, -20, -40,
+           -30,   0,  10,  15,  15,  10,   0, -30,
+           -30,   5,  15,  20,  20,  15,   5, -30,
+           -30,   0,  15,  20,  20,  15,   0, -30,
+           -30,   5,  10,  15,  15,  10,   5, -30,
+           -40, -20,   0,   5,   5,   0, -20, -40,
+           -50, -40, -30, -30, -30, -30, -40, -50
+    };
+
+    private static final int[] BISHOP = {
+           -20, -10, -10, -10, -10, -10, -10, -20,
+           -10,   0,   0,   0,   0,   0,   0, -10,
+           -10,   0,   5,  10,  10,   5,   0, -10,
+           -10,   5,   5,  10,  10,   5,   5, -10,
+           -10,   0,  10,  10,  10,  10,   0, -10,
+           -10,  10,  10,  10,  10,  10,  10, -10,
+           -10,   5,   0,   0,   0,   0,   5, -10,
+           -20, -10, -10, -10, -10, -10, -10, -20
+    };
+
+    private static final int[] ROOK = {
+             0,   0,   0,   0,   0,   0,   0,   0,
+             5,  10,  10,  10,  10,  10,  10,   5,
+            -5,   0,   0,   0,   0,   0,   0,  -5,
+            -5,   0,   0,   0,   0,   0,   0,  -5,
+            -5,   0,   0,   0,   0,   0,   0,  -5,
+            -5,   0,   0,   0,   0,   0,   0,  -5,
+            -5,   0,   0,   0,   0,   0,   0,  -5,
+             0,   0,   0,   5,   5,   0,   0,   0
+    };
+
+    private static final int[] QUEEN = {
+           -20, -10, -10,  -5,  -5, -10, -10, -20,
+           -10,   0,   0,   0,   0,   0,   0, -10,
+           -10,   0,   5,   5,   5,   5,   0, -10,
+            -5,   0,   5,   5,   5,   5,   0,  -5,
+             0,   0,   5,   5,   5,   5,   0,  -5,
+           -10,   5,   5,   5,   5,   5,   0, -10,
+           -10,   0,   5,   0,   0,   0,   0, -10,
+           -20, -10, -10,  -5,  -5, -10, -10, -20
+    };
+
+    private static final int[] KING_MIDDLEGAME = {
+           -30, -40, -40, -50, -50, -40, -40, -30,
+           -30, -40, -40, -50, -50, -40, -40, -30,
+           -30, -40, -40, -50, -50, -40, -40, -30,
+           -30, -40, -40, -50, -50, -40, -40, -30,
+           -20, -30, -30, -40, -40, -30, -30, -20,
+           -10, -20, -20, -20, -20, -20, -20, -10,
+            20,  20,   0,   0,   0,   0,  20,  20,
+            20,  30,  10,   0,   0,  10,  30,  20
+    };
+
+    private static final int[] KING_ENDGAME = {
+           -50, -40, -30, -20, -20, -30, -40, -50,
+           -30, -20, -10,   0,   0, -10, -20, -30,
+           -30, -10,  20,  30,  30,  20, -10, -30,
+           -30, -10,  30,  40,  40,  30, -10, -30,
+           -30, -10,  30,  40,  40,  30, -10, -30,
+           -30, -10,  20,  30,  30,  20, -10, -30,
+           -30, -30,   0,   0,   0,   0, -30, -30,
+           -50, -30, -30, -30, -30, -30, -30, -50
+    };
+
+    //Indexed by PieceType ordinal
+    static final int[][] MIDDLEGAME_TABLES = {PAWN_MIDDLEGAME, KNIGHT, BISHOP, ROOK, QUEEN, KING_MIDDLEGAME};
+    static final int[][] ENDGAME_TABLES = {PAWN_ENDGAME, KNIGHT, BISHOP, ROOK, QUEEN, KING_ENDGAME};
+
+    private PieceSquareTables() {
+        throw new RuntimeException("Not Instantiable!");
+    }
+
+    /**
+     * Returns a copy of the default middlegame table for the piece type.
+     *
+     * @param pieceType
+     * @return
+     */
+    public static int[] middlegameTable(final Piece.PieceType pieceType) {
+        return MIDDLEGAME_TABLES[pieceType.ordinal()].clone();
+    }
+
+    public static int[] endgameTable(final Piece.PieceType pieceType) {
+        return ENDGAME_TABLES[pieceType.ordinal()].clone();
+    }
+
+    public static int middlegameValue(final Piece.PieceType pieceType) {
+        return MIDDLEGAME_VALUES[pieceType.ordinal()];
+    }
+
+    public static int endgameValue(final Piece.PieceType pieceType) {
+        return ENDGAME_VALUES[pieceType.ordinal()];
+    }
+
+    /**
+     * Returns the table index of the piece's tile, mirrored for black.
+     *
+     * @param piece
+     * @return
+     */
+    public static int tableIndex(final Piece piece) {
+        return piece.getPieceAlliance().isWhite() ? piece.getPiecePosition() : piece.getPiecePosition() ^ 56;
+    }
+
+    /**
+     * Middlegame value of the piece on its tile, positive for white and negative for black.
+     *
+     * @param piece
+     * @return
+     */
+    public static int middlegame(final Piece piece) {
+        final int type = piece.getPieceType().ordinal();
+        final int score = MIDDLEGAME_VALUES[type] + MIDDLEGAME_TABLES[type][tableIndex(piece)];
+        return piece.getPieceAlliance().isWhite() ? score : -score;
+    }
+
+    /**
+     * Endgame value of the piece on its tile, positive for white and negative for black.
+     *
+     * @param piece
+     * @return
+     */
+    public static int endgame(final Piece piece) {
+        final int type = piece.getPieceType().ordinal();
+        final int score = ENDGAME_VALUES[type] + ENDGAME_TABLES[type][tableIndex(piece)];
+        return piece.getPieceAlliance().isWhite() ? score : -score;
+    }
+
+    public static int phase(final Piece piece) {
+        return PHASE_WEIGHTS[piece.getPieceType().ordinal()];
+    }
+
+    /**
+     * Material as counted by Piece.getPieceValue, positive for white and negative for black.
+     *
+     * @param piece
+     * @return
+     */
+    public static int material(final Piece piece) {
+        return piece.getPieceAlliance().isWhite() ? piece.getPieceValue() : -piece.getPieceValue();
+    }
+
+}
@@ -0,0 +1,170 @@
+package com.chess.engine.board;
+
+import com.chess.engine.pieces.Piece;
+
+/**
+ * Static exchange evaluation: the material a capture wins or loses once both sides have recaptured on the target
+ * square with their least valuable attacker for as long as that pays. Sliding pieces lined up behind an attacker
+ * join in as soon as it leaves. Pins and checks are ignored, and a capture by the king only counts while the
+ * opponent has no attacker left.
+ */
+final class StaticExchange {
+
+    private static final int WHITE = 0;
+    private static final int BLACK = 1;
+    //Ordinals of the piece types, least valuable first
+    private static final int PAWN = Piece.PieceType.PAWN.ordinal();
+    private static final int KING = Piece.PieceType.KING.ordinal();
+    private static final int[] VALUES = new int[Piece.PieceType.values().length];
+
+    private static final int[][] KNIGHT_STEPS = {{-2, -1}, {-2, 1}, {-1, -2}, {-1, 2}, {1, -2}, {1, 2}, {2, -1}, {2, 1}};
+    private static final int[][] KING_STEPS = {{-1, -1}, {-1, 0}, {-1, 1}, {0, -1}, {0, 1}, {1, -1}, {1, 0}, {1, 1}};
+    //Tile 0 is a8, so white pawns attack towards lower rows
+    private static final int[][] WHITE_PAWN_STEPS = {{-1, -1}, {-1, 1}};
+    private static final int[][] BLACK_PAWN_STEPS = {{1, -1}, {1, 1}};
+    private static final int[][] BISHOP_DIRECTIONS = {{-1, -1}, {-1, 1}, {1, -1}, {1, 1}};
+    private static final int[][] ROOK_DIRECTIONS = {{-1, 0}, {1, 0}, {0, -1}, {0, 1}};
+
+    private static final long[] KNIGHT_ATTACKS = stepAttacks(KNIGHT_STEPS);
+    private static final long[] KING_ATTACKS = stepAttacks(KING_STEPS);
+    //Indexed by the side whose pawns are looked for: the squares from which its pawns attack a tile
+    private static final long[][] PAWN_ATTACKERS = {stepAttacks(BLACK_PAWN_STEPS), stepAttacks(WHITE_PAWN_STEPS)};
+
+    static {
+        for (final Piece.PieceType pieceType : Piece.PieceType.values()) {
+            VALUES[pieceType.ordinal()] = pieceType.getPieceValue();
+        }
+    }
+
+    private StaticExchange() {
+        throw new RuntimeException("Not Instantiable!");
+    }
+
+    /**
+     * Returns the material balance of the exchange the move starts, from the point of view of the player making it.
+     * Moves that capture nothing score the promotion gain, or 0.
+     *
+     * @param board
+     * @param move
+     * @return
+     */
+    static int evaluate(final Board board, final Move move) {
+        final long[][] pieces = new long[2][VALUES.length];
+        long occupied = 0L;
+        for (int tile = 0; tile < BoardUtils.NUM_TILES; tile++) {
+            final Piece piece = board.getTile(tile).getPiece();
+            if (piece != null) {
+                pieces[piece.getPieceAlliance().isWhite() ? WHITE : BLACK][piece.getPieceType().ordinal()] |= 1L << tile;
+                occupied |= 1L << tile;
+            }
+        }
+        final int target = move.getDestinationCoordinate();
+        final boolean promotion = move instanceof Move.PawnPromotion;
+        final int[] gain = new int[32];
+        gain[0] = move.isAttack() ? move.getAttackedPiece().getPieceValue() : 0;
+        int onTarget = move.getMovedPiece().getPieceValue();
+        if (promotion) {
+            gain[0] += VALUES[Piece.PieceType.QUEEN.ordinal()] - VALUES[PAWN];
+            onTarget = VALUES[Piece.PieceType.QUEEN.ordinal()];
+        }
+        occupied &= ~(1L << move.getCurrentCoordinate());
+        if (move.isAttack()) {
+            //the en passant victim is not on the target square
+            occupied &= ~(1L << move.getAttackedPiece().getPiecePosition());
+        }
+        occupied |= 1L << target;
+        int side = move.getMovedPiece().getPieceAlliance().isWhite() ? BLACK : WHITE;
+        int depth = 0;
+        while (depth < gain.length - 1) {
+            final long attackers = attackers(pieces[side], side, target, occupied) & occupied & ~(1L << target);
+            if (attackers == 0) {
+                break;
+            }
+            int attackerType = PAWN;
+            while ((attackers & pieces[side][attackerType]) == 0) {
+                attackerType++;
+            }
+            if (attackerType == KING &&
+                    (attackers(pieces[1 - side], 1 - side, target, occupied) & occupied & ~(1L << target)) != 0) {
+                break;
+            }
+            depth++;
+            gain[depth] = onTarget - gain[depth - 1];
+            if (Math.max(-gain[depth - 1], gain[depth]) < 0) {
+                //neither side can come out ahead by continuing, so the capture is not made
+                depth--;
+                break;
+            }
+            occupied &= ~Long.lowestOneBit(attackers & pieces[side][attackerType]);
+            onTarget = VALUES[attackerType];
+            side = 1 - side;
+        }
+        while (depth > 0) {
+            gain[depth - 1] = -Math.max(-gain[depth - 1], gain[depth]);
+            depth--;
+        }
+        return gain[0];
+    }
+
+    /**
+     * Returns the side's pieces attacking the target through the occupancy given. Pieces already taken off the
+     * board have to be masked out by the caller.
+     */
+    private static long attackers(final long[] pieces,
+                                  final int side,
+                                  final int target,
+                                  final long occupied) {
+        final int bishop = Piece.PieceType.BISHOP.ordinal();
+        final int rook = Piece.PieceType.ROOK.ordinal();
+        final int queen = Piece.PieceType.QUEEN.ordinal();
+        long attackers = PAWN_ATTACKERS[side][target] & pieces[PAWN];
+        attackers |= KNIGHT_ATTACKS[target] & pieces[Piece.PieceType.KNIGHT.ordinal()];
+        attackers |= KING_ATTACKS[target] & pieces[KING];
+        final long diagonal = pieces[bishop] | pieces[queen];
+        if (diagonal != 0) {
+            attackers |= slidingAttacks(target, occupied, BISHOP_DIRECTIONS) & diagonal;
+        }
+        final long straight = pieces[rook] | pieces[queen];
+        if (straight != 0) {
+            attackers |= slidingAttacks(target, occupied, ROOK_DIRECTIONS) & straight;
+        }
+        return attackers;
+    }
+
+    private static long slidingAttacks(final int tile, final long occupied, final int[][] directions) {
+        long attacks = 0L;
+        final int row = tile / BoardUtils.NUM_TILES_PER_ROW;
+        final int file = tile % BoardUtils.NUM_TILES_PER_ROW;
+        for (final int[] direction : directions) {
+            int r = row + direction[0];
+            int f = file + direction[1];
+            while (r >= 0 && r < BoardUtils.NUM_TILES_PER_ROW && f >= 0 && f < BoardUtils.NUM_TILES_PER_ROW) {
+                final long square = 1L << (r * BoardUtils.NUM_TILES_PER_ROW + f);
+                attacks |= square;
+                if ((occupied & square) != 0) {
+                    break;
+                }
+                r += direction[0];
+                f += direction[1];
+            }
+        }
+        return attacks;
+    }
+
+    private static long[] stepAttacks(final int[][] steps) {
+        final long[] attacks = new long[BoardUtils.NUM_TILES];
+        for (int tile = 0; tile < BoardUtils.NUM_TILES; tile++) {
+            final int row = tile / BoardUtils.NUM_TILES_PER_ROW;
+            final int file = tile % BoardUtils.NUM_TILES_PER_ROW;
+            for (final int[] step : steps) {
+                final int r = row + step[0];
+                final int f = file + step[1];
+                if (r >= 0 && r < BoardUtils.NUM_TILES_PER_ROW && f >= 0 && f < BoardUtils.NUM_TILES_PER_ROW) {
+                    attacks[tile] |= 1L << (r * BoardUtils.NUM_TILES_PER_ROW + f);
+                }
+            }
+        }
+        return attacks;
+    }
+
+}
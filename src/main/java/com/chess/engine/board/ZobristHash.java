@@ -0,0 +1,102 @@
+package com.chess.engine.board;
+
+import com.chess.engine.pieces.Piece;
+
+import java.util.Random;
+
+public class ZobristHash {
+
+    //Fixed seed so keys are identical between runs
+    private static final long SEED = 0x3A1F5C2B9D7E4601L;
+
+    private static final long[][][] PIECE_KEYS = new long[2][Piece.PieceType.values().length][BoardUtils.NUM_TILES];
+    private static final long[][] FIRST_MOVE_KEYS = new long[2][BoardUtils.NUM_TILES];
+    private static final long[] EN_PASSANT_KEYS = new long[BoardUtils.NUM_TILES];
+    private static final long BLACK_TO_MOVE_KEY;
+
+    static {
+        final Random random = new Random(SEED);
+        for (int alliance = 0; alliance < 2; alliance++) {
+            for (int type = 0; type < PIECE_KEYS[alliance].length; type++) {
+                for (int i = 0; i < BoardUtils.NUM_TILES; i++) {
+                    PIECE_KEYS[alliance][type][i] = random.nextLong();
+                }
+            }
+            for (int i = 0; i < BoardUtils.NUM_TILES; i++) {
+                FIRST_MOVE_KEYS[alliance][i] = random.nextLong();
+            }
+        }
+        for (int i = 0; i < BoardUtils.NUM_TILES; i++) {
+            EN_PASSANT_KEYS[i] = random.nextLong();
+        }
+        BLACK_TO_MOVE_KEY = random.nextLong();
+    }
+
+    /**
+     * Constructor for ZobristHash throwing error.
+     */
+    private ZobristHash() {
+        throw new RuntimeException("You cannot instantiate me!");
+    }
+
+    /**
+     * Calculates the Zobrist key of a board. Kings and rooks that have not moved are hashed separately so that
+     * positions with different castling possibilities do not share a key.
+     *
+     * @param board
+     * @return
+     */
+    public static long calculateKey(final Board board) {
+        long key = 0L;
+        for (final Piece piece : board.getWhitePieces()) {
+            key ^= pieceKey(piece);
+        }
+        for (final Piece piece : board.getBlackPieces()) {
+            key ^= pieceKey(piece);
+        }
+        if (board.getEnPassantPawn() != null) {
+            key ^= EN_PASSANT_KEYS[board.getEnPassantPawn().getPiecePosition()];
+        }
+        if (board.currentPlayer().getAlliance().isBlack()) {
+            key ^= BLACK_TO_MOVE_KEY;
+        }
+        return key;
+    }
+
+    /**
+     * Calculates the key of the pawns alone, using the same piece keys as calculateKey.
+     *
+     * @param board
+     * @return
+     */
+    public static long calculatePawnKey(final Board board) {
+        long key = 0L;
+        for (final Piece piece : board.getWhitePieces()) {
+            if (piece.getPieceType() == Piece.PieceType.PAWN) {
+                key ^= pieceKey(piece);
+            }
+        }
+        for (final Piece piece : board.getBlackPieces()) {
+            if (piece.getPieceType() == Piece.PieceType.PAWN) {
+                key ^= pieceKey(piece);
+            }
+        }
+        return key;
+    }
+
+    /**
+     * Returns the key for a single piece on its current tile.
+     *
+     * @param piece
+     * @return
+     */
+    public static long pieceKey(final Piece piece) {
+        final int alliance = piece.getPieceAlliance().isWhite() ? 0 : 1;
+        long key = PIECE_KEYS[alliance][piece.getPieceType().ordinal()][piece.getPiecePosition()];
+        if (piece.isFirstMove() && (piece.getPieceType().isKing() || piece.getPieceType().isRook())) {
+            key ^= FIRST_MOVE_KEYS[alliance][piece.getPiecePosition()];
+        }
+        return key;
+    }
+
+}
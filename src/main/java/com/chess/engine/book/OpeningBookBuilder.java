@@ -0,0 +1,285 @@
+package com.chess.engine.book;
+
+import com.chess.engine.board.Move;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Aggregates (position, move) statistics for a Polyglot book and writes the sorted .bin file. Entries live in
+ * parallel primitive arrays with open addressing, so millions of them cost a few dozen bytes each and no objects.
+ *
+ * Memory is bounded by maxEntries: when the table fills up the entries seen in the fewest games are dropped until
+ * it is half full again. Rare positions are the ones that would end up with negligible weight anyway.
+ *
+ * Workers collect statistics in a private Batch and merge it with flush, which is the only synchronized step.
+ */
+public final class OpeningBookBuilder {
+
+    private static final int MAX_WEIGHT = 0xFFFF;
+
+    private final int maxEntries;
+    private final int mask;
+    private long[] keys;
+    private char[] moves;
+    private int[] games;
+    private int[] scores;
+    private int size;
+    private int pruneThreshold;
+
+    /**
+     * Constructor for OpeningBookBuilder
+     *
+     * @param maxEntries number of distinct (position, move) pairs kept in memory
+     */
+    public OpeningBookBuilder(final int maxEntries) {
+        this.maxEntries = maxEntries;
+        final int capacity = Integer.highestOneBit(Math.max(2, maxEntries) * 2 - 1) << 1;
+        this.mask = capacity - 1;
+        this.keys = new long[capacity];
+        this.moves = new char[capacity];
+        this.games = new int[capacity];
+        this.scores = new int[capacity];
+    }
+
+    public Batch newBatch(final int capacity) {
+        return new Batch(capacity);
+    }
+
+    /**
+     * Merges the batch into the table and empties it.
+     *
+     * @param batch
+     */
+    public synchronized void flush(final Batch batch) {
+        for (int i = 0; i < batch.count; i++) {
+            add(batch.keys[i], batch.moves[i], batch.scores[i]);
+        }
+        batch.count = 0;
+    }
+
+    private void add(final long key, final char move, final int score) {
+        int slot = slot(key, move);
+        while (this.games[slot] != 0) {
+            if (this.keys[slot] == key && this.moves[slot] == move) {
+                this.games[slot]++;
+                this.scores[slot] += score;
+                return;
+            }
+            slot = (slot + 1) & this.mask;
+        }
+        if (this.size == this.maxEntries) {
+            prune();
+            add(key, move, score);
+            return;
+        }
+        this.keys[slot] = key;
+        this.moves[slot] = move;
+        this.games[slot] = 1;
+        this.scores[slot] = score;
+        this.size++;
+    }
+
+    private int slot(final long key, final char move) {
+        final long mix = key ^ (move * 0x9E3779B97F4A7C15L);
+        return (int) (mix ^ (mix >>> 32)) & this.mask;
+    }
+
+    /**
+     * Drops the least played entries until the table is at most half full. The lowest game count that gets there
+     * is found first, so the table is rebuilt only once.
+     */
+    private void prune() {
+        final int[] sortedGames = new int[this.size];
+        int count = 0;
+        for (final int gameCount : this.games) {
+            if (gameCount != 0) {
+                sortedGames[count++] = gameCount;
+            }
+        }
+        Arrays.sort(sortedGames);
+        //At most maxEntries / 2 entries are seen in more games than the one at this position
+        this.pruneThreshold = Math.max(this.pruneThreshold + 1,
+                sortedGames[this.size - this.maxEntries / 2 - 1]);
+        final long[] oldKeys = this.keys;
+        final char[] oldMoves = this.moves;
+        final int[] oldGames = this.games;
+        final int[] oldScores = this.scores;
+        this.keys = new long[oldKeys.length];
+        this.moves = new char[oldMoves.length];
+        this.games = new int[oldGames.length];
+        this.scores = new int[oldScores.length];
+        this.size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldGames[i] > this.pruneThreshold) {
+                int slot = slot(oldKeys[i], oldMoves[i]);
+                while (this.games[slot] != 0) {
+                    slot = (slot + 1) & this.mask;
+                }
+                this.keys[slot] = oldKeys[i];
+                this.moves[slot] = oldMoves[i];
+                this.games[slot] = oldGames[i];
+                this.scores[slot] = oldScores[i];
+                this.size++;
+            }
+        }
+    }
+
+    public synchronized int size() {
+        return this.size;
+    }
+
+    /**
+     * Returns the highest game count of entries dropped to stay within maxEntries, or 0 if nothing was dropped.
+     *
+     * @return
+     */
+    public synchronized int getPruneThreshold() {
+        return this.pruneThreshold;
+    }
+
+    /**
+     * Writes the book sorted by key, heaviest move first within a position. The weight of a move is its score,
+     * two points per win and one per draw for the side that played it, scaled down per position if it would not
+     * fit in sixteen bits. Moves that never scored are left out.
+     *
+     * @param file
+     * @param minGames entries seen in fewer games are left out
+     * @return the number of entries written
+     * @throws IOException
+     */
+    public synchronized int write(final File file, final int minGames) throws IOException {
+        final int[] order = new int[this.size];
+        int count = 0;
+        for (int slot = 0; slot < this.keys.length; slot++) {
+            if (this.games[slot] >= Math.max(1, minGames) && this.scores[slot] > 0) {
+                order[count++] = slot;
+            }
+        }
+        sort(order, count);
+        final DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+        try {
+            int start = 0;
+            while (start < count) {
+                final long key = this.keys[order[start]];
+                //Sorted heaviest first, so the first entry of a position holds its largest score
+                final long maxScore = this.scores[order[start]];
+                int end = start;
+                while (end < count && this.keys[order[end]] == key) {
+                    final int slot = order[end];
+                    final long weight = maxScore <= MAX_WEIGHT ? this.scores[slot] :
+                            Math.max(1, (long) this.scores[slot] * MAX_WEIGHT / maxScore);
+                    output.writeLong(key);
+                    output.writeShort(this.moves[slot]);
+                    output.writeShort((int) weight);
+                    output.writeInt(0);
+                    end++;
+                }
+                start = end;
+            }
+        } finally {
+            output.close();
+        }
+        return count;
+    }
+
+    /**
+     * Heapsorts the first count slots by key, compared as unsigned like Polyglot does, and by score from the highest
+     * within a key. Working on the int array in place keeps millions of entries from being boxed.
+     */
+    private void sort(final int[] order, final int count) {
+        for (int root = count / 2 - 1; root >= 0; root--) {
+            siftDown(order, root, count);
+        }
+        for (int end = count - 1; end > 0; end--) {
+            final int slot = order[0];
+            order[0] = order[end];
+            order[end] = slot;
+            siftDown(order, 0, end);
+        }
+    }
+
+    private void siftDown(final int[] order, int root, final int end) {
+        while (true) {
+            int child = 2 * root + 1;
+            if (child >= end) {
+                return;
+            }
+            if (child + 1 < end && compare(order[child + 1], order[child]) > 0) {
+                child++;
+            }
+            if (compare(order[root], order[child]) >= 0) {
+                return;
+            }
+            final int slot = order[root];
+            order[root] = order[child];
+            order[child] = slot;
+            root = child;
+        }
+    }
+
+    private int compare(final int first, final int second) {
+        final int byKey = Long.compare(this.keys[first] + Long.MIN_VALUE, this.keys[second] + Long.MIN_VALUE);
+        return byKey != 0 ? byKey : Integer.compare(this.scores[second], this.scores[first]);
+    }
+
+    /**
+     * Statistics collected by one worker between flushes.
+     */
+    public static final class Batch {
+
+        private final long[] keys;
+        private final char[] moves;
+        private final int[] scores;
+        private int count;
+
+        private Batch(final int capacity) {
+            this.keys = new long[capacity];
+            this.moves = new char[capacity];
+            this.scores = new int[capacity];
+        }
+
+        /**
+         * Records that the move was played from the position.
+         *
+         * @param key   Polyglot key of the position
+         * @param move
+         * @param score 2 for a win, 1 for a draw and 0 for a loss of the side that played the move
+         */
+        public void add(final long key, final Move move, final int score) {
+            this.keys[this.count] = key;
+            this.moves[this.count] = (char) PolyglotBook.encode(move);
+            this.scores[this.count] = score;
+            this.count++;
+        }
+
+        /**
+         * Returns whether the given number of moves can still be added before the batch has to be flushed.
+         *
+         * @param moves
+         * @return
+         */
+        public boolean hasRoomFor(final int moves) {
+            return this.keys.length - this.count >= moves;
+        }
+
+        public int size() {
+            return this.count;
+        }
+
+        /**
+         * Forgets the moves added since the batch held the given number of them.
+         *
+         * @param size
+         */
+        public void truncate(final int size) {
+            this.count = Math.min(this.count, size);
+        }
+
+    }
+
+}
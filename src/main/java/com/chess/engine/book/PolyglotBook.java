@@ -0,0 +1,214 @@
+package com.chess.engine.book;
+
+import com.chess.engine.board.Board;
+import com.chess.engine.board.Move;
+import com.chess.engine.pieces.Piece;
+import com.chess.engine.player.MoveTransition;
+import com.google.common.collect.ImmutableList;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Read-only access to a Polyglot opening book. The .bin file is memory-mapped and never copied onto the heap; it is a
+ * sequence of 16 byte big endian entries (key, move, weight, learn) sorted by key, so a position is found by binary
+ * search. Lookups only use absolute reads of the mapped buffer and are safe from any number of threads.
+ */
+public final class PolyglotBook {
+
+    private static final int ENTRY_SIZE = 16;
+    private static final int QUEEN_PROMOTION = 4;
+
+    private final MappedByteBuffer entries;
+    private final int entryCount;
+    private final PolyglotKeys keys;
+
+    private PolyglotBook(final MappedByteBuffer entries, final PolyglotKeys keys) {
+        this.entries = entries;
+        this.entryCount = entries.capacity() / ENTRY_SIZE;
+        this.keys = keys;
+    }
+
+    /**
+     * Maps a book file.
+     *
+     * @param bookFile
+     * @param keys     Random64 numbers the book was built with
+     * @return
+     * @throws IOException if the file is not a whole number of entries
+     */
+    public static PolyglotBook open(final File bookFile, final PolyglotKeys keys) throws IOException {
+        final RandomAccessFile randomAccessFile = new RandomAccessFile(bookFile, "r");
+        try {
+            final FileChannel channel = randomAccessFile.getChannel();
+            if (channel.size() % ENTRY_SIZE != 0 || channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Not a Polyglot book: " + bookFile);
+            }
+            //The mapping stays valid after the channel is closed
+            return new PolyglotBook(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()), keys);
+        } finally {
+            randomAccessFile.close();
+        }
+    }
+
+    public int size() {
+        return this.entryCount;
+    }
+
+    /**
+     * Returns the book moves for the board that are legal in this engine, in book order (heaviest first).
+     * Underpromotions are dropped since only queen promotions are generated.
+     *
+     * @param board
+     * @return
+     */
+    public List<BookMove> getMoves(final Board board) {
+        final long key = this.keys.hash(board);
+        final List<BookMove> bookMoves = new ArrayList<BookMove>();
+        for (int entry = firstEntry(key); entry < this.entryCount && keyAt(entry) == key; entry++) {
+            final int offset = entry * ENTRY_SIZE;
+            final int weight = this.entries.getShort(offset + 10) & 0xFFFF;
+            final Move move = decode(board, this.entries.getShort(offset + 8) & 0xFFFF);
+            if (move != null) {
+                bookMoves.add(new BookMove(move, weight));
+            }
+        }
+        return ImmutableList.copyOf(bookMoves);
+    }
+
+    /**
+     * Picks one of the book moves at random, in proportion to their weights.
+     *
+     * @param board
+     * @return the move, or null if the position is not in the book
+     */
+    public Move pickMove(final Board board) {
+        final List<BookMove> bookMoves = getMoves(board);
+        if (bookMoves.isEmpty()) {
+            return null;
+        }
+        long totalWeight = 0;
+        for (final BookMove bookMove : bookMoves) {
+            totalWeight += bookMove.getWeight();
+        }
+        if (totalWeight == 0) {
+            return bookMoves.get(ThreadLocalRandom.current().nextInt(bookMoves.size())).getMove();
+        }
+        long choice = (long) (ThreadLocalRandom.current().nextDouble() * totalWeight);
+        for (final BookMove bookMove : bookMoves) {
+            choice -= bookMove.getWeight();
+            if (choice < 0) {
+                return bookMove.getMove();
+            }
+        }
+        return bookMoves.get(bookMoves.size() - 1).getMove();
+    }
+
+    /**
+     * Index of the first entry whose key is not less than the given key, comparing keys as unsigned numbers.
+     */
+    private int firstEntry(final long key) {
+        int low = 0;
+        int high = this.entryCount;
+        while (low < high) {
+            final int middle = (low + high) >>> 1;
+            if (compareUnsigned(keyAt(middle), key) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private long keyAt(final int entry) {
+        return this.entries.getLong(entry * ENTRY_SIZE);
+    }
+
+    private static int compareUnsigned(final long first, final long second) {
+        return Long.compare(first + Long.MIN_VALUE, second + Long.MIN_VALUE);
+    }
+
+    /**
+     * Turns a Polyglot move into the matching legal move. Castling is stored as the king capturing its own rook.
+     */
+    static Move decode(final Board board, final int bookMove) {
+        final int source = PolyglotKeys.tile((bookMove >>> 9) & 7, (bookMove >>> 6) & 7);
+        int destination = PolyglotKeys.tile((bookMove >>> 3) & 7, bookMove & 7);
+        final int promotion = (bookMove >>> 12) & 7;
+        if (promotion != 0 && promotion != QUEEN_PROMOTION) {
+            return null;
+        }
+        final Piece movedPiece = board.getTile(source).getPiece();
+        final Piece destinationPiece = board.getTile(destination).getPiece();
+        if (movedPiece != null && movedPiece.getPieceType().isKing() && destinationPiece != null &&
+                destinationPiece.getPieceType().isRook() &&
+                destinationPiece.getPieceAlliance() == movedPiece.getPieceAlliance()) {
+            destination = destination > source ? source + 2 : source - 2;
+        }
+        for (final Move move : board.currentPlayer().getLegalMoves()) {
+            if (move.getCurrentCoordinate() == source && move.getDestinationCoordinate() == destination) {
+                final MoveTransition transition = board.currentPlayer().makeMove(move);
+                return transition.getMoveStatus().isDone() ? move : null;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Encodes a move the way Polyglot stores it, the inverse of decode.
+     *
+     * @param move
+     * @return
+     */
+    static int encode(final Move move) {
+        final int source = move.getCurrentCoordinate();
+        int destination = move.getDestinationCoordinate();
+        if (move.isCastlingMove()) {
+            destination = destination > source ? source + 3 : source - 4;
+        }
+        int promotion = 0;
+        if (move.getMovedPiece().getPieceType() == Piece.PieceType.PAWN &&
+                (PolyglotKeys.row(destination) == 0 || PolyglotKeys.row(destination) == 7)) {
+            promotion = QUEEN_PROMOTION;
+        }
+        return promotion << 12 |
+                PolyglotKeys.row(source) << 9 | PolyglotKeys.file(source) << 6 |
+                PolyglotKeys.row(destination) << 3 | PolyglotKeys.file(destination);
+    }
+
+    /**
+     * A book move with its Polyglot weight.
+     */
+    public static final class BookMove {
+
+        private final Move move;
+        private final int weight;
+
+        BookMove(final Move move, final int weight) {
+            this.move = move;
+            this.weight = weight;
+        }
+
+        public Move getMove() {
+            return this.move;
+        }
+
+        public int getWeight() {
+            return this.weight;
+        }
+
+        @Override
+        public String toString() {
+            return this.move + " (" + this.weight + ")";
+        }
+
+    }
+
+}
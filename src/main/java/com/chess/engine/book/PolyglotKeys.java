@@ -0,0 +1,152 @@
+package com.chess.engine.book;
+
+import com.chess.engine.board.Board;
+import com.chess.engine.board.BoardUtils;
+import com.chess.engine.pieces.Pawn;
+import com.chess.engine.pieces.Piece;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The 781 Random64 numbers that Polyglot books are keyed on, and the position hashing built from them. The numbers
+ * are part of the Polyglot format rather than this engine, so they are loaded from a file: either the 6248 raw big
+ * endian bytes, or any text listing them as 0x-prefixed hex literals (such as the array in the Polyglot sources).
+ *
+ * Polyglot hashing differs from ZobristHash in two ways that matter for book lookups: rows count from the first rank,
+ * and the en passant file only enters the key when a pawn of the side to move stands ready to capture.
+ */
+public final class PolyglotKeys {
+
+    public static final int KEY_COUNT = 781;
+
+    private static final int CASTLING_OFFSET = 768;
+    private static final int EN_PASSANT_OFFSET = 772;
+    private static final int TURN_OFFSET = 780;
+    private static final Pattern HEX_LITERAL = Pattern.compile("0[xX]([0-9a-fA-F]{1,16})");
+
+    private final long[] keys;
+
+    private PolyglotKeys(final long[] keys) {
+        this.keys = keys;
+    }
+
+    /**
+     * Reads the Random64 numbers from a file.
+     *
+     * @param file
+     * @return
+     * @throws IOException if the file does not hold exactly 781 numbers
+     */
+    public static PolyglotKeys load(final File file) throws IOException {
+        final byte[] bytes = readFully(file);
+        final long[] keys = new long[KEY_COUNT];
+        if (bytes.length == KEY_COUNT * 8) {
+            ByteBuffer.wrap(bytes).asLongBuffer().get(keys);
+            return new PolyglotKeys(keys);
+        }
+        final Matcher matcher = HEX_LITERAL.matcher(new String(bytes, StandardCharsets.US_ASCII));
+        int count = 0;
+        while (matcher.find()) {
+            if (count == KEY_COUNT) {
+                throw new IOException("More than " + KEY_COUNT + " keys in " + file);
+            }
+            keys[count++] = new BigInteger(matcher.group(1), 16).longValue();
+        }
+        if (count != KEY_COUNT) {
+            throw new IOException("Expected " + KEY_COUNT + " keys but found " + count + " in " + file);
+        }
+        return new PolyglotKeys(keys);
+    }
+
+    private static byte[] readFully(final File file) throws IOException {
+        final RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+        try {
+            final byte[] bytes = new byte[(int) randomAccessFile.length()];
+            randomAccessFile.readFully(bytes);
+            return bytes;
+        } finally {
+            randomAccessFile.close();
+        }
+    }
+
+    /**
+     * Computes the Polyglot key of the board.
+     *
+     * @param board
+     * @return
+     */
+    public long hash(final Board board) {
+        long key = 0;
+        for (int tile = 0; tile < BoardUtils.NUM_TILES; tile++) {
+            final Piece piece = board.getTile(tile).getPiece();
+            if (piece != null) {
+                final int kind = 2 * piece.getPieceType().ordinal() + (piece.getPieceAlliance().isWhite() ? 1 : 0);
+                key ^= this.keys[64 * kind + 8 * row(tile) + file(tile)];
+            }
+        }
+        if (hasCastlingRight(board, 60, 63)) {
+            key ^= this.keys[CASTLING_OFFSET];
+        }
+        if (hasCastlingRight(board, 60, 56)) {
+            key ^= this.keys[CASTLING_OFFSET + 1];
+        }
+        if (hasCastlingRight(board, 4, 7)) {
+            key ^= this.keys[CASTLING_OFFSET + 2];
+        }
+        if (hasCastlingRight(board, 4, 0)) {
+            key ^= this.keys[CASTLING_OFFSET + 3];
+        }
+        final Pawn enPassantPawn = board.getEnPassantPawn();
+        if (enPassantPawn != null && canCaptureEnPassant(board, enPassantPawn)) {
+            key ^= this.keys[EN_PASSANT_OFFSET + file(enPassantPawn.getPiecePosition())];
+        }
+        if (board.currentPlayer().getAlliance().isWhite()) {
+            key ^= this.keys[TURN_OFFSET];
+        }
+        return key;
+    }
+
+    private static boolean canCaptureEnPassant(final Board board, final Pawn enPassantPawn) {
+        final int position = enPassantPawn.getPiecePosition();
+        final int file = file(position);
+        return (file > 0 && isCapturingPawn(board, position - 1, enPassantPawn)) ||
+                (file < BoardUtils.NUM_TILES_PER_ROW - 1 && isCapturingPawn(board, position + 1, enPassantPawn));
+    }
+
+    private static boolean isCapturingPawn(final Board board, final int tile, final Pawn enPassantPawn) {
+        final Piece piece = board.getTile(tile).getPiece();
+        return piece != null && piece.getPieceType() == Piece.PieceType.PAWN &&
+                piece.getPieceAlliance() != enPassantPawn.getPieceAlliance();
+    }
+
+    private static boolean hasCastlingRight(final Board board, final int kingTile, final int rookTile) {
+        final Piece king = board.getTile(kingTile).getPiece();
+        final Piece rook = board.getTile(rookTile).getPiece();
+        return king != null && king.getPieceType().isKing() && king.isFirstMove() &&
+                rook != null && rook.getPieceType().isRook() && rook.isFirstMove() &&
+                rook.getPieceAlliance() == king.getPieceAlliance();
+    }
+
+    /**
+     * Polyglot row of a tile, 0 being the first rank.
+     */
+    static int row(final int tile) {
+        return BoardUtils.NUM_TILES_PER_ROW - 1 - tile / BoardUtils.NUM_TILES_PER_ROW;
+    }
+
+    static int file(final int tile) {
+        return tile % BoardUtils.NUM_TILES_PER_ROW;
+    }
+
+    static int tile(final int row, final int file) {
+        return (BoardUtils.NUM_TILES_PER_ROW - 1 - row) * BoardUtils.NUM_TILES_PER_ROW + file;
+    }
+
+}
@@ -0,0 +1,188 @@
+package com.chess.engine.player.ai;
+
+import com.chess.engine.Alliance;
+import com.chess.engine.board.Board;
+import com.chess.engine.board.BoardUtils;
+import com.chess.engine.pieces.Piece;
+
+/**
+ * Squares attacked by each side, built once per evaluated position from the piece placement alone. Bit n of a map is
+ * tile n. The maps feed mobility, king-zone and space terms without consulting the move lists, and count what a
+ * piece attacks rather than where it may legally move, so pins and checks do not distort them.
+ */
+public final class AttackMaps {
+
+    static final int WHITE = 0;
+    static final int BLACK = 1;
+
+    //Weight of an attack on the enemy king zone by piece type ordinal
+    private static final int[] KING_ATTACK_WEIGHTS = {0, 2, 2, 3, 5, 0};
+    private static final int[][] KNIGHT_STEPS = {{-2, -1}, {-2, 1}, {-1, -2}, {-1, 2}, {1, -2}, {1, 2}, {2, -1}, {2, 1}};
+    private static final int[][] KING_STEPS = {{-1, -1}, {-1, 0}, {-1, 1}, {0, -1}, {0, 1}, {1, -1}, {1, 0}, {1, 1}};
+    private static final int[][] BISHOP_DIRECTIONS = {{-1, -1}, {-1, 1}, {1, -1}, {1, 1}};
+    private static final int[][] ROOK_DIRECTIONS = {{-1, 0}, {1, 0}, {0, -1}, {0, 1}};
+    //Files c to f on each side's second to fourth ranks
+    private static final long[] SPACE_AREA = {0x003C3C3C00000000L, 0x000000003C3C3C00L};
+
+    private static final long[] KNIGHT_ATTACKS = stepAttacks(KNIGHT_STEPS);
+    private static final long[] KING_ATTACKS = stepAttacks(KING_STEPS);
+
+    private final long[] occupancy = new long[2];
+    private final long[] pawns = new long[2];
+    private final long[] pawnAttacks = new long[2];
+    private final long[] attacks = new long[2];
+    private final int[] mobility = new int[2];
+    private final int[] kingAttacks = new int[2];
+    private final int[] space = new int[2];
+
+    public AttackMaps(final Board board) {
+        for (int tile = 0; tile < BoardUtils.NUM_TILES; tile++) {
+            final Piece piece = board.getTile(tile).getPiece();
+            if (piece != null) {
+                final int side = side(piece.getPieceAlliance());
+                this.occupancy[side] |= 1L << tile;
+                if (piece.getPieceType() == Piece.PieceType.PAWN) {
+                    this.pawns[side] |= 1L << tile;
+                }
+            }
+        }
+        final long empty = ~(this.occupancy[WHITE] | this.occupancy[BLACK]);
+        final long notAFile = 0xFEFEFEFEFEFEFEFEL;
+        final long notHFile = 0x7F7F7F7F7F7F7F7FL;
+        //Tile 0 is a8, so white pawns attack towards lower tiles
+        this.pawnAttacks[WHITE] = ((this.pawns[WHITE] & notAFile) >>> 9) | ((this.pawns[WHITE] & notHFile) >>> 7);
+        this.pawnAttacks[BLACK] = ((this.pawns[BLACK] & notHFile) << 9) | ((this.pawns[BLACK] & notAFile) << 7);
+        this.attacks[WHITE] = this.pawnAttacks[WHITE];
+        this.attacks[BLACK] = this.pawnAttacks[BLACK];
+        final long[] kingZones = {
+                kingZone(board.whitePlayer().getPlayerKing().getPiecePosition()),
+                kingZone(board.blackPlayer().getPlayerKing().getPiecePosition())
+        };
+        for (int tile = 0; tile < BoardUtils.NUM_TILES; tile++) {
+            final Piece piece = board.getTile(tile).getPiece();
+            if (piece == null || piece.getPieceType() == Piece.PieceType.PAWN) {
+                continue;
+            }
+            final int side = side(piece.getPieceAlliance());
+            final long pieceAttacks = pieceAttacks(piece.getPieceType(), tile, empty);
+            this.attacks[side] |= pieceAttacks;
+            if (piece.getPieceType() != Piece.PieceType.KING) {
+                this.mobility[side] += Long.bitCount(pieceAttacks & ~this.occupancy[side] & ~this.pawnAttacks[1 - side]);
+                this.kingAttacks[side] += KING_ATTACK_WEIGHTS[piece.getPieceType().ordinal()] *
+                        Long.bitCount(pieceAttacks & kingZones[1 - side]);
+            }
+        }
+        for (int side = WHITE; side <= BLACK; side++) {
+            final long safe = SPACE_AREA[side] & ~this.pawns[side] & ~this.pawnAttacks[1 - side];
+            this.space[side] = Long.bitCount(safe & this.attacks[side]);
+        }
+    }
+
+    private static int side(final Alliance alliance) {
+        return alliance.isWhite() ? WHITE : BLACK;
+    }
+
+    private static long kingZone(final int kingTile) {
+        return KING_ATTACKS[kingTile] | (1L << kingTile);
+    }
+
+    private static long pieceAttacks(final Piece.PieceType pieceType, final int tile, final long empty) {
+        switch (pieceType) {
+            case KNIGHT:
+                return KNIGHT_ATTACKS[tile];
+            case BISHOP:
+                return slidingAttacks(tile, empty, BISHOP_DIRECTIONS);
+            case ROOK:
+                return slidingAttacks(tile, empty, ROOK_DIRECTIONS);
+            case QUEEN:
+                return slidingAttacks(tile, empty, BISHOP_DIRECTIONS) | slidingAttacks(tile, empty, ROOK_DIRECTIONS);
+            case KING:
+                return KING_ATTACKS[tile];
+            default:
+                return 0L;
+        }
+    }
+
+    private static long slidingAttacks(final int tile, final long empty, final int[][] directions) {
+        long attacks = 0L;
+        final int row = tile / BoardUtils.NUM_TILES_PER_ROW;
+        final int file = tile % BoardUtils.NUM_TILES_PER_ROW;
+        for (final int[] direction : directions) {
+            int r = row + direction[0];
+            int f = file + direction[1];
+            while (r >= 0 && r < BoardUtils.NUM_TILES_PER_ROW && f >= 0 && f < BoardUtils.NUM_TILES_PER_ROW) {
+                final long square = 1L << (r * BoardUtils.NUM_TILES_PER_ROW + f);
+                attacks |= square;
+                if ((empty & square) == 0) {
+                    break;
+                }
+                r += direction[0];
+                f += direction[1];
+            }
+        }
+        return attacks;
+    }
+
+    private static long[] stepAttacks(final int[][] steps) {
+        final long[] attacks = new long[BoardUtils.NUM_TILES];
+        for (int tile = 0; tile < BoardUtils.NUM_TILES; tile++) {
+            final int row = tile / BoardUtils.NUM_TILES_PER_ROW;
+            final int file = tile % BoardUtils.NUM_TILES_PER_ROW;
+            for (final int[] step : steps) {
+                final int r = row + step[0];
+                final int f = file + step[1];
+                if (r >= 0 && r < BoardUtils.NUM_TILES_PER_ROW && f >= 0 && f < BoardUtils.NUM_TILES_PER_ROW) {
+                    attacks[tile] |= 1L << (r * BoardUtils.NUM_TILES_PER_ROW + f);
+                }
+            }
+        }
+        return attacks;
+    }
+
+    /**
+     * Returns every square the side attacks.
+     *
+     * @param alliance
+     * @return
+     */
+    public long getAttacks(final Alliance alliance) {
+        return this.attacks[side(alliance)];
+    }
+
+    public long getPawnAttacks(final Alliance alliance) {
+        return this.pawnAttacks[side(alliance)];
+    }
+
+    /**
+     * Squares attacked by the side's knights, bishops, rooks and queens that hold no friendly piece and are not
+     * covered by an enemy pawn, counted once per attacking piece.
+     *
+     * @param alliance
+     * @return
+     */
+    public int getMobility(final Alliance alliance) {
+        return this.mobility[side(alliance)];
+    }
+
+    /**
+     * Weighted count of the side's attacks on the squares around the enemy king.
+     *
+     * @param alliance
+     * @return
+     */
+    public int getKingAttacks(final Alliance alliance) {
+        return this.kingAttacks[side(alliance)];
+    }
+
+    /**
+     * Central squares on the side's second to fourth ranks that it controls, free of its own pawns and not covered
+     * by an enemy pawn.
+     *
+     * @param alliance
+     * @return
+     */
+    public int getSpace(final Alliance alliance) {
+        return this.space[side(alliance)];
+    }
+
+}
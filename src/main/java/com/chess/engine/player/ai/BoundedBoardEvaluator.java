@@ -0,0 +1,14 @@
+package com.chess.engine.player.ai;
+
+import com.chess.engine.board.Board;
+
+/**
+ * An evaluator that can stop early when only the side of a window the score falls on matters. The window is from
+ * white's point of view like the scores. A score inside the window is exact; one outside it may be an estimate from
+ * the cheap terms alone, which is enough for a cutoff or to stand pat on.
+ */
+public interface BoundedBoardEvaluator extends BoardEvaluator {
+
+    int evaluate(Board board, int depth, int alpha, int beta);
+
+}
@@ -0,0 +1,131 @@
+package com.chess.engine.player.ai;
+
+import com.chess.engine.board.Board;
+
+/**
+ * Remembers the scores another evaluator gave recently seen positions, keyed by Zobrist hash. Leaves reached
+ * through transpositions, and the repeated static evaluations of pruning and quiescence search, then cost a single
+ * table lookup. Transpositions share a score even where the delegate looks at history the key does not cover, such
+ * as whether a king got to its square by castling.
+ *
+ * The table has a fixed size and always replaces. Like TranspositionTable it stores each key XOR'd with its entry,
+ * so it needs no locking: a slot torn by two threads writing at once fails verification and is treated as a miss.
+ * The hit counters are not synchronized and may undercount slightly when the cache is shared between threads.
+ */
+public final class CachingBoardEvaluator implements BoundedBoardEvaluator {
+
+    public static final int DEFAULT_SIZE = 1 << 18;
+
+    private static final long OCCUPIED = 1L << 40;
+
+    private final BoardEvaluator delegate;
+    private final long[] keys;
+    private final long[] entries;
+    private final int mask;
+    private long probes;
+    private long hits;
+
+    public CachingBoardEvaluator(final BoardEvaluator delegate) {
+        this(delegate, DEFAULT_SIZE);
+    }
+
+    /**
+     * Constructor for CachingBoardEvaluator. The size is rounded down to a power of two.
+     *
+     * @param delegate evaluator whose scores are cached
+     * @param size     number of entries
+     */
+    public CachingBoardEvaluator(final BoardEvaluator delegate, final int size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("Evaluation cache size must be positive: " + size);
+        }
+        final int capacity = Integer.highestOneBit(size);
+        this.delegate = delegate;
+        this.keys = new long[capacity];
+        this.entries = new long[capacity];
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * The depth is part of the entry because the delegate may score mates by depth.
+     */
+    @Override
+    public int evaluate(final Board board, final int depth) {
+        final long key = board.getZobristKey();
+        final int index = (int) key & this.mask;
+        final long entry = this.entries[index];
+        this.probes++;
+        if ((this.keys[index] ^ entry) == key && depth(entry) == (depth & 0xFF)) {
+            this.hits++;
+            return (int) entry;
+        }
+        final int score = this.delegate.evaluate(board, depth);
+        store(index, key, score, depth);
+        return score;
+    }
+
+    /**
+     * Passes the window on to a bounded delegate. Only scores inside the window are stored, since those outside it
+     * may be lazy estimates.
+     */
+    @Override
+    public int evaluate(final Board board, final int depth, final int alpha, final int beta) {
+        if (!(this.delegate instanceof BoundedBoardEvaluator)) {
+            return evaluate(board, depth);
+        }
+        final long key = board.getZobristKey();
+        final int index = (int) key & this.mask;
+        final long entry = this.entries[index];
+        this.probes++;
+        if ((this.keys[index] ^ entry) == key && depth(entry) == (depth & 0xFF)) {
+            this.hits++;
+            return (int) entry;
+        }
+        final int score = ((BoundedBoardEvaluator) this.delegate).evaluate(board, depth, alpha, beta);
+        if (score > alpha && score < beta) {
+            store(index, key, score, depth);
+        }
+        return score;
+    }
+
+    private void store(final int index, final long key, final int score, final int depth) {
+        final long newEntry = (score & 0xFFFFFFFFL) | ((long) (depth & 0xFF) << 32) | OCCUPIED;
+        this.entries[index] = newEntry;
+        this.keys[index] = key ^ newEntry;
+    }
+
+    private static int depth(final long entry) {
+        return (int) (entry >>> 32) & 0xFF;
+    }
+
+    public long getProbes() {
+        return this.probes;
+    }
+
+    public long getHits() {
+        return this.hits;
+    }
+
+    public double getHitRate() {
+        return this.probes == 0 ? 0 : (double) this.hits / this.probes;
+    }
+
+    public int size() {
+        return this.keys.length;
+    }
+
+    public void clear() {
+        for (int i = 0; i < this.keys.length; i++) {
+            this.keys[i] = 0L;
+            this.entries[i] = 0L;
+        }
+        this.probes = 0;
+        this.hits = 0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("evaluation cache %d/%d (%.1f%%)", this.hits, this.probes, getHitRate() * 100);
+    }
+
+}
@@ -0,0 +1,34 @@
+package com.chess.engine.player.ai;
+
+/**
+ * Flag shared between a running search and whoever started it. The search polls the token every 1024 nodes
+ * and stops with the best move found so far once it has been cancelled.
+ */
+public final class CancellationToken {
+
+    //Polling every 1024 nodes keeps the volatile read off the hot path
+    private static final long CHECK_INTERVAL_MASK = 1023;
+
+    private volatile boolean cancelled;
+
+    public void cancel() {
+        this.cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return this.cancelled;
+    }
+
+    /**
+     * Called by searches once per node. Throws SearchCancelledException on every 1024th node after the token has
+     * been cancelled.
+     *
+     * @param nodesSearched
+     */
+    void checkpoint(final long nodesSearched) {
+        if ((nodesSearched & CHECK_INTERVAL_MASK) == 0 && this.cancelled) {
+            throw new SearchCancelledException();
+        }
+    }
+
+}
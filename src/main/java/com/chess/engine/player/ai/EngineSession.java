@@ -0,0 +1,119 @@
+package com.chess.engine.player.ai;
+
+import com.chess.engine.board.Board;
+import com.chess.engine.board.Move;
+
+import java.util.List;
+
+/**
+ * Search state kept for the whole of a game: the transposition table, the history table, the evaluation cache and
+ * the principal variation of the last search. Strategies created with the same session start each move from what
+ * the previous searches already learned instead of from scratch.
+ */
+public final class EngineSession {
+
+    private final TranspositionTable transpositionTable;
+    private final HistoryTable historyTable;
+    private final CachingBoardEvaluator evaluationCache;
+    private volatile SearchResult lastResult;
+
+    public EngineSession() {
+        this(new TranspositionTable());
+    }
+
+    public EngineSession(final TranspositionTable transpositionTable) {
+        this(transpositionTable, CachingBoardEvaluator.DEFAULT_SIZE);
+    }
+
+    /**
+     * Constructor for EngineSession
+     *
+     * @param transpositionTable
+     * @param evaluationCacheSize number of static evaluations remembered
+     */
+    public EngineSession(final TranspositionTable transpositionTable, final int evaluationCacheSize) {
+        this(transpositionTable, new StandardBoardEvaluator(), evaluationCacheSize);
+    }
+
+    /**
+     * Constructor for an EngineSession whose searches evaluate with the given evaluator.
+     *
+     * @param boardEvaluator
+     */
+    public EngineSession(final BoardEvaluator boardEvaluator) {
+        this(new TranspositionTable(), boardEvaluator, CachingBoardEvaluator.DEFAULT_SIZE);
+    }
+
+    /**
+     * Constructor for EngineSession
+     *
+     * @param transpositionTable
+     * @param boardEvaluator      evaluator used by the session's searches
+     * @param evaluationCacheSize number of static evaluations remembered
+     */
+    public EngineSession(final TranspositionTable transpositionTable,
+                         final BoardEvaluator boardEvaluator,
+                         final int evaluationCacheSize) {
+        this.transpositionTable = transpositionTable;
+        this.historyTable = new HistoryTable();
+        this.evaluationCache = new CachingBoardEvaluator(boardEvaluator, evaluationCacheSize);
+    }
+
+    public TranspositionTable getTranspositionTable() {
+        return this.transpositionTable;
+    }
+
+    public HistoryTable getHistoryTable() {
+        return this.historyTable;
+    }
+
+    /**
+     * Returns the session's evaluator, StandardBoardEvaluator unless another was given, wrapped in its evaluation
+     * cache.
+     *
+     * @return
+     */
+    public CachingBoardEvaluator getEvaluationCache() {
+        return this.evaluationCache;
+    }
+
+    public SearchResult getLastResult() {
+        return this.lastResult;
+    }
+
+    void searchCompleted(final SearchResult searchResult) {
+        this.lastResult = searchResult;
+    }
+
+    /**
+     * Returns the rest of the last principal variation if the board is the position it predicted two plies on,
+     * i.e. the game followed the expected line. Otherwise returns an empty array.
+     *
+     * @param board
+     * @return
+     */
+    Move[] expectedLine(final Board board) {
+        final SearchResult searchResult = this.lastResult;
+        if (searchResult == null) {
+            return new Move[0];
+        }
+        final List<Move> principalVariation = searchResult.getPrincipalVariation();
+        if (principalVariation.size() < 3 ||
+                principalVariation.get(2).getBoard().getZobristKey() != board.getZobristKey()) {
+            return new Move[0];
+        }
+        final List<Move> line = principalVariation.subList(2, principalVariation.size());
+        return line.toArray(new Move[line.size()]);
+    }
+
+    /**
+     * Forgets everything learned, used when a new game starts.
+     */
+    public void clear() {
+        this.transpositionTable.clear();
+        this.historyTable.clear();
+        this.evaluationCache.clear();
+        this.lastResult = null;
+    }
+
+}
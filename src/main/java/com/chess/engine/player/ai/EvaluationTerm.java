@@ -0,0 +1,20 @@
+package com.chess.engine.player.ai;
+
+import com.chess.engine.board.Board;
+
+/**
+ * One component of a composed evaluation, such as material or mobility. Terms score the position from white's
+ * point of view and StandardBoardEvaluator adds up the ones that are enabled.
+ */
+public interface EvaluationTerm {
+
+    /**
+     * Returns the name the term is reported and enabled or disabled under.
+     *
+     * @return
+     */
+    String getName();
+
+    int evaluate(Board board, int depth);
+
+}
@@ -0,0 +1,131 @@
+package com.chess.engine.player.ai;
+
+import com.chess.engine.board.Board;
+import com.chess.engine.player.Player;
+import com.google.common.collect.ImmutableList;
+
+import java.util.List;
+
+/**
+ * The terms StandardBoardEvaluator is made of by default.
+ */
+public final class EvaluationTerms {
+
+    public static final String MATERIAL = "material";
+    public static final String MOBILITY = "mobility";
+    public static final String CHECK = "check";
+    public static final String CHECKMATE = "checkmate";
+    public static final String CASTLED = "castled";
+    public static final String PAWN_STRUCTURE = "pawn structure";
+
+    private static final int CHECK_BONUS = 50;
+    private static final int CHECK_MATE_BONUS = 10000;
+    private static final int DEPTH_BONUS = 100;
+    private static final int CASTLE_BONUS = 60;
+
+    private EvaluationTerms() {
+        throw new RuntimeException("Not Instantiable!");
+    }
+
+    /**
+     * Returns the standard terms in the order they are evaluated, cheapest first.
+     *
+     * @param pawnHashTable table the pawn structure term caches its scores in
+     * @return
+     */
+    public static List<EvaluationTerm> standardTerms(final PawnHashTable pawnHashTable) {
+        return ImmutableList.of(material(), mobility(), check(), checkmate(), castled(),
+                pawnStructure(pawnHashTable));
+    }
+
+    public static EvaluationTerm material() {
+        return new EvaluationTerm() {
+            @Override
+            public String getName() {
+                return MATERIAL;
+            }
+
+            @Override
+            public int evaluate(final Board board, final int depth) {
+                return board.getMaterialBalance();
+            }
+        };
+    }
+
+    public static EvaluationTerm mobility() {
+        return new PlayerTerm(MOBILITY) {
+            @Override
+            int score(final Player player, final int depth) {
+                return player.getLegalMoves().size();
+            }
+        };
+    }
+
+    public static EvaluationTerm check() {
+        return new PlayerTerm(CHECK) {
+            @Override
+            int score(final Player player, final int depth) {
+                return player.getOpponent().isInCheck() ? CHECK_BONUS : 0;
+            }
+        };
+    }
+
+    public static EvaluationTerm checkmate() {
+        return new PlayerTerm(CHECKMATE) {
+            @Override
+            int score(final Player player, final int depth) {
+                return player.getOpponent().isInCheckMate() ?
+                        CHECK_MATE_BONUS * (depth == 0 ? 1 : DEPTH_BONUS * depth) : 0;
+            }
+        };
+    }
+
+    public static EvaluationTerm castled() {
+        return new PlayerTerm(CASTLED) {
+            @Override
+            int score(final Player player, final int depth) {
+                return player.isCastled() ? CASTLE_BONUS : 0;
+            }
+        };
+    }
+
+    public static EvaluationTerm pawnStructure(final PawnHashTable pawnHashTable) {
+        return new EvaluationTerm() {
+            @Override
+            public String getName() {
+                return PAWN_STRUCTURE;
+            }
+
+            @Override
+            public int evaluate(final Board board, final int depth) {
+                return PawnStructure.evaluate(board, pawnHashTable);
+            }
+        };
+    }
+
+    /**
+     * A term scored the same way for both sides, white's score minus black's.
+     */
+    private static abstract class PlayerTerm implements EvaluationTerm {
+
+        private final String name;
+
+        PlayerTerm(final String name) {
+            this.name = name;
+        }
+
+        @Override
+        public String getName() {
+            return this.name;
+        }
+
+        @Override
+        public int evaluate(final Board board, final int depth) {
+            return score(board.whitePlayer(), depth) - score(board.blackPlayer(), depth);
+        }
+
+        abstract int score(Player player, int depth);
+
+    }
+
+}
@@ -0,0 +1,243 @@
+package com.chess.engine.player.ai;
+
+import com.chess.engine.board.BoardUtils;
+import com.chess.engine.board.PieceSquareTables;
+import com.chess.engine.pieces.Piece;
+
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.Properties;
+
+/**
+ * Every weight used by TaperedBoardEvaluator, held in one flat array so tools can treat them as a parameter vector.
+ * Weights are read from and written to a properties file with one comma separated list per key:
+ *
+ * middlegame.values, endgame.values   one value per piece type, pawn to king
+ * middlegame.pawn ... endgame.king    64 piece-square entries from white's point of view, a8 first
+ * mobility, king.attack, space,
+ * bishop.pair                         middlegame and endgame weight
+ *
+ * Keys missing from a file keep their default. The game phase weights are fixed by PieceSquareTables because the
+ * board tracks the phase itself.
+ */
+public final class EvaluationWeights {
+
+    private static final Piece.PieceType[] PIECE_TYPES = Piece.PieceType.values();
+    private static final int TYPES = PIECE_TYPES.length;
+    static final int SQUARES = BoardUtils.NUM_TILES;
+
+    static final int MIDDLEGAME_VALUES = 0;
+    static final int ENDGAME_VALUES = MIDDLEGAME_VALUES + TYPES;
+    static final int MIDDLEGAME_TABLES = ENDGAME_VALUES + TYPES;
+    static final int ENDGAME_TABLES = MIDDLEGAME_TABLES + TYPES * SQUARES;
+    static final int MOBILITY = ENDGAME_TABLES + TYPES * SQUARES;
+    static final int KING_ATTACK = MOBILITY + 2;
+    static final int SPACE = KING_ATTACK + 2;
+    static final int BISHOP_PAIR = SPACE + 2;
+    public static final int COUNT = BISHOP_PAIR + 2;
+
+    private static final int[] DEFAULT_MOBILITY = {4, 4};
+    private static final int[] DEFAULT_KING_ATTACK = {4, 0};
+    private static final int[] DEFAULT_SPACE = {3, 0};
+    private static final int[] DEFAULT_BISHOP_PAIR = {30, 50};
+    private static final EvaluationWeights DEFAULTS = createDefaults();
+
+    private final int[] weights;
+    private final boolean defaultTables;
+
+    /**
+     * Constructor for EvaluationWeights
+     *
+     * @param weights COUNT weights laid out as returned by toArray
+     */
+    public EvaluationWeights(final int[] weights) {
+        if (weights.length != COUNT) {
+            throw new IllegalArgumentException("Expected " + COUNT + " weights but got " + weights.length);
+        }
+        this.weights = weights.clone();
+        //DEFAULTS is still null while the defaults themselves are being created
+        this.defaultTables = DEFAULTS == null || Arrays.equals(
+                Arrays.copyOfRange(this.weights, 0, MOBILITY), Arrays.copyOfRange(DEFAULTS.weights, 0, MOBILITY));
+    }
+
+    private static EvaluationWeights createDefaults() {
+        final int[] weights = new int[COUNT];
+        for (final Piece.PieceType pieceType : PIECE_TYPES) {
+            final int type = pieceType.ordinal();
+            weights[MIDDLEGAME_VALUES + type] = PieceSquareTables.middlegameValue(pieceType);
+            weights[ENDGAME_VALUES + type] = PieceSquareTables.endgameValue(pieceType);
+            System.arraycopy(PieceSquareTables.middlegameTable(pieceType), 0,
+                    weights, MIDDLEGAME_TABLES + type * SQUARES, SQUARES);
+            System.arraycopy(PieceSquareTables.endgameTable(pieceType), 0,
+                    weights, ENDGAME_TABLES + type * SQUARES, SQUARES);
+        }
+        System.arraycopy(DEFAULT_MOBILITY, 0, weights, MOBILITY, 2);
+        System.arraycopy(DEFAULT_KING_ATTACK, 0, weights, KING_ATTACK, 2);
+        System.arraycopy(DEFAULT_SPACE, 0, weights, SPACE, 2);
+        System.arraycopy(DEFAULT_BISHOP_PAIR, 0, weights, BISHOP_PAIR, 2);
+        return new EvaluationWeights(weights);
+    }
+
+    public static EvaluationWeights defaults() {
+        return DEFAULTS;
+    }
+
+    /**
+     * Reads weights from a properties file, starting from the defaults.
+     *
+     * @param file
+     * @return
+     * @throws IOException if the file cannot be read or a list has the wrong length
+     */
+    public static EvaluationWeights load(final File file) throws IOException {
+        final Properties properties = new Properties();
+        final Reader reader = new FileReader(file);
+        try {
+            properties.load(reader);
+        } finally {
+            reader.close();
+        }
+        final int[] weights = DEFAULTS.toArray();
+        read(properties, "middlegame.values", weights, MIDDLEGAME_VALUES, TYPES);
+        read(properties, "endgame.values", weights, ENDGAME_VALUES, TYPES);
+        for (final Piece.PieceType pieceType : PIECE_TYPES) {
+            final int type = pieceType.ordinal();
+            read(properties, "middlegame." + tableName(pieceType), weights, MIDDLEGAME_TABLES + type * SQUARES, SQUARES);
+            read(properties, "endgame." + tableName(pieceType), weights, ENDGAME_TABLES + type * SQUARES, SQUARES);
+        }
+        read(properties, "mobility", weights, MOBILITY, 2);
+        read(properties, "king.attack", weights, KING_ATTACK, 2);
+        read(properties, "space", weights, SPACE, 2);
+        read(properties, "bishop.pair", weights, BISHOP_PAIR, 2);
+        return new EvaluationWeights(weights);
+    }
+
+    private static void read(final Properties properties,
+                             final String key,
+                             final int[] weights,
+                             final int offset,
+                             final int length) throws IOException {
+        final String value = properties.getProperty(key);
+        if (value == null) {
+            return;
+        }
+        final String[] values = value.trim().split("\\s*,\\s*");
+        if (values.length != length) {
+            throw new IOException(key + " needs " + length + " values but has " + values.length);
+        }
+        try {
+            for (int i = 0; i < length; i++) {
+                weights[offset + i] = Integer.parseInt(values[i]);
+            }
+        } catch (final NumberFormatException e) {
+            throw new IOException("Invalid value for " + key + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Writes every weight to a properties file readable by load.
+     *
+     * @param file
+     * @throws IOException
+     */
+    public void save(final File file) throws IOException {
+        final Writer writer = new FileWriter(file);
+        try {
+            write(writer, "middlegame.values", MIDDLEGAME_VALUES, TYPES);
+            write(writer, "endgame.values", ENDGAME_VALUES, TYPES);
+            for (final Piece.PieceType pieceType : PIECE_TYPES) {
+                final int type = pieceType.ordinal();
+                write(writer, "middlegame." + tableName(pieceType), MIDDLEGAME_TABLES + type * SQUARES, SQUARES);
+                write(writer, "endgame." + tableName(pieceType), ENDGAME_TABLES + type * SQUARES, SQUARES);
+            }
+            write(writer, "mobility", MOBILITY, 2);
+            write(writer, "king.attack", KING_ATTACK, 2);
+            write(writer, "space", SPACE, 2);
+            write(writer, "bishop.pair", BISHOP_PAIR, 2);
+        } finally {
+            writer.close();
+        }
+    }
+
+    private void write(final Writer writer, final String key, final int offset, final int length) throws IOException {
+        final StringBuilder line = new StringBuilder(key).append(" = ");
+        for (int i = 0; i < length; i++) {
+            if (i > 0) {
+                line.append(i % BoardUtils.NUM_TILES_PER_ROW == 0 ? ", \\\n    " : ", ");
+            }
+            line.append(this.weights[offset + i]);
+        }
+        writer.write(line.append('\n').toString());
+    }
+
+    private static String tableName(final Piece.PieceType pieceType) {
+        return pieceType.name().toLowerCase();
+    }
+
+    public int[] toArray() {
+        return this.weights.clone();
+    }
+
+    /**
+     * True if the material and piece-square weights are the defaults, which Board already keeps summed.
+     *
+     * @return
+     */
+    public boolean hasDefaultTables() {
+        return this.defaultTables;
+    }
+
+    public int middlegameValue(final int type) {
+        return this.weights[MIDDLEGAME_VALUES + type];
+    }
+
+    public int endgameValue(final int type) {
+        return this.weights[ENDGAME_VALUES + type];
+    }
+
+    public int middlegameSquare(final int type, final int index) {
+        return this.weights[MIDDLEGAME_TABLES + type * SQUARES + index];
+    }
+
+    public int endgameSquare(final int type, final int index) {
+        return this.weights[ENDGAME_TABLES + type * SQUARES + index];
+    }
+
+    public int middlegameMobility() {
+        return this.weights[MOBILITY];
+    }
+
+    public int endgameMobility() {
+        return this.weights[MOBILITY + 1];
+    }
+
+    public int middlegameKingAttack() {
+        return this.weights[KING_ATTACK];
+    }
+
+    public int endgameKingAttack() {
+        return this.weights[KING_ATTACK + 1];
+    }
+
+    public int middlegameSpace() {
+        return this.weights[SPACE];
+    }
+
+    public int endgameSpace() {
+        return this.weights[SPACE + 1];
+    }
+
+    public int middlegameBishopPair() {
+        return this.weights[BISHOP_PAIR];
+    }
+
+    public int endgameBishopPair() {
+        return this.weights[BISHOP_PAIR + 1];
+    }
+
+}
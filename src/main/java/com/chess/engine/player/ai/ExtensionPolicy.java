@@ -0,0 +1,70 @@
+package com.chess.engine.player.ai;
+
+import com.chess.engine.board.Board;
+import com.chess.engine.board.Move;
+import com.google.common.collect.ImmutableList;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Combines search extensions with a budget limiting how many plies a single line may be extended by, so forcing
+ * sequences such as perpetual checks cannot grow the tree without bound.
+ */
+public final class ExtensionPolicy {
+
+    public static final ExtensionPolicy NONE = new ExtensionPolicy(0);
+
+    private static final int DEFAULT_BUDGET = 4;
+
+    private final List<SearchExtension> extensions;
+    private final int maxExtensionsPerLine;
+
+    /**
+     * Constructor for ExtensionPolicy
+     *
+     * @param maxExtensionsPerLine
+     * @param extensions
+     */
+    public ExtensionPolicy(final int maxExtensionsPerLine, final SearchExtension... extensions) {
+        this.maxExtensionsPerLine = maxExtensionsPerLine;
+        this.extensions = ImmutableList.copyOf(Arrays.asList(extensions));
+    }
+
+    /**
+     * Returns the policy extending checks, recaptures and passed pawn pushes to the seventh rank.
+     *
+     * @return
+     */
+    public static ExtensionPolicy standard() {
+        return new ExtensionPolicy(DEFAULT_BUDGET, StandardSearchExtension.values());
+    }
+
+    /**
+     * Returns the number of plies to extend the move by: one if any extension applies and the line still has budget
+     * left, otherwise zero.
+     *
+     * @param board
+     * @param move
+     * @param child
+     * @param previousMove
+     * @param extensionsUsed extensions already applied on the line leading to board
+     * @return
+     */
+    public int extension(final Board board,
+                         final Move move,
+                         final Board child,
+                         final Move previousMove,
+                         final int extensionsUsed) {
+        if (extensionsUsed >= this.maxExtensionsPerLine) {
+            return 0;
+        }
+        for (final SearchExtension extension : this.extensions) {
+            if (extension.extend(board, move, child, previousMove)) {
+                return 1;
+            }
+        }
+        return 0;
+    }
+
+}
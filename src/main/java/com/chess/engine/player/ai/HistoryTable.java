@@ -0,0 +1,66 @@
+package com.chess.engine.player.ai;
+
+import com.chess.engine.Alliance;
+import com.chess.engine.board.BoardUtils;
+import com.chess.engine.board.Move;
+
+/**
+ * History heuristic: quiet moves that caused beta cutoffs are remembered by side, source and destination tile and
+ * tried earlier wherever they are legal again.
+ */
+public final class HistoryTable {
+
+    //Kept below the capture ordering scores so captures are always tried first
+    static final int MAX_SCORE = 1 << 19;
+
+    private final int[][][] history;
+
+    public HistoryTable() {
+        this.history = new int[2][BoardUtils.NUM_TILES][BoardUtils.NUM_TILES];
+    }
+
+    /**
+     * Rewards a quiet move that caused a cutoff, by more the deeper the remaining search.
+     *
+     * @param alliance
+     * @param move
+     * @param depth
+     */
+    void reward(final Alliance alliance, final Move move, final int depth) {
+        final int[] row = this.history[index(alliance)][move.getCurrentCoordinate()];
+        final int destination = move.getDestinationCoordinate();
+        row[destination] = Math.min(MAX_SCORE, row[destination] + depth * depth);
+    }
+
+    int score(final Alliance alliance, final Move move) {
+        return this.history[index(alliance)][move.getCurrentCoordinate()][move.getDestinationCoordinate()];
+    }
+
+    /**
+     * Halves every entry so that knowledge from earlier moves of the game fades.
+     */
+    void age() {
+        for (final int[][] side : this.history) {
+            for (final int[] row : side) {
+                for (int i = 0; i < row.length; i++) {
+                    row[i] >>= 1;
+                }
+            }
+        }
+    }
+
+    public void clear() {
+        for (final int[][] side : this.history) {
+            for (final int[] row : side) {
+                for (int i = 0; i < row.length; i++) {
+                    row[i] = 0;
+                }
+            }
+        }
+    }
+
+    private static int index(final Alliance alliance) {
+        return alliance.isWhite() ? 0 : 1;
+    }
+
+}
@@ -0,0 +1,624 @@
+package com.chess.engine.player.ai;
+
+import com.chess.engine.board.Board;
+import com.chess.engine.board.Move;
+import com.chess.engine.player.MoveTransition;
+import com.chess.engine.tablebase.EndgameTablebase;
+import com.chess.engine.tablebase.SyzygyTablebase;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import static com.chess.engine.player.ai.MiniMax.isEndGameScenario;
+
+public class IterativeDeepening implements MoveStrategy {
+
+    private static final int INFINITY = Integer.MAX_VALUE / 2;
+    private static final int ASPIRATION_WINDOW = 50;
+    private static final int MAX_ASPIRATION_WINDOW = 1000;
+    private static final int MAX_PLY = 64;
+    //Scores beyond this are mates and must not be pruned on
+    private static final int MATE_THRESHOLD = 9000;
+    private static final int CAPTURE_SCORE = HistoryTable.MAX_SCORE + 1;
+    private static final int PRUNING_DEPTH = 3;
+    private static final int[] FUTILITY_MARGINS = {0, 200, 300, 500};
+    private static final int REVERSE_FUTILITY_MARGIN = 120;
+    private static final int[] RAZORING_MARGINS = {0, 300, 400, 600};
+
+    private BoardEvaluator boardEvaluator;
+    private EndgameTablebase tablebase;
+    private SyzygyTablebase syzygyTablebase;
+    private final EngineSession engineSession;
+    private final TranspositionTable transpositionTable;
+    private final HistoryTable historyTable;
+    private final int searchDepth;
+    private final Move[][] pvTable;
+    private final int[] pvLength;
+    private Move[] previousPv;
+    private SearchStatistics statistics;
+    private final List<SearchListener> searchListeners;
+    private ExtensionPolicy extensionPolicy;
+    private boolean futilityPruning;
+    private boolean reverseFutilityPruning;
+    private boolean razoring;
+    private int multiPv;
+    private final List<Move> excludedRootMoves;
+    private CancellationToken cancellationToken;
+
+    public IterativeDeepening(final int searchDepth) {
+        this(searchDepth, new EngineSession());
+    }
+
+    /**
+     * Constructor for IterativeDeepening sharing its tables and previous principal variation with every other
+     * strategy created for the same session.
+     *
+     * @param searchDepth
+     * @param engineSession
+     */
+    public IterativeDeepening(final int searchDepth,
+                              final EngineSession engineSession) {
+        this.boardEvaluator = engineSession.getEvaluationCache();
+        this.engineSession = engineSession;
+        this.transpositionTable = engineSession.getTranspositionTable();
+        this.historyTable = engineSession.getHistoryTable();
+        this.searchDepth = searchDepth;
+        this.pvTable = new Move[MAX_PLY][MAX_PLY];
+        this.pvLength = new int[MAX_PLY];
+        this.previousPv = new Move[0];
+        this.cancellationToken = new CancellationToken();
+        this.statistics = new SearchStatistics();
+        this.searchListeners = new ArrayList<SearchListener>();
+        this.extensionPolicy = ExtensionPolicy.standard();
+        this.futilityPruning = true;
+        this.reverseFutilityPruning = true;
+        this.razoring = true;
+        this.multiPv = 1;
+        this.excludedRootMoves = new ArrayList<Move>();
+    }
+
+    /**
+     * Replaces the extension policy, ExtensionPolicy.NONE searches every line to the nominal depth.
+     *
+     * @param extensionPolicy
+     */
+    public void setExtensionPolicy(final ExtensionPolicy extensionPolicy) {
+        this.extensionPolicy = extensionPolicy;
+    }
+
+    /**
+     * Registers a listener notified after every completed iteration.
+     *
+     * @param searchListener
+     */
+    public void addSearchListener(final SearchListener searchListener) {
+        this.searchListeners.add(searchListener);
+    }
+
+    /**
+     * Scores positions covered by the tablebase from it, both at interior nodes and in the evaluator. Null turns
+     * tablebase probing off again.
+     *
+     * @param tablebase
+     */
+    public void setTablebase(final EndgameTablebase tablebase) {
+        this.tablebase = tablebase;
+        this.boardEvaluator = tablebase == null ? this.engineSession.getEvaluationCache() :
+                new TablebaseBoardEvaluator(tablebase, this.engineSession.getEvaluationCache());
+    }
+
+    /**
+     * Plays positions covered by the Syzygy tables straight from them and scores covered interior nodes by their
+     * win/draw/loss value. The distance-to-mate tables take precedence where both apply.
+     *
+     * @param syzygyTablebase
+     */
+    public void setSyzygyTablebase(final SyzygyTablebase syzygyTablebase) {
+        this.syzygyTablebase = syzygyTablebase;
+    }
+
+    public void setFutilityPruning(final boolean futilityPruning) {
+        this.futilityPruning = futilityPruning;
+    }
+
+    public void setReverseFutilityPruning(final boolean reverseFutilityPruning) {
+        this.reverseFutilityPruning = reverseFutilityPruning;
+    }
+
+    public void setRazoring(final boolean razoring) {
+        this.razoring = razoring;
+    }
+
+    /**
+     * Sets the number of ranked lines to find, one by default.
+     *
+     * @param multiPv
+     */
+    public void setMultiPv(final int multiPv) {
+        if (multiPv < 1) {
+            throw new IllegalArgumentException("Multi-PV must be at least 1: " + multiPv);
+        }
+        this.multiPv = multiPv;
+    }
+
+    @Override
+    public String toString() {
+        return "IterativeDeepening";
+    }
+
+    @Override
+    public Move execute(final Board board) {
+        return search(board, new CancellationToken()).getBestMove();
+    }
+
+    /**
+     * Searches one ply deeper on each iteration. From the second iteration on the root is searched with an
+     * aspiration window around the previous score. The principal variation of each completed iteration is searched
+     * first on the next one. In multi-PV mode the root is searched again for each further line with the moves
+     * heading the lines already found excluded, all passes sharing the transposition table. If the token is
+     * cancelled the result of the last completed iteration is returned.
+     *
+     * @param board
+     * @param cancellationToken
+     * @return
+     */
+    @Override
+    public SearchResult search(final Board board, final CancellationToken cancellationToken) {
+
+        this.statistics = new SearchStatistics();
+        this.cancellationToken = cancellationToken;
+        final CachingBoardEvaluator evaluationCache = this.engineSession.getEvaluationCache();
+        final long cacheProbes = evaluationCache.getProbes();
+        final long cacheHits = evaluationCache.getHits();
+        final Move[][] previousPvs = new Move[this.multiPv][0];
+        final int[] previousScores = new int[this.multiPv];
+        previousPvs[0] = this.engineSession.expectedLine(board);
+        this.historyTable.age();
+        List<SearchResult.Line> lines = new ArrayList<SearchResult.Line>();
+        int depthReached = 0;
+
+        if (this.syzygyTablebase != null && this.multiPv == 1 &&
+                (this.tablebase == null || this.tablebase.probe(board) == EndgameTablebase.NOT_FOUND)) {
+            final Move tablebaseMove = this.syzygyTablebase.bestMove(board);
+            if (tablebaseMove != null) {
+                this.statistics.recordTablebaseHit();
+                this.statistics.searchCompleted();
+                final SearchResult searchResult = new SearchResult(tablebaseMove,
+                        SyzygyTablebase.score(this.syzygyTablebase.probeWdl(board), 0), 0,
+                        Collections.singletonList(tablebaseMove), this.statistics);
+                this.engineSession.searchCompleted(searchResult);
+                return searchResult;
+            }
+        }
+
+        System.out.println(board.currentPlayer() + " thinking with depth = " + this.searchDepth);
+        try {
+            for (int depth = 1; depth <= this.searchDepth && depth < MAX_PLY; depth++) {
+                final List<SearchResult.Line> depthLines = new ArrayList<SearchResult.Line>();
+                this.excludedRootMoves.clear();
+                for (int lineIndex = 0; lineIndex < this.multiPv; lineIndex++) {
+                    this.previousPv = previousPvs[lineIndex];
+                    final int score = aspirationSearch(board, depth, lineIndex < lines.size(),
+                            previousScores[lineIndex]);
+                    if (this.pvLength[0] == 0) {
+                        //every legal root move is already heading a line
+                        break;
+                    }
+                    final Move[] principalVariation = new Move[this.pvLength[0]];
+                    System.arraycopy(this.pvTable[0], 0, principalVariation, 0, this.pvLength[0]);
+                    previousPvs[lineIndex] = principalVariation;
+                    previousScores[lineIndex] = score;
+                    depthLines.add(new SearchResult.Line(score, toList(principalVariation)));
+                    this.excludedRootMoves.add(principalVariation[0]);
+                }
+                if (depthLines.isEmpty()) {
+                    break;
+                }
+                lines = depthLines;
+                depthReached = depth;
+                this.statistics.iterationCompleted();
+                final SearchResult iterationResult = new SearchResult(depth, lines, this.statistics);
+                for (final SearchListener searchListener : this.searchListeners) {
+                    searchListener.iterationCompleted(iterationResult);
+                }
+            }
+        } catch (final SearchCancelledException e) {
+            if (lines.isEmpty()) {
+                final List<Move> line = bestMoveSoFar(board);
+                if (!line.isEmpty()) {
+                    lines.add(new SearchResult.Line(0, line));
+                }
+            }
+        }
+        this.excludedRootMoves.clear();
+        this.statistics.recordEvaluationCache(evaluationCache.getProbes() - cacheProbes,
+                evaluationCache.getHits() - cacheHits);
+        this.statistics.searchCompleted();
+        final SearchResult searchResult = new SearchResult(depthReached, lines, this.statistics);
+        this.engineSession.searchCompleted(searchResult);
+        return searchResult;
+    }
+
+    /**
+     * Searches the root with a window around the previous score, widening it and searching again whenever the
+     * score falls outside.
+     *
+     * @param board
+     * @param depth
+     * @param hasPreviousScore false to search with a full window
+     * @param previousScore
+     * @return
+     */
+    private int aspirationSearch(final Board board,
+                                 final int depth,
+                                 final boolean hasPreviousScore,
+                                 final int previousScore) {
+        int window = ASPIRATION_WINDOW;
+        int alpha = hasPreviousScore ? previousScore - window : -INFINITY;
+        int beta = hasPreviousScore ? previousScore + window : INFINITY;
+        while (true) {
+            final int score = alphaBeta(board, depth, 0, alpha, beta, null, 0, true);
+            if (score <= alpha && alpha > -INFINITY) {
+                window *= 2;
+                alpha = window > MAX_ASPIRATION_WINDOW ? -INFINITY : score - window;
+            } else if (score >= beta && beta < INFINITY) {
+                window *= 2;
+                beta = window > MAX_ASPIRATION_WINDOW ? INFINITY : score + window;
+            } else {
+                return score;
+            }
+        }
+    }
+
+    /**
+     * Negamax alpha beta search using principal variation search. The first move is searched with the full window
+     * and every later move with a null window, re-searching only the moves that turn out to beat alpha. Moves that
+     * raise alpha are recorded in the triangular principal variation table. Forcing moves picked out by the
+     * extension policy are searched one ply deeper. Within three plies of the horizon, non principal variation
+     * nodes are cut short using the static evaluation: reverse futility returns when it is far above beta,
+     * razoring drops into the quiescence search when it is far below alpha, and futility pruning skips quiet
+     * moves that cannot bring it back up to alpha.
+     *
+     * @param board
+     * @param depth
+     * @param ply
+     * @param alpha
+     * @param beta
+     * @param previousMove   move that led to this position, null at the root
+     * @param extensionsUsed plies this line has already been extended by
+     * @param isOnPreviousPv true while following the previous iteration's principal variation
+     * @return score from the point of view of the player to move
+     */
+    private int alphaBeta(final Board board,
+                          final int depth,
+                          final int ply,
+                          int alpha,
+                          final int beta,
+                          final Move previousMove,
+                          final int extensionsUsed,
+                          final boolean isOnPreviousPv) {
+
+        this.statistics.incrementNodes();
+        this.cancellationToken.checkpoint(this.statistics.getNodes());
+        this.pvLength[ply] = 0;
+        if (ply >= MAX_PLY - 1 || isEndGameScenario(board)) {
+            return evaluate(board, depth);
+        }
+        if (ply > 0 && this.tablebase != null) {
+            final int tablebaseScore = this.tablebase.probe(board);
+            if (tablebaseScore != EndgameTablebase.NOT_FOUND) {
+                this.statistics.recordTablebaseHit();
+                //Count the distance to mate from the root so shorter wins are preferred wherever the table is reached
+                return tablebaseScore > 0 ? tablebaseScore - ply : tablebaseScore < 0 ? tablebaseScore + ply : 0;
+            }
+        }
+        if (ply > 0 && this.syzygyTablebase != null) {
+            final int wdl = this.syzygyTablebase.probeWdl(board);
+            if (wdl != SyzygyTablebase.FAILED) {
+                this.statistics.recordTablebaseHit();
+                return SyzygyTablebase.score(wdl, ply);
+            }
+        }
+        if (depth <= 0) {
+            return quiescence(board, ply, alpha, beta);
+        }
+
+        final boolean isPvNode = beta - alpha > 1;
+        final long key = board.getZobristKey();
+        final long entry = this.transpositionTable.probe(key);
+        this.statistics.recordHashProbe(entry != TranspositionTable.NO_ENTRY);
+        int hashMove = TranspositionTable.NO_MOVE;
+        if (entry != TranspositionTable.NO_ENTRY) {
+            hashMove = TranspositionTable.move(entry);
+            if (!isPvNode && ply > 0 && TranspositionTable.depth(entry) >= depth) {
+                final int hashScore = TranspositionTable.score(entry);
+                final int bound = TranspositionTable.bound(entry);
+                if (bound == TranspositionTable.EXACT ||
+                        (bound == TranspositionTable.LOWER_BOUND && hashScore >= beta) ||
+                        (bound == TranspositionTable.UPPER_BOUND && hashScore <= alpha)) {
+                    return hashScore;
+                }
+            }
+        }
+
+        boolean isFutile = false;
+        if (!isPvNode && ply > 0 && depth <= PRUNING_DEPTH && !board.currentPlayer().isInCheck() &&
+                Math.abs(alpha) < MATE_THRESHOLD && Math.abs(beta) < MATE_THRESHOLD) {
+            final int staticScore = evaluate(board, depth);
+            if (this.reverseFutilityPruning && staticScore - REVERSE_FUTILITY_MARGIN * depth >= beta) {
+                this.statistics.recordReverseFutilityPrune();
+                return staticScore;
+            }
+            if (this.razoring && staticScore + RAZORING_MARGINS[depth] < alpha) {
+                final int razorScore = quiescence(board, ply, alpha, beta);
+                if (depth == 1 || razorScore < alpha) {
+                    this.statistics.recordRazoringPrune();
+                    return razorScore;
+                }
+            }
+            isFutile = this.futilityPruning && staticScore + FUTILITY_MARGINS[depth] <= alpha;
+        }
+
+        final int originalAlpha = alpha;
+        int bestScore = -INFINITY;
+        Move bestMove = null;
+        int movesSearched = 0;
+        final Move pvMove = isOnPreviousPv && ply < this.previousPv.length ? this.previousPv[ply] : null;
+        for (final Move move : orderMoves(board, pvMove, hashMove)) {
+            if (ply == 0 && this.excludedRootMoves.contains(move)) {
+                continue;
+            }
+            final MoveTransition moveTransition = board.currentPlayer().makeMove(move);
+            if (!moveTransition.getMoveStatus().isDone()) {
+                continue;
+            }
+            final Board child = moveTransition.getTransitionBoard();
+            if (isFutile && bestMove != null && !move.isAttack() && !(move instanceof Move.PawnPromotion) &&
+                    !child.currentPlayer().isInCheck()) {
+                this.statistics.recordFutilityPrune();
+                continue;
+            }
+            movesSearched++;
+            final boolean childOnPreviousPv = pvMove != null && pvMove.equals(move);
+            final int extension = this.extensionPolicy.extension(board, move, child, previousMove, extensionsUsed);
+            final int newDepth = depth - 1 + extension;
+            final int childExtensions = extensionsUsed + extension;
+            int score;
+            if (bestMove == null) {
+                score = -alphaBeta(child, newDepth, ply + 1, -beta, -alpha, move,
+                        childExtensions, childOnPreviousPv);
+            } else {
+                score = -alphaBeta(child, newDepth, ply + 1, -alpha - 1, -alpha, move,
+                        childExtensions, childOnPreviousPv);
+                if (score > alpha && score < beta) {
+                    score = -alphaBeta(child, newDepth, ply + 1, -beta, -alpha, move,
+                            childExtensions, childOnPreviousPv);
+                }
+            }
+            if (score > bestScore || bestMove == null) {
+                bestScore = score;
+                bestMove = move;
+            }
+            if (score > alpha) {
+                alpha = score;
+                updatePrincipalVariation(ply, move);
+            }
+            if (alpha >= beta) {
+                this.statistics.recordBetaCutoff(movesSearched);
+                if (!move.isAttack()) {
+                    this.historyTable.reward(board.currentPlayer().getAlliance(), move, depth);
+                }
+                break;
+            }
+        }
+
+        if (bestMove == null) {
+            return evaluate(board, depth);
+        }
+        final int bound = bestScore <= originalAlpha ? TranspositionTable.UPPER_BOUND :
+                bestScore >= beta ? TranspositionTable.LOWER_BOUND : TranspositionTable.EXACT;
+        if (ply > 0 || this.excludedRootMoves.isEmpty()) {
+            this.transpositionTable.store(key, bestScore, depth, bound, TranspositionTable.encodeMove(bestMove));
+        }
+        return bestScore;
+    }
+
+    /**
+     * Searches captures only until the position is quiet, so the static evaluation is never taken in the middle of
+     * an exchange. The player to move may stand pat on the static evaluation instead of capturing.
+     *
+     * @param board
+     * @param ply
+     * @param alpha
+     * @param beta
+     * @return score from the point of view of the player to move
+     */
+    private int quiescence(final Board board,
+                           final int ply,
+                           int alpha,
+                           final int beta) {
+
+        this.statistics.incrementQuiescenceNodes();
+        this.cancellationToken.checkpoint(this.statistics.getNodes());
+        this.pvLength[ply] = 0;
+        final int standPat = evaluate(board, 0, alpha, beta);
+        if (standPat >= beta || ply >= MAX_PLY - 1) {
+            return standPat;
+        }
+        if (standPat > alpha) {
+            alpha = standPat;
+        }
+        int bestScore = standPat;
+        for (final Move move : orderCaptures(board)) {
+            final MoveTransition moveTransition = board.currentPlayer().makeMove(move);
+            if (!moveTransition.getMoveStatus().isDone()) {
+                continue;
+            }
+            final int score = -quiescence(moveTransition.getTransitionBoard(), ply + 1, -beta, -alpha);
+            if (score > bestScore) {
+                bestScore = score;
+            }
+            if (score > alpha) {
+                alpha = score;
+                updatePrincipalVariation(ply, move);
+            }
+            if (alpha >= beta) {
+                break;
+            }
+        }
+        return bestScore;
+    }
+
+    /**
+     * Sets the principal variation at this ply to the move followed by the line found below it.
+     *
+     * @param ply
+     * @param move
+     */
+    private void updatePrincipalVariation(final int ply, final Move move) {
+        this.pvTable[ply][0] = move;
+        final int childLength = this.pvLength[ply + 1];
+        System.arraycopy(this.pvTable[ply + 1], 0, this.pvTable[ply], 1, childLength);
+        this.pvLength[ply] = childLength + 1;
+    }
+
+    /**
+     * Used when a search is cancelled before the first iteration completes. Returns the line of the root move
+     * currently raising alpha, or failing that the first legal move.
+     *
+     * @param board
+     * @return
+     */
+    private List<Move> bestMoveSoFar(final Board board) {
+        final List<Move> line = new ArrayList<Move>();
+        if (this.pvLength[0] > 0) {
+            line.add(this.pvTable[0][0]);
+            return line;
+        }
+        for (final Move move : board.currentPlayer().getLegalMoves()) {
+            if (board.currentPlayer().makeMove(move).getMoveStatus().isDone()) {
+                line.add(move);
+                return line;
+            }
+        }
+        return line;
+    }
+
+    private static List<Move> toList(final Move[] moves) {
+        final List<Move> list = new ArrayList<Move>(moves.length);
+        for (final Move move : moves) {
+            list.add(move);
+        }
+        return list;
+    }
+
+    private int evaluate(final Board board, final int depth) {
+        this.statistics.incrementEvaluations();
+        final int score = this.boardEvaluator.evaluate(board, depth);
+        return board.currentPlayer().getAlliance().isWhite() ? score : -score;
+    }
+
+    /**
+     * Evaluates with a window from the point of view of the player to move, so a bounded evaluator can skip its
+     * expensive terms when the score is far outside it.
+     *
+     * @param board
+     * @param depth
+     * @param alpha
+     * @param beta
+     * @return
+     */
+    private int evaluate(final Board board, final int depth, final int alpha, final int beta) {
+        if (!(this.boardEvaluator instanceof BoundedBoardEvaluator)) {
+            return evaluate(board, depth);
+        }
+        this.statistics.incrementEvaluations();
+        final BoundedBoardEvaluator boundedEvaluator = (BoundedBoardEvaluator) this.boardEvaluator;
+        if (board.currentPlayer().getAlliance().isWhite()) {
+            return boundedEvaluator.evaluate(board, depth, alpha, beta);
+        }
+        return -boundedEvaluator.evaluate(board, depth, -beta, -alpha);
+    }
+
+    /**
+     * Orders moves with the previous principal variation move first, then the hash move, then captures that do not
+     * lose material by static exchange evaluation with the most valuable victim first, then quiet moves by their
+     * history score and finally the losing captures, least losing first.
+     *
+     * @param board
+     * @param pvMove
+     * @param hashMove
+     * @return
+     */
+    private Move[] orderMoves(final Board board, final Move pvMove, final int hashMove) {
+        final Collection<Move> legalMoves = board.currentPlayer().getLegalMoves();
+        final Move[] moves = legalMoves.toArray(new Move[legalMoves.size()]);
+        final int[] scores = new int[moves.length];
+        for (int i = 0; i < moves.length; i++) {
+            scores[i] = moves[i].equals(pvMove) ? INFINITY + 1 : scoreMove(board, moves[i], hashMove);
+        }
+        for (int i = 1; i < moves.length; i++) {
+            final Move move = moves[i];
+            final int score = scores[i];
+            int j = i - 1;
+            while (j >= 0 && scores[j] < score) {
+                moves[j + 1] = moves[j];
+                scores[j + 1] = scores[j];
+                j--;
+            }
+            moves[j + 1] = move;
+            scores[j + 1] = score;
+        }
+        return moves;
+    }
+
+    /**
+     * Returns the captures that do not lose material by static exchange evaluation, most valuable victim first.
+     * Quiescence searches nothing else, so quiet moves and losing captures are neither scored nor sorted.
+     *
+     * @param board
+     * @return
+     */
+    private Move[] orderCaptures(final Board board) {
+        final Collection<Move> legalMoves = board.currentPlayer().getLegalMoves();
+        final Move[] captures = new Move[legalMoves.size()];
+        final int[] scores = new int[captures.length];
+        int count = 0;
+        for (final Move move : legalMoves) {
+            if (!move.isAttack() || board.staticExchange(move) < 0) {
+                continue;
+            }
+            final int score = captureScore(move);
+            int j = count - 1;
+            while (j >= 0 && scores[j] < score) {
+                captures[j + 1] = captures[j];
+                scores[j + 1] = scores[j];
+                j--;
+            }
+            captures[j + 1] = move;
+            scores[j + 1] = score;
+            count++;
+        }
+        return Arrays.copyOf(captures, count);
+    }
+
+    private int scoreMove(final Board board, final Move move, final int hashMove) {
+        if (hashMove != TranspositionTable.NO_MOVE && TranspositionTable.encodeMove(move) == hashMove) {
+            return INFINITY;
+        }
+        if (move.isAttack()) {
+            final int exchange = board.staticExchange(move);
+            return exchange < 0 ? exchange : captureScore(move);
+        }
+        return this.historyTable.score(board.currentPlayer().getAlliance(), move);
+    }
+
+    private static int captureScore(final Move move) {
+        return CAPTURE_SCORE + move.getAttackedPiece().getPieceValue() * 10 -
+                move.getMovedPiece().getPieceValue() / 100;
+    }
+
+}
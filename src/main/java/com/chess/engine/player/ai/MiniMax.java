@@ -4,14 +4,20 @@ import com.chess.engine.board.Board;
 import com.chess.engine.board.Move;
 import com.chess.engine.player.MoveTransition;
 
+import java.util.Collections;
+
 public class MiniMax implements MoveStrategy {
 
     private final BoardEvaluator boardEvaluator;
     private final int searchDepth;
+    private SearchStatistics statistics;
+    private CancellationToken cancellationToken;
 
     public MiniMax(final int searchDepth) {
         this.boardEvaluator = new StandardBoardEvaluator();
         this.searchDepth = searchDepth;
+        this.cancellationToken = new CancellationToken();
+        this.statistics = new SearchStatistics();
     }
 
     @Override
@@ -21,21 +27,41 @@ public class MiniMax implements MoveStrategy {
 
     @Override
     public Move execute(Board board) {
+        return search(board, new CancellationToken()).getBestMove();
+    }
+
+    /**
+     * Searches every root move to the full depth. If the token is cancelled the best of the root moves searched so
+     * far is returned with depth 0, since no depth was completed for every move, and a score of 0 if there is none.
+     *
+     * @param board
+     * @param cancellationToken
+     * @return
+     */
+    @Override
+    public SearchResult search(final Board board, final CancellationToken cancellationToken) {
 
-        final long startTime = System.currentTimeMillis();
+        this.statistics = new SearchStatistics();
+        this.cancellationToken = cancellationToken;
         Move bestMove = null;
         int highestSeenValue = Integer.MIN_VALUE;
         int lowestSeenValue = Integer.MAX_VALUE;
         int currentValue;
+        boolean interrupted = false;
 
         System.out.println(board.currentPlayer() + " thinking with depth = " + this.searchDepth);
         int numMoves = board.currentPlayer().getLegalMoves().size();
         for (final Move move : board.currentPlayer().getLegalMoves()) {
             final MoveTransition moveTransition = board.currentPlayer().makeMove(move);
             if (moveTransition.getMoveStatus().isDone()) {
-                currentValue = board.currentPlayer().getAlliance().isWhite() ?
-                        min(moveTransition.getTransitionBoard(), this.searchDepth - 1) :
-                        max(moveTransition.getTransitionBoard(), this.searchDepth - 1);
+                try {
+                    currentValue = board.currentPlayer().getAlliance().isWhite() ?
+                            min(moveTransition.getTransitionBoard(), this.searchDepth - 1) :
+                            max(moveTransition.getTransitionBoard(), this.searchDepth - 1);
+                } catch (final SearchCancelledException e) {
+                    interrupted = true;
+                    break;
+                }
 
                 if (board.currentPlayer().getAlliance().isWhite() && currentValue >= highestSeenValue) {
                     highestSeenValue = currentValue;
@@ -47,13 +73,21 @@ public class MiniMax implements MoveStrategy {
                  }
             }
         }
-        final long executionTime = System.currentTimeMillis() - startTime;
-        return bestMove;
+        //records the elapsed time, also for an interrupted search
+        this.statistics.searchCompleted();
+        final int score = bestMove == null ? 0 :
+                board.currentPlayer().getAlliance().isWhite() ? highestSeenValue : -lowestSeenValue;
+        return new SearchResult(bestMove, score, interrupted ? 0 : this.searchDepth,
+                bestMove == null ? Collections.<Move>emptyList() : Collections.singletonList(bestMove),
+                this.statistics);
     }
 
     public int min(final Board board,
                    final int depth) {
+        this.statistics.incrementNodes();
+        this.cancellationToken.checkpoint(this.statistics.getNodes());
         if (depth == 0 || isEndGameScenario(board)) {
+            this.statistics.incrementEvaluations();
             return this.boardEvaluator.evaluate(board, depth);
         }
         int lowestSeenValue = Integer.MAX_VALUE;
@@ -77,8 +111,10 @@ public class MiniMax implements MoveStrategy {
 
     public int max(final Board board,
                    final int depth) {
-
+        this.statistics.incrementNodes();
+        this.cancellationToken.checkpoint(this.statistics.getNodes());
         if (depth == 0 || isEndGameScenario(board)) {
+            this.statistics.incrementEvaluations();
             return this.boardEvaluator.evaluate(board, depth);
         }
         int highestSeenValue = Integer.MIN_VALUE;
@@ -0,0 +1,316 @@
+package com.chess.engine.player.ai;
+
+import com.chess.engine.board.Board;
+import com.chess.engine.board.Move;
+import com.chess.engine.player.MoveTransition;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Monte Carlo tree search using UCT selection. Every playout walks down the tree picking the child with the best
+ * upper confidence bound, expands the leaf with its legal moves and scores it with a short random rollout that is
+ * finished off by the evaluator. The move played is the root move visited most often.
+ *
+ * Playouts run on several threads sharing one tree. A thread passing through a node adds a virtual loss to it until
+ * its result is backed up, which steers the other threads towards different parts of the tree.
+ */
+public class MonteCarloTreeSearch implements MoveStrategy {
+
+    private static final double DEFAULT_EXPLORATION = 1.4;
+    private static final int DEFAULT_ROLLOUT_DEPTH = 4;
+    private static final int VIRTUAL_LOSS = 1;
+    //Centipawns giving a three to one winning chance, used to turn evaluations into rewards and back
+    private static final double SCORE_SCALE = 400.0 / Math.log(3);
+    private static final int MAX_SCORE = 9000;
+    //Unvisited children are tried first, in random order
+    private static final double UNVISITED_VALUE = 1.0e9;
+
+    private final BoardEvaluator boardEvaluator;
+    private final long playouts;
+    private final int threads;
+    private final int rolloutDepth;
+    private final double exploration;
+
+    public MonteCarloTreeSearch(final long playouts) {
+        this(playouts, Runtime.getRuntime().availableProcessors(), DEFAULT_ROLLOUT_DEPTH, DEFAULT_EXPLORATION);
+    }
+
+    /**
+     * Constructor for MonteCarloTreeSearch
+     *
+     * @param playouts     number of playouts per search
+     * @param threads      number of threads running playouts
+     * @param rolloutDepth random moves played before a rollout is scored by the evaluator
+     * @param exploration  UCT exploration constant
+     */
+    public MonteCarloTreeSearch(final long playouts,
+                                final int threads,
+                                final int rolloutDepth,
+                                final double exploration) {
+        if (playouts <= 0 || threads <= 0 || rolloutDepth < 0) {
+            throw new IllegalArgumentException("Invalid Monte Carlo search parameters");
+        }
+        this.boardEvaluator = new StandardBoardEvaluator();
+        this.playouts = playouts;
+        this.threads = threads;
+        this.rolloutDepth = rolloutDepth;
+        this.exploration = exploration;
+    }
+
+    @Override
+    public String toString() {
+        return "MonteCarloTreeSearch";
+    }
+
+    @Override
+    public Move execute(final Board board) {
+        return search(board, new CancellationToken()).getBestMove();
+    }
+
+    /**
+     * Runs playouts until the budget is used up or the token is cancelled. The score is the root's winning chance
+     * converted back to centipawns.
+     *
+     * @param board
+     * @param cancellationToken
+     * @return
+     */
+    @Override
+    public SearchResult search(final Board board, final CancellationToken cancellationToken) {
+        final SearchStatistics statistics = new SearchStatistics();
+        final Node root = new Node(null, board);
+        final AtomicLong remainingPlayouts = new AtomicLong(this.playouts);
+        final ExecutorService executor = Executors.newFixedThreadPool(this.threads);
+        final List<Future<long[]>> workers = new ArrayList<Future<long[]>>();
+        try {
+            for (int i = 0; i < this.threads; i++) {
+                workers.add(executor.submit(new Callable<long[]>() {
+                    @Override
+                    public long[] call() {
+                        return runPlayouts(root, remainingPlayouts, cancellationToken);
+                    }
+                }));
+            }
+            for (final Future<long[]> worker : workers) {
+                final long[] counts = worker.get();
+                statistics.addCounts(counts[0], counts[1]);
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            cancellationToken.cancel();
+        } catch (final ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        statistics.searchCompleted();
+        final List<Move> principalVariation = new ArrayList<Move>();
+        Node node = root.mostVisitedChild();
+        final Node best = node;
+        while (node != null) {
+            principalVariation.add(node.move);
+            node = node.mostVisitedChild();
+        }
+        if (best == null) {
+            return new SearchResult(null, 0, 0, principalVariation, statistics);
+        }
+        //A child's reward belongs to the player who moved into it, i.e. the player to move at the root
+        return new SearchResult(best.move, toScore(best.averageReward()), principalVariation.size(),
+                principalVariation, statistics);
+    }
+
+    /**
+     * Playout loop of a single worker thread. Returns the nodes created and evaluations made.
+     */
+    private long[] runPlayouts(final Node root,
+                               final AtomicLong remainingPlayouts,
+                               final CancellationToken cancellationToken) {
+        final long[] counts = new long[2];
+        while (!cancellationToken.isCancelled() && remainingPlayouts.getAndDecrement() > 0) {
+            Node node = root;
+            node.addVirtualLoss();
+            while (node.isExpanded() && node.children.length > 0) {
+                node = node.selectChild(this.exploration);
+                node.addVirtualLoss();
+            }
+            if (node.visits() > VIRTUAL_LOSS) {
+                counts[0] += node.expand();
+                if (node.children.length > 0) {
+                    node = node.selectChild(this.exploration);
+                    node.addVirtualLoss();
+                }
+            }
+            counts[1]++;
+            double reward = rollout(node.board);
+            //The rollout is scored for the player to move at the leaf, which is the opponent of whoever moved into it
+            while (node != null) {
+                reward = 1.0 - reward;
+                node.backUp(reward);
+                node = node.parent;
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Plays random legal moves from the board and returns the winning chance of the player to move on it.
+     */
+    private double rollout(final Board board) {
+        Board current = board;
+        boolean sameSideToMove = true;
+        for (int ply = 0; ply < this.rolloutDepth; ply++) {
+            final Board next = randomMove(current);
+            if (next == null) {
+                break;
+            }
+            current = next;
+            sameSideToMove = !sameSideToMove;
+        }
+        final double reward;
+        if (current.currentPlayer().isInCheckMate()) {
+            reward = 0.0;
+        } else if (current.currentPlayer().isInStaleMate()) {
+            reward = 0.5;
+        } else {
+            final int score = this.boardEvaluator.evaluate(current, 0);
+            reward = toReward(current.currentPlayer().getAlliance().isWhite() ? score : -score);
+        }
+        return sameSideToMove ? reward : 1.0 - reward;
+    }
+
+    private static Board randomMove(final Board board) {
+        final List<Move> moves = new ArrayList<Move>(board.currentPlayer().getLegalMoves());
+        final ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (!moves.isEmpty()) {
+            final Move move = moves.remove(random.nextInt(moves.size()));
+            final MoveTransition moveTransition = board.currentPlayer().makeMove(move);
+            if (moveTransition.getMoveStatus().isDone()) {
+                return moveTransition.getTransitionBoard();
+            }
+        }
+        return null;
+    }
+
+    private static double toReward(final int score) {
+        return 1.0 / (1.0 + Math.exp(-score / SCORE_SCALE));
+    }
+
+    private static int toScore(final double reward) {
+        if (reward <= 0.0) {
+            return -MAX_SCORE;
+        }
+        if (reward >= 1.0) {
+            return MAX_SCORE;
+        }
+        final double score = SCORE_SCALE * Math.log(reward / (1.0 - reward));
+        return (int) Math.max(-MAX_SCORE, Math.min(MAX_SCORE, score));
+    }
+
+    /**
+     * Tree node. The statistics are updated under the node's lock and read without it during selection, where a
+     * slightly stale value does no harm.
+     */
+    private static final class Node {
+
+        private final Move move;
+        private final Board board;
+        private final Node parent;
+        private volatile Node[] children;
+        private volatile int visits;
+        private volatile double totalReward;
+
+        private Node(final Move move, final Board board) {
+            this(move, board, null);
+        }
+
+        private Node(final Move move, final Board board, final Node parent) {
+            this.move = move;
+            this.board = board;
+            this.parent = parent;
+        }
+
+        private boolean isExpanded() {
+            return this.children != null;
+        }
+
+        private int visits() {
+            return this.visits;
+        }
+
+        private double averageReward() {
+            final int visits = this.visits;
+            return visits == 0 ? 0.5 : this.totalReward / visits;
+        }
+
+        /**
+         * Creates the children for the legal moves unless another thread got there first, returning the number of
+         * nodes created.
+         */
+        private synchronized int expand() {
+            if (this.children != null) {
+                return 0;
+            }
+            final List<Node> nodes = new ArrayList<Node>();
+            for (final Move move : this.board.currentPlayer().getLegalMoves()) {
+                final MoveTransition moveTransition = this.board.currentPlayer().makeMove(move);
+                if (moveTransition.getMoveStatus().isDone()) {
+                    nodes.add(new Node(move, moveTransition.getTransitionBoard(), this));
+                }
+            }
+            this.children = nodes.toArray(new Node[nodes.size()]);
+            return this.children.length;
+        }
+
+        private Node selectChild(final double exploration) {
+            final Node[] nodes = this.children;
+            final double logVisits = Math.log(Math.max(1, this.visits));
+            Node best = null;
+            double bestValue = Double.NEGATIVE_INFINITY;
+            for (final Node child : nodes) {
+                final int childVisits = child.visits;
+                final double value = childVisits == 0 ?
+                        UNVISITED_VALUE + ThreadLocalRandom.current().nextDouble() :
+                        child.totalReward / childVisits + exploration * Math.sqrt(logVisits / childVisits);
+                if (value > bestValue) {
+                    bestValue = value;
+                    best = child;
+                }
+            }
+            return best;
+        }
+
+        private Node mostVisitedChild() {
+            final Node[] nodes = this.children;
+            Node best = null;
+            if (nodes != null) {
+                for (final Node child : nodes) {
+                    if (child.visits > 0 && (best == null || child.visits > best.visits)) {
+                        best = child;
+                    }
+                }
+            }
+            return best;
+        }
+
+        /**
+         * Counts a visit that scores nothing until the playout passing through backs up its real result.
+         */
+        private synchronized void addVirtualLoss() {
+            this.visits += VIRTUAL_LOSS;
+        }
+
+        private synchronized void backUp(final double reward) {
+            this.visits += 1 - VIRTUAL_LOSS;
+            this.totalReward += reward;
+        }
+    }
+
+}
@@ -7,5 +7,6 @@ public interface MoveStrategy {
 
     Move execute(Board board);
 
+    SearchResult search(Board board, CancellationToken cancellationToken);
 
 }
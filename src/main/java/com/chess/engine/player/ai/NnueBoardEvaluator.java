@@ -0,0 +1,196 @@
+package com.chess.engine.player.ai;
+
+import com.chess.engine.board.Board;
+import com.chess.engine.board.BoardUtils;
+import com.chess.engine.pieces.Piece;
+import com.chess.engine.player.Player;
+
+/**
+ * Evaluates positions with an NnueNetwork. The hidden layer accumulators of the last evaluated board are kept, and
+ * the next board is reached from them by subtracting and adding the weights of only the features that differ:
+ * boards are immutable here, so instead of updating on make and unmake the evaluator diffs piece placement against
+ * the previous leaf, which during a search is nearly always a sibling or a close cousin. A perspective is refreshed
+ * from scratch when its king moved, since every one of its features depends on the king square, or when too many
+ * pieces changed for the update to be cheaper.
+ *
+ * All arithmetic is scalar int16 accumulation with int32 output sums; the loops are plain array walks the JIT can
+ * vectorise by itself. An evaluator holds mutable state and belongs to one search thread; the network can be shared.
+ */
+public final class NnueBoardEvaluator implements BoardEvaluator {
+
+    private static final int CHECK_MATE_SCORE = 10000;
+    private static final int DEPTH_BONUS = 100;
+    //Clipped ReLU ceiling and the quantisation of the output weights
+    private static final int ACTIVATION_LIMIT = 255;
+    private static final int OUTPUT_QUANTISATION = 64;
+    private static final int EVALUATION_SCALE = 400;
+    private static final int MAX_INCREMENTAL_CHANGES = 8;
+
+    private static final int WHITE = 0;
+    private static final int BLACK = 1;
+    private static final int EMPTY = -1;
+    private static final int KING = -2;
+
+    private final NnueNetwork network;
+    private final int hiddenSize;
+    private final short[][] accumulators;
+    private final int[] pieces;
+    private final int[] kingSquares;
+    private boolean initialised;
+    private long refreshes;
+    private long updates;
+
+    public NnueBoardEvaluator(final NnueNetwork network) {
+        this.network = network;
+        this.hiddenSize = network.getHiddenSize();
+        this.accumulators = new short[2][this.hiddenSize];
+        this.pieces = new int[BoardUtils.NUM_TILES];
+        this.kingSquares = new int[2];
+    }
+
+    @Override
+    public int evaluate(final Board board, final int depth) {
+        final Player currentPlayer = board.currentPlayer();
+        if (currentPlayer.isInCheckMate()) {
+            final int mateScore = CHECK_MATE_SCORE * (depth == 0 ? 1 : DEPTH_BONUS * depth);
+            return currentPlayer.getAlliance().isWhite() ? -mateScore : mateScore;
+        }
+        if (currentPlayer.isInStaleMate()) {
+            return 0;
+        }
+        updateAccumulators(board);
+        final int sideToMove = currentPlayer.getAlliance().isWhite() ? WHITE : BLACK;
+        final int score = forward(this.accumulators[sideToMove], this.accumulators[1 - sideToMove]);
+        return sideToMove == WHITE ? score : -score;
+    }
+
+    /**
+     * Output layer: clipped ReLU over both accumulators, side to move first, then one weighted sum.
+     */
+    private int forward(final short[] us, final short[] them) {
+        final short[] outputWeights = this.network.getOutputWeights();
+        long sum = 0;
+        for (int i = 0; i < this.hiddenSize; i++) {
+            sum += clippedRelu(us[i]) * outputWeights[i];
+        }
+        for (int i = 0; i < this.hiddenSize; i++) {
+            sum += clippedRelu(them[i]) * outputWeights[this.hiddenSize + i];
+        }
+        sum += this.network.getOutputBias();
+        return (int) (sum * EVALUATION_SCALE / (ACTIVATION_LIMIT * OUTPUT_QUANTISATION));
+    }
+
+    private static int clippedRelu(final short value) {
+        return Math.min(Math.max(value, 0), ACTIVATION_LIMIT);
+    }
+
+    private void updateAccumulators(final Board board) {
+        final int[] newPieces = new int[BoardUtils.NUM_TILES];
+        final int[] newKingSquares = new int[2];
+        int changes = 0;
+        for (int tile = 0; tile < BoardUtils.NUM_TILES; tile++) {
+            final Piece piece = board.getTile(tile).getPiece();
+            newPieces[tile] = pieceCode(piece);
+            if (newPieces[tile] == KING) {
+                newKingSquares[piece.getPieceAlliance().isWhite() ? WHITE : BLACK] = tile;
+            }
+            if (newPieces[tile] != this.pieces[tile]) {
+                changes++;
+            }
+        }
+        for (int perspective = WHITE; perspective <= BLACK; perspective++) {
+            if (!this.initialised || changes > MAX_INCREMENTAL_CHANGES ||
+                    newKingSquares[perspective] != this.kingSquares[perspective]) {
+                refresh(perspective, newPieces, newKingSquares[perspective]);
+                this.refreshes++;
+            } else if (changes > 0) {
+                for (int tile = 0; tile < BoardUtils.NUM_TILES; tile++) {
+                    if (newPieces[tile] != this.pieces[tile]) {
+                        if (this.pieces[tile] >= 0) {
+                            subtract(perspective, feature(perspective, newKingSquares[perspective],
+                                    this.pieces[tile], tile));
+                        }
+                        if (newPieces[tile] >= 0) {
+                            add(perspective, feature(perspective, newKingSquares[perspective], newPieces[tile], tile));
+                        }
+                    }
+                }
+                this.updates++;
+            }
+        }
+        System.arraycopy(newPieces, 0, this.pieces, 0, BoardUtils.NUM_TILES);
+        this.kingSquares[WHITE] = newKingSquares[WHITE];
+        this.kingSquares[BLACK] = newKingSquares[BLACK];
+        this.initialised = true;
+    }
+
+    private void refresh(final int perspective, final int[] boardPieces, final int kingSquare) {
+        System.arraycopy(this.network.getHiddenBiases(), 0, this.accumulators[perspective], 0, this.hiddenSize);
+        for (int tile = 0; tile < BoardUtils.NUM_TILES; tile++) {
+            if (boardPieces[tile] >= 0) {
+                add(perspective, feature(perspective, kingSquare, boardPieces[tile], tile));
+            }
+        }
+    }
+
+    private void add(final int perspective, final int feature) {
+        final short[] accumulator = this.accumulators[perspective];
+        final short[] weights = this.network.getFeatureWeights();
+        final int offset = feature * this.hiddenSize;
+        for (int i = 0; i < this.hiddenSize; i++) {
+            accumulator[i] += weights[offset + i];
+        }
+    }
+
+    private void subtract(final int perspective, final int feature) {
+        final short[] accumulator = this.accumulators[perspective];
+        final short[] weights = this.network.getFeatureWeights();
+        final int offset = feature * this.hiddenSize;
+        for (int i = 0; i < this.hiddenSize; i++) {
+            accumulator[i] -= weights[offset + i];
+        }
+    }
+
+    /**
+     * Codes a piece as 2 * type + 1 for black, KING for either king or EMPTY for no piece.
+     */
+    private static int pieceCode(final Piece piece) {
+        if (piece == null) {
+            return EMPTY;
+        }
+        if (piece.getPieceType() == Piece.PieceType.KING) {
+            return KING;
+        }
+        return 2 * piece.getPieceType().ordinal() + (piece.getPieceAlliance().isWhite() ? 0 : 1);
+    }
+
+    /**
+     * Index of a feature seen from the perspective. Black's view is mirrored vertically and has the colours swapped,
+     * so both sides share the same weights for "own" and "enemy" pieces.
+     */
+    static int feature(final int perspective, final int kingSquare, final int pieceCode, final int tile) {
+        final int orientation = perspective == WHITE ? 0 : 56;
+        final int relativePiece = perspective == WHITE ? pieceCode : pieceCode ^ 1;
+        return ((kingSquare ^ orientation) * NnueNetwork.PIECE_KINDS + relativePiece) * BoardUtils.NUM_TILES +
+                (tile ^ orientation);
+    }
+
+    /**
+     * Number of evaluations that rebuilt a perspective's accumulator from scratch.
+     *
+     * @return
+     */
+    public long getRefreshes() {
+        return this.refreshes;
+    }
+
+    /**
+     * Number of evaluations that updated a perspective's accumulator with the changed features only.
+     *
+     * @return
+     */
+    public long getUpdates() {
+        return this.updates;
+    }
+
+}
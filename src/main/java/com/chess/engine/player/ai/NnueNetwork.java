@@ -0,0 +1,134 @@
+package com.chess.engine.player.ai;
+
+import com.chess.engine.board.BoardUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+
+/**
+ * Weights of a small quantised evaluation network. The input layer uses HalfKP-like features, one per (own king
+ * square, piece, piece square) triple seen from each side, kings themselves excluded. They feed a hidden layer of
+ * int16 accumulators per perspective; both perspectives, side to move first, go through a clipped ReLU into a single
+ * output neuron.
+ *
+ * File layout, little endian:
+ *
+ * int   magic 0x4E4E554A ("JUNN")
+ * int   hidden size H
+ * short feature weights [FEATURES][H]
+ * short hidden biases [H]
+ * short output weights [2H]
+ * int   output bias
+ *
+ * The weights are read-only once loaded, so one network can back any number of evaluators.
+ */
+public final class NnueNetwork {
+
+    static final int MAGIC = 0x4E4E554A;
+    //Pawn to queen for each colour
+    static final int PIECE_KINDS = 10;
+    public static final int FEATURES = BoardUtils.NUM_TILES * PIECE_KINDS * BoardUtils.NUM_TILES;
+
+    private final int hiddenSize;
+    private final short[] featureWeights;
+    private final short[] hiddenBiases;
+    private final short[] outputWeights;
+    private final int outputBias;
+
+    NnueNetwork(final int hiddenSize,
+                final short[] featureWeights,
+                final short[] hiddenBiases,
+                final short[] outputWeights,
+                final int outputBias) {
+        this.hiddenSize = hiddenSize;
+        this.featureWeights = featureWeights;
+        this.hiddenBiases = hiddenBiases;
+        this.outputWeights = outputWeights;
+        this.outputBias = outputBias;
+    }
+
+    /**
+     * Reads a network file.
+     *
+     * @param file
+     * @return
+     * @throws IOException if the file is not a network or is truncated
+     */
+    public static NnueNetwork load(final File file) throws IOException {
+        final RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+        try {
+            final FileChannel channel = randomAccessFile.getChannel();
+            final ByteBuffer header = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN);
+            readFully(channel, header);
+            if (header.getInt(0) != MAGIC) {
+                throw new IOException("Not a network file: " + file);
+            }
+            final int hiddenSize = header.getInt(4);
+            if (hiddenSize <= 0 || hiddenSize > 4096) {
+                throw new IOException("Unsupported hidden layer size " + hiddenSize + " in " + file);
+            }
+            final long expected = 8 + 2L * ((long) FEATURES * hiddenSize + hiddenSize + 2 * hiddenSize) + 4;
+            if (channel.size() != expected) {
+                throw new IOException("Expected " + expected + " bytes but found " + channel.size() + " in " + file);
+            }
+            final short[] featureWeights = readShorts(channel, FEATURES * hiddenSize);
+            final short[] hiddenBiases = readShorts(channel, hiddenSize);
+            final short[] outputWeights = readShorts(channel, 2 * hiddenSize);
+            final ByteBuffer bias = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
+            readFully(channel, bias);
+            return new NnueNetwork(hiddenSize, featureWeights, hiddenBiases, outputWeights, bias.getInt(0));
+        } finally {
+            randomAccessFile.close();
+        }
+    }
+
+    private static short[] readShorts(final FileChannel channel, final int count) throws IOException {
+        final short[] values = new short[count];
+        //Read in slices so the whole layer never needs a second copy as bytes
+        final ByteBuffer buffer = ByteBuffer.allocate(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+        int read = 0;
+        while (read < count) {
+            buffer.clear();
+            buffer.limit(Math.min(buffer.capacity(), 2 * (count - read)));
+            readFully(channel, buffer);
+            final int slice = buffer.limit() / 2;
+            buffer.asShortBuffer().get(values, read, slice);
+            read += slice;
+        }
+        return values;
+    }
+
+    private static void readFully(final FileChannel channel, final ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                throw new IOException("Unexpected end of network file");
+            }
+        }
+        buffer.flip();
+    }
+
+    public int getHiddenSize() {
+        return this.hiddenSize;
+    }
+
+    short[] getFeatureWeights() {
+        return this.featureWeights;
+    }
+
+    short[] getHiddenBiases() {
+        return this.hiddenBiases;
+    }
+
+    short[] getOutputWeights() {
+        return this.outputWeights;
+    }
+
+    int getOutputBias() {
+        return this.outputBias;
+    }
+
+}
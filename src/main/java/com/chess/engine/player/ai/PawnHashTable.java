@@ -0,0 +1,100 @@
+package com.chess.engine.player.ai;
+
+/**
+ * Fixed size cache of pawn structure scores keyed by Board.getPawnZobristKey. Pawn structures change on few moves,
+ * so nearly every probe hits and the pawn terms cost almost nothing per node. Each entry also keeps both sides' pawn
+ * placement packed by file, which the terms that depend on more than the pawns read instead of scanning the board.
+ * Entries are stored with the key XOR'd with every word of the entry in the same way as TranspositionTable, so the
+ * table needs no locking.
+ */
+public final class PawnHashTable {
+
+    public static final int NOT_FOUND = Integer.MIN_VALUE;
+
+    private static final int DEFAULT_SIZE = 1 << 14;
+    private static final long OCCUPIED = 1L << 32;
+
+    private final long[] keys;
+    private final long[] entries;
+    //Two per entry: white's pawn rows, then black's
+    private final long[] pawnRows;
+    private final int mask;
+    private long probes;
+    private long hits;
+
+    public PawnHashTable() {
+        this(DEFAULT_SIZE);
+    }
+
+    /**
+     * Constructor for PawnHashTable. The size is rounded down to a power of two.
+     *
+     * @param size number of entries
+     */
+    public PawnHashTable(final int size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("Pawn hash table size must be positive: " + size);
+        }
+        final int capacity = Integer.highestOneBit(size);
+        this.keys = new long[capacity];
+        this.entries = new long[capacity];
+        this.pawnRows = new long[2 * capacity];
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * Returns the score stored for the pawn key, or NOT_FOUND. On a hit the stored pawn rows of white and black are
+     * copied into the first two elements of pawnRows.
+     *
+     * @param pawnKey
+     * @param pawnRows receives the pawn rows, at least two long
+     * @return
+     */
+    public int probe(final long pawnKey, final long[] pawnRows) {
+        final int index = (int) pawnKey & this.mask;
+        final long entry = this.entries[index];
+        final long whiteRows = this.pawnRows[2 * index];
+        final long blackRows = this.pawnRows[2 * index + 1];
+        this.probes++;
+        if ((this.keys[index] ^ entry ^ whiteRows ^ blackRows) == pawnKey && (entry & OCCUPIED) != 0) {
+            this.hits++;
+            pawnRows[0] = whiteRows;
+            pawnRows[1] = blackRows;
+            return (int) entry;
+        }
+        return NOT_FOUND;
+    }
+
+    /**
+     * Stores the score of a pawn structure together with its pawn rows.
+     *
+     * @param pawnKey
+     * @param score
+     * @param whiteRows white's pawns, byte n holding the rows occupied on file n
+     * @param blackRows black's pawns in the same layout
+     */
+    public void store(final long pawnKey, final int score, final long whiteRows, final long blackRows) {
+        final int index = (int) pawnKey & this.mask;
+        final long entry = (score & 0xFFFFFFFFL) | OCCUPIED;
+        this.entries[index] = entry;
+        this.pawnRows[2 * index] = whiteRows;
+        this.pawnRows[2 * index + 1] = blackRows;
+        this.keys[index] = pawnKey ^ entry ^ whiteRows ^ blackRows;
+    }
+
+    public double getHitRate() {
+        return this.probes == 0 ? 0 : (double) this.hits / this.probes;
+    }
+
+    public void clear() {
+        for (int i = 0; i < this.keys.length; i++) {
+            this.keys[i] = 0L;
+            this.entries[i] = 0L;
+            this.pawnRows[2 * i] = 0L;
+            this.pawnRows[2 * i + 1] = 0L;
+        }
+        this.probes = 0;
+        this.hits = 0;
+    }
+
+}
@@ -0,0 +1,157 @@
+package com.chess.engine.player.ai;
+
+import com.chess.engine.board.Board;
+import com.chess.engine.board.BoardUtils;
+import com.chess.engine.pieces.Piece;
+
+/**
+ * Pawn structure terms. Doubled, isolated, backward and passed pawns depend on the pawns alone and are cached in a
+ * PawnHashTable; the king's pawn shield also depends on where the king stands and is added on top, read from the
+ * pawn rows cached with the score. The board is only scanned for pawns on a miss. All scores are from white's point
+ * of view.
+ */
+public final class PawnStructure {
+
+    static final int DOUBLED_PENALTY = 12;
+    static final int ISOLATED_PENALTY = 15;
+    static final int BACKWARD_PENALTY = 10;
+    //Indexed by the number of ranks the pawn has advanced from its starting rank
+    static final int[] PASSED_BONUS = {0, 10, 20, 35, 60, 100, 100, 100};
+    static final int SHIELD_BONUS = 12;
+
+    private static final int WHITE = 0;
+    private static final int BLACK = 1;
+    private static final int FILES = BoardUtils.NUM_TILES_PER_ROW;
+
+    private PawnStructure() {
+        throw new RuntimeException("Not Instantiable!");
+    }
+
+    /**
+     * Scores the pawn structure of the board, looking the pawn-only part up in the table first.
+     *
+     * @param board
+     * @param pawnHashTable
+     * @return score from white's point of view
+     */
+    public static int evaluate(final Board board, final PawnHashTable pawnHashTable) {
+        final long[] packedRows = new long[2];
+        int score = pawnHashTable.probe(board.getPawnZobristKey(), packedRows);
+        if (score == PawnHashTable.NOT_FOUND) {
+            final int[][] rows = pawnRows(board);
+            score = pawnScore(rows);
+            packedRows[WHITE] = pack(rows[WHITE]);
+            packedRows[BLACK] = pack(rows[BLACK]);
+            pawnHashTable.store(board.getPawnZobristKey(), score, packedRows[WHITE], packedRows[BLACK]);
+        }
+        return score +
+                shield(board.whitePlayer().getPlayerKing().getPiecePosition(), WHITE, packedRows[WHITE]) -
+                shield(board.blackPlayer().getPlayerKing().getPiecePosition(), BLACK, packedRows[BLACK]);
+    }
+
+    /**
+     * Packs a side's rows by file into a long, byte n holding file n.
+     */
+    private static long pack(final int[] rows) {
+        long packed = 0L;
+        for (int file = 0; file < FILES; file++) {
+            packed |= (long) rows[file] << (FILES * file);
+        }
+        return packed;
+    }
+
+    /**
+     * Rows of each side's pawns by file as bitmasks, bit r set if a pawn stands on row r (row 0 is the eighth rank).
+     */
+    private static int[][] pawnRows(final Board board) {
+        final int[][] rows = new int[2][FILES];
+        for (final Piece piece : board.getWhitePieces()) {
+            if (piece.getPieceType() == Piece.PieceType.PAWN) {
+                rows[WHITE][piece.getPiecePosition() % FILES] |= 1 << (piece.getPiecePosition() / FILES);
+            }
+        }
+        for (final Piece piece : board.getBlackPieces()) {
+            if (piece.getPieceType() == Piece.PieceType.PAWN) {
+                rows[BLACK][piece.getPiecePosition() % FILES] |= 1 << (piece.getPiecePosition() / FILES);
+            }
+        }
+        return rows;
+    }
+
+    static int pawnScore(final int[][] rows) {
+        return sideScore(rows, WHITE) - sideScore(rows, BLACK);
+    }
+
+    private static int sideScore(final int[][] rows, final int side) {
+        final int[] own = rows[side];
+        final int[] enemy = rows[1 - side];
+        int score = 0;
+        for (int file = 0; file < FILES; file++) {
+            if (own[file] == 0) {
+                continue;
+            }
+            score -= DOUBLED_PENALTY * (Integer.bitCount(own[file]) - 1);
+            final int neighbours = (file > 0 ? own[file - 1] : 0) | (file < FILES - 1 ? own[file + 1] : 0);
+            for (int row = 0; row < FILES; row++) {
+                if ((own[file] & (1 << row)) == 0) {
+                    continue;
+                }
+                final int ahead = aheadMask(row, side);
+                if (neighbours == 0) {
+                    score -= ISOLATED_PENALTY;
+                } else if (isBackward(row, file, side, neighbours, enemy)) {
+                    score -= BACKWARD_PENALTY;
+                }
+                final int blockers = enemy[file] |
+                        (file > 0 ? enemy[file - 1] : 0) | (file < FILES - 1 ? enemy[file + 1] : 0);
+                if ((blockers & ahead) == 0 && (own[file] & ahead) == 0) {
+                    score += PASSED_BONUS[Math.max(0, side == WHITE ? FILES - 2 - row : row - 1)];
+                }
+            }
+        }
+        return score;
+    }
+
+    /**
+     * A pawn is backward if no pawn on a neighbouring file is level with or behind it, so none can support its
+     * advance, and an enemy pawn controls its stop square.
+     */
+    private static boolean isBackward(final int row, final int file, final int side,
+                                      final int neighbours, final int[] enemy) {
+        if ((neighbours & ~aheadMask(row, side)) != 0) {
+            return false;
+        }
+        final int stopRow = side == WHITE ? row - 1 : row + 1;
+        final int attackerRow = side == WHITE ? stopRow - 1 : stopRow + 1;
+        if (attackerRow < 0 || attackerRow >= FILES) {
+            return false;
+        }
+        final int attackerBit = 1 << attackerRow;
+        return (file > 0 && (enemy[file - 1] & attackerBit) != 0) ||
+                (file < FILES - 1 && (enemy[file + 1] & attackerBit) != 0);
+    }
+
+    /**
+     * Bitmask of the rows in front of the given row from the side's point of view.
+     */
+    private static int aheadMask(final int row, final int side) {
+        return side == WHITE ? (1 << row) - 1 : 0xFF & ~((2 << row) - 1);
+    }
+
+    /**
+     * Counts own pawns on the king's file and the files beside it, one or two rows in front of the king.
+     */
+    private static int shield(final int kingTile, final int side, final long packedRows) {
+        final int kingRow = kingTile / FILES;
+        final int kingFile = kingTile % FILES;
+        final int mask = side == WHITE ?
+                (kingRow >= 2 ? 3 << (kingRow - 2) : kingRow == 1 ? 1 : 0) :
+                0xFF & (3 << (kingRow + 1));
+        int pawns = 0;
+        for (int file = Math.max(0, kingFile - 1); file <= Math.min(FILES - 1, kingFile + 1); file++) {
+            pawns += Integer.bitCount((int) (packedRows >>> (FILES * file)) & mask);
+        }
+        return SHIELD_BONUS * pawns;
+    }
+
+}
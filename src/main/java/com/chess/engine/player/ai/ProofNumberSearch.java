@@ -0,0 +1,318 @@
+package com.chess.engine.player.ai;
+
+import com.chess.engine.board.Board;
+import com.chess.engine.board.Move;
+import com.chess.engine.player.MoveTransition;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Mate solver using proof-number search. The player to move is the attacker trying to force checkmate within the
+ * given number of moves. Instead of evaluating positions the search grows the tree where the fewest remaining
+ * leaves need to be proven (or disproven), so forced mates are found without looking at quiet alternatives.
+ *
+ * Solved subtrees are discarded as soon as they no longer matter and the search gives up once the tree holds the
+ * maximum number of nodes, which bounds memory independently of the node limit.
+ */
+public class ProofNumberSearch implements MoveStrategy {
+
+    public static final int MATE_SCORE = 1000000;
+
+    private static final int INFINITY = Integer.MAX_VALUE;
+    private static final int DEFAULT_NODE_LIMIT = 2000000;
+    private static final int DEFAULT_MAX_STORED_NODES = 500000;
+
+    private final int mateInMoves;
+    private final long nodeLimit;
+    private final int maxStoredNodes;
+    private SearchStatistics statistics;
+    private int storedNodes;
+
+    public ProofNumberSearch(final int mateInMoves) {
+        this(mateInMoves, DEFAULT_NODE_LIMIT, DEFAULT_MAX_STORED_NODES);
+    }
+
+    /**
+     * Constructor for ProofNumberSearch
+     *
+     * @param mateInMoves    number of attacker moves the mate must be delivered in
+     * @param nodeLimit      maximum number of nodes created before giving up
+     * @param maxStoredNodes maximum number of nodes held in memory at once
+     */
+    public ProofNumberSearch(final int mateInMoves,
+                             final long nodeLimit,
+                             final int maxStoredNodes) {
+        if (mateInMoves < 1) {
+            throw new IllegalArgumentException("Mate must be in at least one move: " + mateInMoves);
+        }
+        this.mateInMoves = mateInMoves;
+        this.nodeLimit = nodeLimit;
+        this.maxStoredNodes = maxStoredNodes;
+        this.statistics = new SearchStatistics();
+    }
+
+    @Override
+    public String toString() {
+        return "ProofNumberSearch";
+    }
+
+    @Override
+    public Move execute(final Board board) {
+        return search(board, new CancellationToken()).getBestMove();
+    }
+
+    /**
+     * Tries to prove a forced mate. A proven mate is returned with a positive score and the mating line as its
+     * principal variation. Otherwise the score is zero and the best move is the most promising attempt, or null if
+     * the player to move has no legal move.
+     *
+     * @param board
+     * @param cancellationToken
+     * @return
+     */
+    @Override
+    public SearchResult search(final Board board, final CancellationToken cancellationToken) {
+        this.statistics = new SearchStatistics();
+        this.storedNodes = 0;
+        final Node root = createNode(board, null, null, true, 0);
+        long expansions = 0;
+        try {
+            while (!root.isSolved() &&
+                    this.statistics.getNodes() < this.nodeLimit &&
+                    this.storedNodes < this.maxStoredNodes) {
+                final Node mostProvingNode = selectMostProvingNode(root);
+                expand(mostProvingNode);
+                updateAncestors(mostProvingNode);
+                //Each expansion creates a whole batch of nodes, so poll on expansions rather than nodes
+                cancellationToken.checkpoint(++expansions);
+            }
+        } catch (final SearchCancelledException e) {
+            //fall through and report whatever has been proven so far
+        }
+        this.statistics.searchCompleted();
+        final List<Move> principalVariation = new ArrayList<Move>();
+        if (root.proof == 0) {
+            collectProofLine(root, principalVariation);
+            return new SearchResult(principalVariation.get(0), MATE_SCORE - principalVariation.size(),
+                    principalVariation.size(), principalVariation, this.statistics);
+        }
+        final Node mostPromising = root.children == null ? null : bestChild(root);
+        if (mostPromising != null) {
+            principalVariation.add(mostPromising.move);
+        }
+        return new SearchResult(mostPromising == null ? null : mostPromising.move, 0,
+                2 * this.mateInMoves - 1, principalVariation, this.statistics);
+    }
+
+    /**
+     * Creates and evaluates a node. Checkmates of the defender are proven; checkmates of the attacker, stalemates
+     * and defender positions where the attacker has no moves left are disproven.
+     */
+    private Node createNode(final Board board,
+                            final Move move,
+                            final Node parent,
+                            final boolean isOrNode,
+                            final int ply) {
+        this.statistics.incrementNodes();
+        this.storedNodes++;
+        final Node node = new Node(board, move, parent, isOrNode, ply);
+        if (board.currentPlayer().isInCheckMate()) {
+            node.setSolved(!isOrNode);
+        } else if (board.currentPlayer().isInStaleMate()) {
+            node.setSolved(false);
+        } else if (!isOrNode && ply >= 2 * this.mateInMoves - 1) {
+            node.setSolved(false);
+        } else {
+            node.proof = 1;
+            node.disproof = 1;
+        }
+        return node;
+    }
+
+    private static Node selectMostProvingNode(final Node root) {
+        Node node = root;
+        while (node.children != null) {
+            Node next = null;
+            for (final Node child : node.children) {
+                if (node.isOrNode ? child.proof == node.proof : child.disproof == node.disproof) {
+                    next = child;
+                    break;
+                }
+            }
+            node = next;
+        }
+        return node;
+    }
+
+    private void expand(final Node node) {
+        final List<Node> children = new ArrayList<Node>();
+        for (final Move move : node.board.currentPlayer().getLegalMoves()) {
+            final MoveTransition moveTransition = node.board.currentPlayer().makeMove(move);
+            if (moveTransition.getMoveStatus().isDone()) {
+                children.add(createNode(moveTransition.getTransitionBoard(), move, node, !node.isOrNode, node.ply + 1));
+            }
+        }
+        node.children = children.toArray(new Node[children.size()]);
+        node.board = null;
+        updateNumbers(node);
+    }
+
+    private void updateAncestors(final Node node) {
+        Node current = node;
+        while (current != null) {
+            if (current != node) {
+                updateNumbers(current);
+            }
+            if (current.isSolved()) {
+                releaseChildren(current);
+            }
+            current = current.parent;
+        }
+    }
+
+    /**
+     * OR nodes need one proven child and all children disproven to be disproven; AND nodes the reverse.
+     */
+    private static void updateNumbers(final Node node) {
+        if (node.isOrNode) {
+            int proof = INFINITY;
+            int disproof = 0;
+            for (final Node child : node.children) {
+                proof = Math.min(proof, child.proof);
+                disproof = saturatedAdd(disproof, child.disproof);
+            }
+            node.proof = proof;
+            node.disproof = disproof;
+        } else {
+            int proof = 0;
+            int disproof = INFINITY;
+            for (final Node child : node.children) {
+                proof = saturatedAdd(proof, child.proof);
+                disproof = Math.min(disproof, child.disproof);
+            }
+            node.proof = proof;
+            node.disproof = disproof;
+        }
+    }
+
+    /**
+     * Frees the parts of a solved node's subtree that are not needed to read back the proof: everything below a
+     * disproven node, and the unproven alternatives of a proven OR node.
+     */
+    private void releaseChildren(final Node node) {
+        if (node.children == null) {
+            return;
+        }
+        if (node.disproof == 0) {
+            for (final Node child : node.children) {
+                this.storedNodes -= child.subtreeSize();
+            }
+            node.children = new Node[0];
+        } else if (node.isOrNode) {
+            Node proofChild = null;
+            for (final Node child : node.children) {
+                if (child.proof == 0 && proofChild == null) {
+                    proofChild = child;
+                } else {
+                    this.storedNodes -= child.subtreeSize();
+                }
+            }
+            node.children = new Node[]{proofChild};
+        }
+    }
+
+    /**
+     * Follows the proof from the node: the proving move at OR nodes and the defence holding out longest at AND
+     * nodes.
+     */
+    private static void collectProofLine(final Node node, final List<Move> line) {
+        if (node.children == null || node.children.length == 0) {
+            return;
+        }
+        Node next = null;
+        for (final Node child : node.children) {
+            if (child.proof != 0) {
+                continue;
+            }
+            if (next == null || (!node.isOrNode && child.proofHeight() > next.proofHeight())) {
+                next = child;
+            }
+        }
+        if (next != null) {
+            line.add(next.move);
+            collectProofLine(next, line);
+        }
+    }
+
+    private static Node bestChild(final Node root) {
+        Node best = null;
+        for (final Node child : root.children) {
+            if (best == null || child.proof < best.proof) {
+                best = child;
+            }
+        }
+        return best;
+    }
+
+    private static int saturatedAdd(final int first, final int second) {
+        final long sum = (long) first + second;
+        return sum >= INFINITY ? INFINITY : (int) sum;
+    }
+
+    private static final class Node {
+
+        private Board board;
+        private final Move move;
+        private final Node parent;
+        private final boolean isOrNode;
+        private final int ply;
+        private int proof;
+        private int disproof;
+        private Node[] children;
+
+        private Node(final Board board,
+                     final Move move,
+                     final Node parent,
+                     final boolean isOrNode,
+                     final int ply) {
+            this.board = board;
+            this.move = move;
+            this.parent = parent;
+            this.isOrNode = isOrNode;
+            this.ply = ply;
+        }
+
+        private void setSolved(final boolean proven) {
+            this.proof = proven ? 0 : INFINITY;
+            this.disproof = proven ? INFINITY : 0;
+        }
+
+        private boolean isSolved() {
+            return this.proof == 0 || this.disproof == 0;
+        }
+
+        private int subtreeSize() {
+            int size = 1;
+            if (this.children != null) {
+                for (final Node child : this.children) {
+                    size += child.subtreeSize();
+                }
+            }
+            return size;
+        }
+
+        private int proofHeight() {
+            int height = 0;
+            if (this.children != null) {
+                for (final Node child : this.children) {
+                    if (child.proof == 0) {
+                        height = Math.max(height, child.proofHeight() + 1);
+                    }
+                }
+            }
+            return height;
+        }
+    }
+
+}
@@ -0,0 +1,15 @@
+package com.chess.engine.player.ai;
+
+/**
+ * Thrown inside a search to unwind the recursion once its CancellationToken has been cancelled. It never escapes
+ * a MoveStrategy.
+ */
+final class SearchCancelledException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    SearchCancelledException() {
+        super("Search cancelled", null, false, false);
+    }
+
+}
@@ -0,0 +1,20 @@
+package com.chess.engine.player.ai;
+
+import com.chess.engine.board.Board;
+import com.chess.engine.board.Move;
+
+/**
+ * Decides whether a move is forcing enough to be searched one ply deeper than normal.
+ */
+public interface SearchExtension {
+
+    /**
+     * @param board        position the move is made from
+     * @param move         move being searched
+     * @param child        position after the move
+     * @param previousMove move that led to board, or null at the root
+     * @return true if the move should be extended
+     */
+    boolean extend(Board board, Move move, Board child, Move previousMove);
+
+}
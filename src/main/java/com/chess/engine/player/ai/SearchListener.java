@@ -0,0 +1,10 @@
+package com.chess.engine.player.ai;
+
+/**
+ * Receives progress from a running search. Called on the search thread, so implementations should return quickly.
+ */
+public interface SearchListener {
+
+    void iterationCompleted(SearchResult searchResult);
+
+}
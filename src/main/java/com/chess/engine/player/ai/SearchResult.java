@@ -0,0 +1,176 @@
+package com.chess.engine.player.ai;
+
+import com.chess.engine.board.Move;
+import com.google.common.collect.ImmutableList;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Outcome of a search: the chosen move together with the line the engine expects to be played.
+ */
+public final class SearchResult {
+
+    private final Move bestMove;
+    private final int score;
+    private final int depth;
+    private final List<Move> principalVariation;
+    private final List<Line> lines;
+    private final SearchStatistics statistics;
+
+    /**
+     * Constructor for SearchResult
+     *
+     * @param bestMove
+     * @param score              score from the point of view of the player to move
+     * @param depth              depth of the last completed iteration
+     * @param principalVariation
+     * @param statistics
+     */
+    public SearchResult(final Move bestMove,
+                        final int score,
+                        final int depth,
+                        final List<Move> principalVariation,
+                        final SearchStatistics statistics) {
+        this.bestMove = bestMove;
+        this.score = score;
+        this.depth = depth;
+        this.principalVariation = ImmutableList.copyOf(principalVariation);
+        this.lines = bestMove == null ? ImmutableList.<Line>of() :
+                ImmutableList.of(new Line(score, principalVariation));
+        this.statistics = statistics;
+    }
+
+    /**
+     * Constructor for a multi-PV SearchResult. The lines are ranked best first and the best one provides the best
+     * move, score and principal variation.
+     *
+     * @param depth
+     * @param lines
+     * @param statistics
+     */
+    public SearchResult(final int depth,
+                        final List<Line> lines,
+                        final SearchStatistics statistics) {
+        final List<Line> rankedLines = new ArrayList<Line>(lines);
+        Collections.sort(rankedLines, new Comparator<Line>() {
+            @Override
+            public int compare(final Line first, final Line second) {
+                return Integer.compare(second.getScore(), first.getScore());
+            }
+        });
+        this.lines = ImmutableList.copyOf(rankedLines);
+        this.depth = depth;
+        this.statistics = statistics;
+        if (rankedLines.isEmpty()) {
+            this.bestMove = null;
+            this.score = 0;
+            this.principalVariation = ImmutableList.of();
+        } else {
+            this.bestMove = rankedLines.get(0).getMoves().get(0);
+            this.score = rankedLines.get(0).getScore();
+            this.principalVariation = rankedLines.get(0).getMoves();
+        }
+    }
+
+    public Move getBestMove() {
+        return this.bestMove;
+    }
+
+    public int getScore() {
+        return this.score;
+    }
+
+    public int getDepth() {
+        return this.depth;
+    }
+
+    public long getNodes() {
+        return this.statistics.getNodes();
+    }
+
+    /**
+     * Returns the time taken in milliseconds.
+     *
+     * @return
+     */
+    public long getElapsedTime() {
+        return this.statistics.getElapsedTime();
+    }
+
+    public SearchStatistics getStatistics() {
+        return this.statistics;
+    }
+
+    public List<Move> getPrincipalVariation() {
+        return this.principalVariation;
+    }
+
+    /**
+     * Returns the ranked lines of a multi-PV search, or just the principal variation otherwise.
+     *
+     * @return
+     */
+    public List<Line> getLines() {
+        return this.lines;
+    }
+
+    /**
+     * Returns the principal variation as space separated moves.
+     *
+     * @return
+     */
+    public String principalVariationText() {
+        return movesText(this.principalVariation);
+    }
+
+    private static String movesText(final List<Move> moves) {
+        final StringBuilder builder = new StringBuilder();
+        for (final Move move : moves) {
+            if (builder.length() > 0) {
+                builder.append(' ');
+            }
+            builder.append(move);
+        }
+        return builder.toString();
+    }
+
+    @Override
+    public String toString() {
+        return "depth " + this.depth +
+                " score " + this.score +
+                " nodes " + getNodes() +
+                " time " + getElapsedTime() + "ms" +
+                " pv " + principalVariationText();
+    }
+
+    /**
+     * A root move with its score and the line expected to follow it.
+     */
+    public static final class Line {
+
+        private final int score;
+        private final List<Move> moves;
+
+        public Line(final int score, final List<Move> moves) {
+            this.score = score;
+            this.moves = ImmutableList.copyOf(moves);
+        }
+
+        public int getScore() {
+            return this.score;
+        }
+
+        public List<Move> getMoves() {
+            return this.moves;
+        }
+
+        @Override
+        public String toString() {
+            return "score " + this.score + " pv " + movesText(this.moves);
+        }
+    }
+
+}
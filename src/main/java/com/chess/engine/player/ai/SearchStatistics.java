@@ -0,0 +1,255 @@
+package com.chess.engine.player.ai;
+
+import com.google.common.collect.ImmutableList;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Counters collected during a single search. Strategies update them as they go; callers read them through
+ * SearchResult or a SearchListener.
+ */
+public final class SearchStatistics {
+
+    private final long startTime;
+    private long elapsedTime;
+    private long nodes;
+    private long quiescenceNodes;
+    private long evaluations;
+    private long hashProbes;
+    private long hashHits;
+    private long betaCutoffs;
+    private long firstMoveCutoffs;
+    private long futilityPrunes;
+    private long reverseFutilityPrunes;
+    private long razoringPrunes;
+    private long tablebaseHits;
+    private long evaluationCacheProbes;
+    private long evaluationCacheHits;
+    private final List<Long> iterationNodes;
+    private final List<Long> iterationTimes;
+
+    public SearchStatistics() {
+        this.startTime = System.currentTimeMillis();
+        this.iterationNodes = new ArrayList<Long>();
+        this.iterationTimes = new ArrayList<Long>();
+    }
+
+    void incrementNodes() {
+        this.nodes++;
+    }
+
+    void incrementQuiescenceNodes() {
+        this.nodes++;
+        this.quiescenceNodes++;
+    }
+
+    void incrementEvaluations() {
+        this.evaluations++;
+    }
+
+    /**
+     * Adds node and evaluation counts collected elsewhere, e.g. by worker threads that keep their own counters.
+     *
+     * @param nodeCount
+     * @param evaluationCount
+     */
+    void addCounts(final long nodeCount, final long evaluationCount) {
+        this.nodes += nodeCount;
+        this.evaluations += evaluationCount;
+    }
+
+    void recordHashProbe(final boolean hit) {
+        this.hashProbes++;
+        if (hit) {
+            this.hashHits++;
+        }
+    }
+
+    /**
+     * Records a beta cutoff.
+     *
+     * @param moveNumber 1 for the first legal move searched at the node
+     */
+    void recordBetaCutoff(final int moveNumber) {
+        this.betaCutoffs++;
+        if (moveNumber == 1) {
+            this.firstMoveCutoffs++;
+        }
+    }
+
+    void recordFutilityPrune() {
+        this.futilityPrunes++;
+    }
+
+    void recordReverseFutilityPrune() {
+        this.reverseFutilityPrunes++;
+    }
+
+    void recordRazoringPrune() {
+        this.razoringPrunes++;
+    }
+
+    void recordTablebaseHit() {
+        this.tablebaseHits++;
+    }
+
+    /**
+     * Records how often the evaluation cache was consulted during the search and how often it had the answer.
+     *
+     * @param probes
+     * @param hits
+     */
+    void recordEvaluationCache(final long probes, final long hits) {
+        this.evaluationCacheProbes = probes;
+        this.evaluationCacheHits = hits;
+    }
+
+    /**
+     * Records the total nodes and time once an iterative deepening iteration completes.
+     */
+    void iterationCompleted() {
+        final long now = System.currentTimeMillis();
+        long previousTime = 0;
+        for (final Long time : this.iterationTimes) {
+            previousTime += time;
+        }
+        this.iterationNodes.add(this.nodes);
+        this.iterationTimes.add(now - this.startTime - previousTime);
+        this.elapsedTime = now - this.startTime;
+    }
+
+    void searchCompleted() {
+        this.elapsedTime = System.currentTimeMillis() - this.startTime;
+    }
+
+    public long getNodes() {
+        return this.nodes;
+    }
+
+    public long getQuiescenceNodes() {
+        return this.quiescenceNodes;
+    }
+
+    public long getEvaluations() {
+        return this.evaluations;
+    }
+
+    public long getHashProbes() {
+        return this.hashProbes;
+    }
+
+    public long getHashHits() {
+        return this.hashHits;
+    }
+
+    public long getBetaCutoffs() {
+        return this.betaCutoffs;
+    }
+
+    /**
+     * Returns the number of quiet moves skipped by futility pruning.
+     *
+     * @return
+     */
+    public long getFutilityPrunes() {
+        return this.futilityPrunes;
+    }
+
+    /**
+     * Returns the number of nodes cut by reverse futility pruning.
+     *
+     * @return
+     */
+    public long getReverseFutilityPrunes() {
+        return this.reverseFutilityPrunes;
+    }
+
+    /**
+     * Returns the number of nodes resolved by razoring.
+     *
+     * @return
+     */
+    public long getRazoringPrunes() {
+        return this.razoringPrunes;
+    }
+
+    /**
+     * Returns the number of nodes scored from the endgame tablebases.
+     *
+     * @return
+     */
+    public long getTablebaseHits() {
+        return this.tablebaseHits;
+    }
+
+    public long getEvaluationCacheProbes() {
+        return this.evaluationCacheProbes;
+    }
+
+    public long getEvaluationCacheHits() {
+        return this.evaluationCacheHits;
+    }
+
+    public double getEvaluationCacheHitRate() {
+        return this.evaluationCacheProbes == 0 ? 0 : (double) this.evaluationCacheHits / this.evaluationCacheProbes;
+    }
+
+    public long getElapsedTime() {
+        return this.elapsedTime;
+    }
+
+    public long getNodesPerSecond() {
+        return this.nodes * 1000 / Math.max(1, this.elapsedTime);
+    }
+
+    public double getHashHitRate() {
+        return this.hashProbes == 0 ? 0 : (double) this.hashHits / this.hashProbes;
+    }
+
+    /**
+     * Fraction of beta cutoffs produced by the first move searched, a measure of move ordering quality.
+     *
+     * @return
+     */
+    public double getFirstMoveCutoffRate() {
+        return this.betaCutoffs == 0 ? 0 : (double) this.firstMoveCutoffs / this.betaCutoffs;
+    }
+
+    /**
+     * Ratio of the nodes needed for the last completed iteration to those needed for the one before it.
+     *
+     * @return
+     */
+    public double getEffectiveBranchingFactor() {
+        final int iterations = this.iterationNodes.size();
+        if (iterations < 2) {
+            return 0;
+        }
+        final long last = this.iterationNodes.get(iterations - 1) - this.iterationNodes.get(iterations - 2);
+        final long previous = iterations == 2 ? this.iterationNodes.get(0) :
+                this.iterationNodes.get(iterations - 2) - this.iterationNodes.get(iterations - 3);
+        return previous == 0 ? 0 : (double) last / previous;
+    }
+
+    /**
+     * Milliseconds spent on each completed iteration, shallowest first.
+     *
+     * @return
+     */
+    public List<Long> getIterationTimes() {
+        return ImmutableList.copyOf(this.iterationTimes);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("nodes %d qnodes %d nps %d ebf %.2f first-move cutoffs %.1f%% hash %d/%d evaluations %d " +
+                        "eval cache %d/%d pruned futility %d reverse futility %d razoring %d tablebase hits %d iterations %s",
+                this.nodes, this.quiescenceNodes, getNodesPerSecond(), getEffectiveBranchingFactor(),
+                getFirstMoveCutoffRate() * 100, this.hashHits, this.hashProbes, this.evaluations,
+                this.evaluationCacheHits, this.evaluationCacheProbes,
+                this.futilityPrunes, this.reverseFutilityPrunes, this.razoringPrunes, this.tablebaseHits,
+                this.iterationTimes);
+    }
+
+}
@@ -1,57 +1,151 @@
 package com.chess.engine.player.ai;
 
 import com.chess.engine.board.Board;
-import com.chess.engine.pieces.Piece;
-import com.chess.engine.player.Player;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 
+import java.util.List;
+
+/**
+ * Adds up a list of EvaluationTerm components, by default material, mobility, check, checkmate, castling and pawn
+ * structure. Terms can be switched off individually, e.g. to drop the expensive ones for fast games, and with
+ * profiling on the evaluator counts the calls to each term and the nanoseconds spent in it so their cost can be
+ * compared. Like the evaluation cache counters, the profile is not synchronized and may undercount slightly when the
+ * evaluator is shared between threads.
+ */
 public final class StandardBoardEvaluator implements BoardEvaluator {
-    private static final int CHECK_BONUS = 50;
-    private static final int CHECK_MATE_BONUS = 10000;
-    private static final int DEPTH_BONUS = 100;
-    private static final int CASTLE_BONUS = 60;
 
+    private final ImmutableList<EvaluationTerm> terms;
+    private final boolean[] enabled;
+    private final boolean profiling;
+    private final long[] calls;
+    private final long[] times;
+
+    public StandardBoardEvaluator() {
+        this(new PawnHashTable());
+    }
+
+    public StandardBoardEvaluator(final PawnHashTable pawnHashTable) {
+        this(EvaluationTerms.standardTerms(pawnHashTable), false);
+    }
+
+    /**
+     * Constructor for StandardBoardEvaluator.
+     *
+     * @param terms     terms to add up, evaluated in the order given
+     * @param profiling whether to count calls and time per term
+     */
+    public StandardBoardEvaluator(final List<EvaluationTerm> terms, final boolean profiling) {
+        this.terms = ImmutableList.copyOf(terms);
+        this.enabled = new boolean[this.terms.size()];
+        for (int i = 0; i < this.enabled.length; i++) {
+            this.enabled[i] = true;
+        }
+        this.profiling = profiling;
+        this.calls = new long[this.terms.size()];
+        this.times = new long[this.terms.size()];
+    }
 
     @Override
     public int evaluate(final Board board, final int depth) {
-        return scorePlayer(board, board.whitePlayer(), depth) -
-                scorePlayer(board, board.blackPlayer(), depth);
+        int score = 0;
+        for (int i = 0; i < this.enabled.length; i++) {
+            if (!this.enabled[i]) {
+                continue;
+            }
+            if (this.profiling) {
+                final long start = System.nanoTime();
+                score += this.terms.get(i).evaluate(board, depth);
+                this.times[i] += System.nanoTime() - start;
+                this.calls[i]++;
+            } else {
+                score += this.terms.get(i).evaluate(board, depth);
+            }
+        }
+        return score;
     }
 
-    private int scorePlayer(final Board board, final Player player, final int depth) {
-        return pieceValue(player) +
-                mobility(player) +
-                check(player) +
-                checkmate(player, depth) +
-                castled(player);
+    /**
+     * Returns the score of each enabled term by name, in evaluation order. The scores add up to evaluate.
+     *
+     * @param board
+     * @param depth
+     * @return
+     */
+    public ImmutableMap<String, Integer> breakdown(final Board board, final int depth) {
+        final ImmutableMap.Builder<String, Integer> builder = ImmutableMap.builder();
+        for (int i = 0; i < this.enabled.length; i++) {
+            if (this.enabled[i]) {
+                builder.put(this.terms.get(i).getName(), this.terms.get(i).evaluate(board, depth));
+            }
+        }
+        return builder.build();
+    }
+
+    public List<EvaluationTerm> getTerms() {
+        return this.terms;
     }
 
-    private static int castled(Player player) {
-        return player.isCastled() ? CASTLE_BONUS : 0;
+    public void setEnabled(final String name, final boolean enabled) {
+        this.enabled[indexOf(name)] = enabled;
     }
 
-    private static int checkmate(final Player player, int depth) {
-        return player.getOpponent().isInCheckMate() ? CHECK_MATE_BONUS * depthBonus(depth) : 0;
+    public boolean isEnabled(final String name) {
+        return this.enabled[indexOf(name)];
     }
 
-    private static int depthBonus(int depth) {
-        return depth == 0 ? 1 : DEPTH_BONUS * depth;
+    public boolean isProfiling() {
+        return this.profiling;
     }
 
-    private static int check(final Player player) {
-        return player.getOpponent().isInCheck() ? CHECK_BONUS : 0;
+    /**
+     * Returns how often the term was evaluated since profiling started or was last reset.
+     *
+     * @param name
+     * @return
+     */
+    public long getCalls(final String name) {
+        return this.calls[indexOf(name)];
     }
 
-    private static int mobility(final Player player) {
-        return player.getLegalMoves().size();
+    /**
+     * Returns the nanoseconds spent in the term since profiling started or was last reset.
+     *
+     * @param name
+     * @return
+     */
+    public long getTime(final String name) {
+        return this.times[indexOf(name)];
     }
 
-    private static int pieceValue(final Player player) {
-        int pieceValueScore = 0;
-        for (final Piece piece : player.getActivePieces()) {
-            pieceValueScore += piece.getPieceValue();
+    public void resetProfile() {
+        for (int i = 0; i < this.calls.length; i++) {
+            this.calls[i] = 0;
+            this.times[i] = 0;
         }
-        return pieceValueScore;
     }
 
+    /**
+     * One line per term with its call count, total time and average time per call.
+     */
+    @Override
+    public String toString() {
+        final StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < this.terms.size(); i++) {
+            builder.append(String.format("%-16s %s calls %d time %dms avg %dns%n",
+                    this.terms.get(i).getName(), this.enabled[i] ? "on " : "off",
+                    this.calls[i], this.times[i] / 1000000, this.calls[i] == 0 ? 0 : this.times[i] / this.calls[i]));
+        }
+        return builder.toString();
+    }
+
+    private int indexOf(final String name) {
+        for (int i = 0; i < this.terms.size(); i++) {
+            if (this.terms.get(i).getName().equals(name)) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("No evaluation term named " + name);
+    }
 
 }
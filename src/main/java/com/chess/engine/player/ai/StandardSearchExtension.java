@@ -0,0 +1,73 @@
+package com.chess.engine.player.ai;
+
+import com.chess.engine.board.Board;
+import com.chess.engine.board.BoardUtils;
+import com.chess.engine.board.Move;
+import com.chess.engine.pieces.Piece;
+
+public enum StandardSearchExtension implements SearchExtension {
+
+    /**
+     * Extends moves that give check.
+     */
+    CHECK {
+        @Override
+        public boolean extend(final Board board, final Move move, final Board child, final Move previousMove) {
+            return child.currentPlayer().isInCheck();
+        }
+    },
+    /**
+     * Extends a capture made on the square where the opponent has just captured.
+     */
+    RECAPTURE {
+        @Override
+        public boolean extend(final Board board, final Move move, final Board child, final Move previousMove) {
+            return move.isAttack() && previousMove != null && previousMove.isAttack() &&
+                    move.getDestinationCoordinate() == previousMove.getDestinationCoordinate();
+        }
+    },
+    /**
+     * Extends a passed pawn advancing to its seventh rank.
+     */
+    PASSED_PAWN_PUSH {
+        @Override
+        public boolean extend(final Board board, final Move move, final Board child, final Move previousMove) {
+            final Piece pawn = move.getMovedPiece();
+            if (pawn == null || pawn.getPieceType() != Piece.PieceType.PAWN) {
+                return false;
+            }
+            final int destination = move.getDestinationCoordinate();
+            final boolean isSeventhRank = pawn.getPieceAlliance().isWhite() ?
+                    BoardUtils.SEVENTH_RANK[destination] : BoardUtils.SECOND_RANK[destination];
+            return isSeventhRank && isPassed(child, pawn, destination);
+        }
+    };
+
+    /**
+     * Returns true if no enemy pawn stands ahead of the pawn on its own or an adjacent file.
+     *
+     * @param board
+     * @param pawn
+     * @param position
+     * @return
+     */
+    private static boolean isPassed(final Board board, final Piece pawn, final int position) {
+        final int file = position % BoardUtils.NUM_TILES_PER_ROW;
+        final int rank = position / BoardUtils.NUM_TILES_PER_ROW;
+        final Iterable<Piece> enemyPieces = pawn.getPieceAlliance().isWhite() ?
+                board.getBlackPieces() : board.getWhitePieces();
+        for (final Piece piece : enemyPieces) {
+            if (piece.getPieceType() != Piece.PieceType.PAWN) {
+                continue;
+            }
+            final int enemyFile = piece.getPiecePosition() % BoardUtils.NUM_TILES_PER_ROW;
+            final int enemyRank = piece.getPiecePosition() / BoardUtils.NUM_TILES_PER_ROW;
+            final boolean isAhead = pawn.getPieceAlliance().isWhite() ? enemyRank < rank : enemyRank > rank;
+            if (isAhead && Math.abs(enemyFile - file) <= 1) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+}
@@ -0,0 +1,40 @@
+package com.chess.engine.player.ai;
+
+import com.chess.engine.board.Board;
+import com.chess.engine.tablebase.EndgameTablebase;
+
+/**
+ * Scores positions covered by the endgame tablebases exactly and leaves everything else to another evaluator.
+ */
+public final class TablebaseBoardEvaluator implements BoundedBoardEvaluator {
+
+    private final EndgameTablebase tablebase;
+    private final BoardEvaluator delegate;
+
+    public TablebaseBoardEvaluator(final EndgameTablebase tablebase,
+                                   final BoardEvaluator delegate) {
+        this.tablebase = tablebase;
+        this.delegate = delegate;
+    }
+
+    @Override
+    public int evaluate(final Board board, final int depth) {
+        final int score = this.tablebase.probe(board);
+        if (score == EndgameTablebase.NOT_FOUND) {
+            return this.delegate.evaluate(board, depth);
+        }
+        return board.currentPlayer().getAlliance().isWhite() ? score : -score;
+    }
+
+    @Override
+    public int evaluate(final Board board, final int depth, final int alpha, final int beta) {
+        final int score = this.tablebase.probe(board);
+        if (score == EndgameTablebase.NOT_FOUND) {
+            return this.delegate instanceof BoundedBoardEvaluator ?
+                    ((BoundedBoardEvaluator) this.delegate).evaluate(board, depth, alpha, beta) :
+                    this.delegate.evaluate(board, depth);
+        }
+        return board.currentPlayer().getAlliance().isWhite() ? score : -score;
+    }
+
+}
@@ -0,0 +1,234 @@
+package com.chess.engine.player.ai;
+
+import com.chess.engine.Alliance;
+import com.chess.engine.board.Board;
+import com.chess.engine.board.PieceSquareTables;
+import com.chess.engine.pieces.Piece;
+import com.chess.engine.player.Player;
+import com.google.common.collect.Iterables;
+
+/**
+ * Scores material, piece placement, mobility, attacks on the enemy king, space and the bishop pair separately for
+ * the middlegame and the endgame and blends the two by the game phase, so that e.g. the king is kept sheltered while
+ * queens are on and walks to the centre once they are gone. Mobility, king attacks and space are read from
+ * AttackMaps and pawn structure from a PawnHashTable. With the default weights the material and piece-square part
+ * comes straight from the sums Board keeps up to date; custom weights are summed per piece.
+ *
+ * Bounded evaluation works out material and piece placement first and returns that alone when it is more than the
+ * lazy margin outside the window, skipping the attack maps and pawn structure.
+ */
+public final class TaperedBoardEvaluator implements BoundedBoardEvaluator {
+
+    private static final int CHECK_MATE_SCORE = 10000;
+    private static final int DEPTH_BONUS = 100;
+    //Four per piece plus two for each of mobility, king attacks, space and the bishop pair
+    public static final int MAX_LINEAR_TERMS = 4 * 32 + 8;
+    public static final int DEFAULT_LAZY_MARGIN = 400;
+
+    private final EvaluationWeights weights;
+    private final PawnHashTable pawnHashTable;
+    private final int lazyMargin;
+    private long lazyEvaluations;
+
+    public TaperedBoardEvaluator() {
+        this(EvaluationWeights.defaults());
+    }
+
+    public TaperedBoardEvaluator(final EvaluationWeights weights) {
+        this(weights, new PawnHashTable());
+    }
+
+    public TaperedBoardEvaluator(final EvaluationWeights weights, final PawnHashTable pawnHashTable) {
+        this(weights, pawnHashTable, DEFAULT_LAZY_MARGIN);
+    }
+
+    /**
+     * Constructor for TaperedBoardEvaluator.
+     *
+     * @param weights
+     * @param pawnHashTable
+     * @param lazyMargin    how far outside the window the material and piece-square score has to be for bounded
+     *                      evaluation to skip the remaining terms
+     */
+    public TaperedBoardEvaluator(final EvaluationWeights weights,
+                                 final PawnHashTable pawnHashTable,
+                                 final int lazyMargin) {
+        this.weights = weights;
+        this.pawnHashTable = pawnHashTable;
+        this.lazyMargin = lazyMargin;
+    }
+
+    public EvaluationWeights getWeights() {
+        return this.weights;
+    }
+
+    public int getLazyMargin() {
+        return this.lazyMargin;
+    }
+
+    /**
+     * Returns the number of bounded evaluations answered from material and piece placement alone.
+     *
+     * @return
+     */
+    public long getLazyEvaluations() {
+        return this.lazyEvaluations;
+    }
+
+    /**
+     * Mates are scored like StandardBoardEvaluator does, growing with the remaining depth so the search prefers the
+     * quickest one.
+     */
+    @Override
+    public int evaluate(final Board board, final int depth) {
+        return evaluate(board, depth, Integer.MIN_VALUE, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public int evaluate(final Board board, final int depth, final int alpha, final int beta) {
+        final Player currentPlayer = board.currentPlayer();
+        if (currentPlayer.isInCheckMate()) {
+            final int mateScore = CHECK_MATE_SCORE * (depth == 0 ? 1 : DEPTH_BONUS * depth);
+            return currentPlayer.getAlliance().isWhite() ? -mateScore : mateScore;
+        }
+        if (currentPlayer.isInStaleMate()) {
+            return 0;
+        }
+        int middlegame;
+        int endgame;
+        if (this.weights.hasDefaultTables()) {
+            middlegame = board.getMiddlegameScore();
+            endgame = board.getEndgameScore();
+        } else {
+            middlegame = 0;
+            endgame = 0;
+            for (final Piece piece : board.getWhitePieces()) {
+                middlegame += middlegame(piece);
+                endgame += endgame(piece);
+            }
+            for (final Piece piece : board.getBlackPieces()) {
+                middlegame -= middlegame(piece);
+                endgame -= endgame(piece);
+            }
+        }
+        final int phase = board.getGamePhase();
+        final int lazyScore = taper(middlegame, endgame, phase);
+        if (lazyScore + this.lazyMargin <= alpha || lazyScore - this.lazyMargin >= beta) {
+            this.lazyEvaluations++;
+            return lazyScore;
+        }
+        final AttackMaps attackMaps = new AttackMaps(board);
+        final int mobility = attackMaps.getMobility(Alliance.WHITE) - attackMaps.getMobility(Alliance.BLACK);
+        middlegame += this.weights.middlegameMobility() * mobility;
+        endgame += this.weights.endgameMobility() * mobility;
+        final int kingAttacks = attackMaps.getKingAttacks(Alliance.WHITE) - attackMaps.getKingAttacks(Alliance.BLACK);
+        middlegame += this.weights.middlegameKingAttack() * kingAttacks;
+        endgame += this.weights.endgameKingAttack() * kingAttacks;
+        final int space = attackMaps.getSpace(Alliance.WHITE) - attackMaps.getSpace(Alliance.BLACK);
+        middlegame += this.weights.middlegameSpace() * space;
+        endgame += this.weights.endgameSpace() * space;
+        final int bishopPair = bishopPair(board.whitePlayer()) - bishopPair(board.blackPlayer());
+        middlegame += this.weights.middlegameBishopPair() * bishopPair;
+        endgame += this.weights.endgameBishopPair() * bishopPair;
+        return taper(middlegame, endgame, phase) + PawnStructure.evaluate(board, this.pawnHashTable);
+    }
+
+    /**
+     * Writes the evaluation of a position that is neither mate nor stalemate as a linear function of the weights:
+     * apart from rounding, evaluate returns getPawnStructure plus the sum of coefficients[i] times weight
+     * indices[i] of EvaluationWeights.toArray. Used for tuning the weights against game results.
+     *
+     * @param board
+     * @param indices      receives the weight indices, at least MAX_LINEAR_TERMS long
+     * @param coefficients receives the matching coefficients from white's point of view
+     * @return the number of terms written
+     */
+    public int linearTerms(final Board board, final int[] indices, final float[] coefficients) {
+        final float middlegame = (float) Math.min(board.getGamePhase(), PieceSquareTables.MAX_PHASE) /
+                PieceSquareTables.MAX_PHASE;
+        final float endgame = 1 - middlegame;
+        int count = 0;
+        for (final Piece piece : Iterables.concat(board.getWhitePieces(), board.getBlackPieces())) {
+            final int type = piece.getPieceType().ordinal();
+            final int square = EvaluationWeights.SQUARES * type + PieceSquareTables.tableIndex(piece);
+            final float sign = piece.getPieceAlliance().isWhite() ? 1 : -1;
+            count = term(indices, coefficients, count, EvaluationWeights.MIDDLEGAME_VALUES + type, sign * middlegame);
+            count = term(indices, coefficients, count, EvaluationWeights.ENDGAME_VALUES + type, sign * endgame);
+            count = term(indices, coefficients, count, EvaluationWeights.MIDDLEGAME_TABLES + square, sign * middlegame);
+            count = term(indices, coefficients, count, EvaluationWeights.ENDGAME_TABLES + square, sign * endgame);
+        }
+        final AttackMaps attackMaps = new AttackMaps(board);
+        final int[] features = {
+                attackMaps.getMobility(Alliance.WHITE) - attackMaps.getMobility(Alliance.BLACK),
+                attackMaps.getKingAttacks(Alliance.WHITE) - attackMaps.getKingAttacks(Alliance.BLACK),
+                attackMaps.getSpace(Alliance.WHITE) - attackMaps.getSpace(Alliance.BLACK),
+                bishopPair(board.whitePlayer()) - bishopPair(board.blackPlayer())
+        };
+        final int[] offsets = {
+                EvaluationWeights.MOBILITY, EvaluationWeights.KING_ATTACK,
+                EvaluationWeights.SPACE, EvaluationWeights.BISHOP_PAIR
+        };
+        for (int i = 0; i < features.length; i++) {
+            count = term(indices, coefficients, count, offsets[i], features[i] * middlegame);
+            count = term(indices, coefficients, count, offsets[i] + 1, features[i] * endgame);
+        }
+        return count;
+    }
+
+    private static int term(final int[] indices, final float[] coefficients, final int count,
+                            final int index, final float coefficient) {
+        if (coefficient == 0) {
+            return count;
+        }
+        indices[count] = index;
+        coefficients[count] = coefficient;
+        return count + 1;
+    }
+
+    /**
+     * Returns the pawn structure part of the evaluation, which does not depend on the weights.
+     *
+     * @param board
+     * @return
+     */
+    public int getPawnStructure(final Board board) {
+        return PawnStructure.evaluate(board, this.pawnHashTable);
+    }
+
+    /**
+     * Interpolates between the middlegame and endgame scores, phase MAX_PHASE being a full middlegame.
+     *
+     * @param middlegame
+     * @param endgame
+     * @param phase
+     * @return
+     */
+    static int taper(final int middlegame, final int endgame, final int phase) {
+        final int clampedPhase = Math.min(phase, PieceSquareTables.MAX_PHASE);
+        return (middlegame * clampedPhase + endgame * (PieceSquareTables.MAX_PHASE - clampedPhase)) /
+                PieceSquareTables.MAX_PHASE;
+    }
+
+    private int middlegame(final Piece piece) {
+        final int type = piece.getPieceType().ordinal();
+        return this.weights.middlegameValue(type) +
+                this.weights.middlegameSquare(type, PieceSquareTables.tableIndex(piece));
+    }
+
+    private int endgame(final Piece piece) {
+        final int type = piece.getPieceType().ordinal();
+        return this.weights.endgameValue(type) +
+                this.weights.endgameSquare(type, PieceSquareTables.tableIndex(piece));
+    }
+
+    private static int bishopPair(final Player player) {
+        int bishops = 0;
+        for (final Piece piece : player.getActivePieces()) {
+            if (piece.getPieceType() == Piece.PieceType.BISHOP) {
+                bishops++;
+            }
+        }
+        return bishops >= 2 ? 1 : 0;
+    }
+
+}
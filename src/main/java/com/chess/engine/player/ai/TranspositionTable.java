@@ -0,0 +1,147 @@
+package com.chess.engine.player.ai;
+
+import com.chess.engine.board.Board;
+import com.chess.engine.board.Move;
+
+/**
+ * Fixed size hash table of previously searched positions. Each entry is packed into a single long and stored next
+ * to its key XOR'd with the entry, so a slot torn by two threads writing at once simply fails verification instead of
+ * returning another position's data.
+ */
+public final class TranspositionTable {
+
+    public static final int EXACT = 1;
+    public static final int LOWER_BOUND = 2;
+    public static final int UPPER_BOUND = 3;
+
+    public static final int NO_MOVE = 0;
+    public static final long NO_ENTRY = 0L;
+
+    private static final int DEFAULT_SIZE = 1 << 20;
+
+    private final long[] keys;
+    private final long[] entries;
+    private final int mask;
+
+    public TranspositionTable() {
+        this(DEFAULT_SIZE);
+    }
+
+    /**
+     * Constructor for TranspositionTable. The size is rounded down to a power of two.
+     *
+     * @param size number of entries
+     */
+    public TranspositionTable(final int size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("Transposition table size must be positive: " + size);
+        }
+        final int capacity = Integer.highestOneBit(size);
+        this.keys = new long[capacity];
+        this.entries = new long[capacity];
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * Returns the packed entry stored for the key, or NO_ENTRY if the position is not in the table.
+     *
+     * @param key
+     * @return
+     */
+    public long probe(final long key) {
+        final int index = (int) key & this.mask;
+        final long entry = this.entries[index];
+        if ((this.keys[index] ^ entry) == key) {
+            return entry;
+        }
+        return NO_ENTRY;
+    }
+
+    /**
+     * Stores a search result. An existing entry for the same position is kept if it was searched deeper.
+     *
+     * @param key
+     * @param score
+     * @param depth
+     * @param bound
+     * @param move
+     */
+    public void store(final long key,
+                      final int score,
+                      final int depth,
+                      final int bound,
+                      final int move) {
+        final int index = (int) key & this.mask;
+        final long existing = this.entries[index];
+        if ((this.keys[index] ^ existing) == key && depth(existing) > depth) {
+            return;
+        }
+        final long entry = pack(score, depth, bound, move);
+        this.entries[index] = entry;
+        this.keys[index] = key ^ entry;
+    }
+
+    public void clear() {
+        for (int i = 0; i < this.keys.length; i++) {
+            this.keys[i] = 0L;
+            this.entries[i] = 0L;
+        }
+    }
+
+    public int size() {
+        return this.keys.length;
+    }
+
+    private static long pack(final int score, final int depth, final int bound, final int move) {
+        return (score & 0xFFFFFFFFL) |
+                ((long) (move & 0xFFF) << 32) |
+                ((long) (Math.min(depth, 0xFF) & 0xFF) << 44) |
+                ((long) bound << 52);
+    }
+
+    public static int score(final long entry) {
+        return (int) entry;
+    }
+
+    public static int move(final long entry) {
+        return (int) (entry >>> 32) & 0xFFF;
+    }
+
+    public static int depth(final long entry) {
+        return (int) (entry >>> 44) & 0xFF;
+    }
+
+    public static int bound(final long entry) {
+        return (int) (entry >>> 52) & 0x3;
+    }
+
+    /**
+     * Encodes a move as its source and destination tiles.
+     *
+     * @param move
+     * @return
+     */
+    public static int encodeMove(final Move move) {
+        return (move.getCurrentCoordinate() << 6) | move.getDestinationCoordinate();
+    }
+
+    /**
+     * Finds the legal move on the board matching an encoded move, or null if there is none.
+     *
+     * @param board
+     * @param encodedMove
+     * @return
+     */
+    public static Move decodeMove(final Board board, final int encodedMove) {
+        if (encodedMove == NO_MOVE) {
+            return null;
+        }
+        for (final Move move : board.currentPlayer().getLegalMoves()) {
+            if (encodeMove(move) == encodedMove) {
+                return move;
+            }
+        }
+        return null;
+    }
+
+}
@@ -0,0 +1,44 @@
+package com.chess.engine.tablebase;
+
+import com.chess.engine.pieces.Piece.PieceType;
+
+/**
+ * Material signatures covered by the distance-to-mate tablebases: two kings and a single extra piece for the
+ * strong side. The constants are declared in generation order, KPK depends on the tables its pawn promotes into.
+ */
+public enum EndgameSignature {
+
+    KQK(PieceType.QUEEN),
+    KRK(PieceType.ROOK),
+    KPK(PieceType.PAWN);
+
+    private final PieceType pieceType;
+
+    EndgameSignature(final PieceType pieceType) {
+        this.pieceType = pieceType;
+    }
+
+    public PieceType getPieceType() {
+        return this.pieceType;
+    }
+
+    public String getFileName() {
+        return name() + ".dtm";
+    }
+
+    /**
+     * Returns the signature for a king and the given piece against a lone king, or null if there is no table.
+     *
+     * @param pieceType
+     * @return
+     */
+    public static EndgameSignature forPieceType(final PieceType pieceType) {
+        for (final EndgameSignature signature : values()) {
+            if (signature.pieceType == pieceType) {
+                return signature;
+            }
+        }
+        return null;
+    }
+
+}
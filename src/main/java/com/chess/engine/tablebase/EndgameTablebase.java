@@ -0,0 +1,167 @@
+package com.chess.engine.tablebase;
+
+import com.chess.engine.Alliance;
+import com.chess.engine.board.Board;
+import com.chess.engine.pieces.Piece;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Read-only access to distance-to-mate tables written by RetrogradeGenerator. The files are memory-mapped, so
+ * probing costs a single byte read and the tables never occupy heap. Probes only use absolute reads of the mapped
+ * buffers and are safe from any number of threads.
+ *
+ * A table file is an eight byte header, the magic number and the entry count, followed by one byte per position.
+ * The strong side is always stored as white; positions where black has the extra piece are mirrored on probing.
+ */
+public final class EndgameTablebase {
+
+    public static final int NOT_FOUND = Integer.MIN_VALUE;
+    //Below the search's mate threshold so tablebase wins never look like mates found on the board
+    public static final int WIN_SCORE = 5000;
+
+    static final int MAGIC = 0x4A544231;
+    static final int HEADER_SIZE = 8;
+    static final int SQUARES = 64;
+    static final int ENTRIES = 2 * SQUARES * SQUARES * SQUARES;
+
+    static final int STRONG_TO_MOVE = 0;
+    static final int WEAK_TO_MOVE = 1;
+
+    static final int DRAW = 0;
+    static final int ILLEGAL = 0xFF;
+
+    private final Map<EndgameSignature, MappedByteBuffer> tables;
+
+    private EndgameTablebase(final Map<EndgameSignature, MappedByteBuffer> tables) {
+        this.tables = tables;
+    }
+
+    /**
+     * Maps every table found in the directory. Signatures without a file are simply not probed.
+     *
+     * @param directory
+     * @return
+     * @throws IOException if a table file is truncated or not a tablebase
+     */
+    public static EndgameTablebase open(final File directory) throws IOException {
+        final Map<EndgameSignature, MappedByteBuffer> tables =
+                new EnumMap<EndgameSignature, MappedByteBuffer>(EndgameSignature.class);
+        for (final EndgameSignature signature : EndgameSignature.values()) {
+            final File file = new File(directory, signature.getFileName());
+            if (file.isFile()) {
+                tables.put(signature, map(file));
+            }
+        }
+        return new EndgameTablebase(tables);
+    }
+
+    private static MappedByteBuffer map(final File file) throws IOException {
+        final RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+        try {
+            final FileChannel channel = randomAccessFile.getChannel();
+            if (channel.size() != HEADER_SIZE + ENTRIES) {
+                throw new IOException("Unexpected tablebase size: " + file);
+            }
+            //The mapping stays valid after the channel is closed
+            final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != ENTRIES) {
+                throw new IOException("Not a tablebase: " + file);
+            }
+            return buffer;
+        } finally {
+            randomAccessFile.close();
+        }
+    }
+
+    public Set<EndgameSignature> getSignatures() {
+        return this.tables.keySet();
+    }
+
+    public boolean isEmpty() {
+        return this.tables.isEmpty();
+    }
+
+    /**
+     * Looks the board up in the tables. Returns 0 for a draw, WIN_SCORE less the distance to mate in plies for a win
+     * of the player to move, the negation of that for a loss, or NOT_FOUND if the material is not covered.
+     *
+     * @param board
+     * @return score from the point of view of the player to move
+     */
+    public int probe(final Board board) {
+        final Collection<Piece> whitePieces = board.getWhitePieces();
+        final Collection<Piece> blackPieces = board.getBlackPieces();
+        if (whitePieces.size() + blackPieces.size() != 3 || whitePieces.isEmpty() || blackPieces.isEmpty()) {
+            return NOT_FOUND;
+        }
+        final Alliance strongSide = whitePieces.size() == 2 ? Alliance.WHITE : Alliance.BLACK;
+        Piece strongKing = null;
+        Piece piece = null;
+        for (final Piece strongPiece : strongSide.isWhite() ? whitePieces : blackPieces) {
+            if (strongPiece.getPieceType().isKing()) {
+                strongKing = strongPiece;
+            } else {
+                piece = strongPiece;
+            }
+        }
+        final Piece weakKing = (strongSide.isWhite() ? blackPieces : whitePieces).iterator().next();
+        if (strongKing == null || piece == null || !weakKing.getPieceType().isKing()) {
+            return NOT_FOUND;
+        }
+        final MappedByteBuffer table = this.tables.get(EndgameSignature.forPieceType(piece.getPieceType()));
+        if (table == null) {
+            return NOT_FOUND;
+        }
+        //Mirroring the ranks turns a black strong side into a white one
+        final int flip = strongSide.isWhite() ? 0 : 56;
+        final int sideToMove = board.currentPlayer().getAlliance() == strongSide ? STRONG_TO_MOVE : WEAK_TO_MOVE;
+        final int entry = table.get(HEADER_SIZE + index(sideToMove,
+                strongKing.getPiecePosition() ^ flip,
+                weakKing.getPiecePosition() ^ flip,
+                piece.getPiecePosition() ^ flip)) & 0xFF;
+        if (entry == ILLEGAL) {
+            return NOT_FOUND;
+        }
+        if (entry == DRAW) {
+            return 0;
+        }
+        final int score = WIN_SCORE - plies(entry);
+        return sideToMove == STRONG_TO_MOVE ? score : -score;
+    }
+
+    /**
+     * Returns the raw entry of a position, for generating tables that convert into this one.
+     */
+    int entry(final EndgameSignature signature, final int index) {
+        return this.tables.get(signature).get(HEADER_SIZE + index) & 0xFF;
+    }
+
+    static int index(final int sideToMove, final int strongKing, final int weakKing, final int piece) {
+        return (((sideToMove * SQUARES + strongKing) * SQUARES) + weakKing) * SQUARES + piece;
+    }
+
+    /**
+     * Entry for a win of the strong side in the given number of plies, a checkmated weak side being a win in 0.
+     */
+    static int win(final int plies) {
+        return plies + 1;
+    }
+
+    static boolean isWin(final int entry) {
+        return entry != DRAW && entry != ILLEGAL;
+    }
+
+    static int plies(final int entry) {
+        return entry - 1;
+    }
+
+}
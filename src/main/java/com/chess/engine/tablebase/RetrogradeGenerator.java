@@ -0,0 +1,371 @@
+package com.chess.engine.tablebase;
+
+import com.chess.engine.pieces.Piece.PieceType;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static com.chess.engine.tablebase.EndgameTablebase.*;
+
+/**
+ * Builds a distance-to-mate table for a signature by retrograde analysis. Positions are held one byte each, so a
+ * table needs 512KB no matter how long the mates are; tables the pawn promotes into are read through their mapped
+ * files rather than loaded.
+ *
+ * Pass n resolves the positions lost or won in exactly n plies: odd passes look at the strong side to move, which
+ * wins as soon as one move reaches a weak position lost in n - 1, and even passes at the weak side, which is lost
+ * once every move reaches a won position. A pass only writes positions of one side to move and only reads the other,
+ * so its index range is split between threads without any locking.
+ */
+public final class RetrogradeGenerator {
+
+    private static final int MAX_PLIES = ILLEGAL - 2;
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    private static final int[][] KING_STEPS = new int[SQUARES][];
+    private static final int[][] ROOK_DIRECTIONS = {{-1, 0}, {1, 0}, {0, -1}, {0, 1}};
+    private static final int[][] QUEEN_DIRECTIONS = {{-1, 0}, {1, 0}, {0, -1}, {0, 1},
+            {-1, -1}, {-1, 1}, {1, -1}, {1, 1}};
+
+    static {
+        for (int square = 0; square < SQUARES; square++) {
+            final List<Integer> steps = new ArrayList<Integer>();
+            for (int target = 0; target < SQUARES; target++) {
+                if (distance(square, target) == 1) {
+                    steps.add(target);
+                }
+            }
+            KING_STEPS[square] = new int[steps.size()];
+            for (int i = 0; i < steps.size(); i++) {
+                KING_STEPS[square][i] = steps.get(i);
+            }
+        }
+    }
+
+    private final EndgameSignature signature;
+    private final PieceType pieceType;
+    private final EndgameTablebase dependencies;
+    private final int threads;
+    private final byte[] table;
+    private int longestMate;
+
+    /**
+     * Constructor for RetrogradeGenerator
+     *
+     * @param signature
+     * @param dependencies tables the signature converts into, must contain KQK and KRK when generating KPK
+     * @param threads      number of threads used for each pass
+     */
+    public RetrogradeGenerator(final EndgameSignature signature,
+                               final EndgameTablebase dependencies,
+                               final int threads) {
+        if (signature.getPieceType() == PieceType.PAWN &&
+                (!dependencies.getSignatures().contains(EndgameSignature.KQK) ||
+                        !dependencies.getSignatures().contains(EndgameSignature.KRK))) {
+            throw new IllegalArgumentException("KPK needs the KQK and KRK tables");
+        }
+        this.signature = signature;
+        this.pieceType = signature.getPieceType();
+        this.dependencies = dependencies;
+        this.threads = Math.max(1, threads);
+        this.table = new byte[ENTRIES];
+    }
+
+    /**
+     * Generates the table.
+     *
+     * @return the longest distance to mate in plies
+     */
+    public int generate() {
+        final ExecutorService executor = Executors.newFixedThreadPool(this.threads);
+        try {
+            runPass(executor, STRONG_TO_MOVE, 0);
+            runPass(executor, WEAK_TO_MOVE, 0);
+            //Promotions can reach a mate of any length in the converted table, so never stop before those are covered
+            final int conversionPlies = longestConversion() + 2;
+            int idlePasses = 0;
+            for (int pass = 1; idlePasses < 2 || pass <= conversionPlies; pass++) {
+                if (pass > MAX_PLIES) {
+                    throw new IllegalStateException("Mate too long to store in " + this.signature);
+                }
+                if (runPass(executor, pass % 2 == 1 ? STRONG_TO_MOVE : WEAK_TO_MOVE, pass) == 0) {
+                    idlePasses++;
+                } else {
+                    idlePasses = 0;
+                    this.longestMate = pass;
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return this.longestMate;
+    }
+
+    /**
+     * Writes the table in the format read by EndgameTablebase.
+     *
+     * @param file
+     * @throws IOException
+     */
+    public void write(final File file) throws IOException {
+        final RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+        try {
+            randomAccessFile.setLength(0);
+            final FileChannel channel = randomAccessFile.getChannel();
+            final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(MAGIC).putInt(ENTRIES).flip();
+            channel.write(header);
+            channel.write(ByteBuffer.wrap(this.table));
+        } finally {
+            randomAccessFile.close();
+        }
+    }
+
+    public int count(final boolean wins) {
+        int count = 0;
+        for (final byte entry : this.table) {
+            if (isWin(entry & 0xFF) == wins && (entry & 0xFF) != ILLEGAL) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public int getLongestMate() {
+        return this.longestMate;
+    }
+
+    private int runPass(final ExecutorService executor, final int sideToMove, final int pass) {
+        final int first = index(sideToMove, 0, 0, 0);
+        final int size = ENTRIES / 2;
+        final int chunks = this.threads * CHUNKS_PER_THREAD;
+        final List<Callable<Integer>> tasks = new ArrayList<Callable<Integer>>(chunks);
+        for (int i = 0; i < chunks; i++) {
+            final int from = first + (int) ((long) size * i / chunks);
+            final int to = first + (int) ((long) size * (i + 1) / chunks);
+            tasks.add(new Callable<Integer>() {
+                @Override
+                public Integer call() {
+                    int resolved = 0;
+                    for (int index = from; index < to; index++) {
+                        resolved += resolve(index, sideToMove, pass);
+                    }
+                    return resolved;
+                }
+            });
+        }
+        try {
+            int resolved = 0;
+            for (final Future<Integer> future : executor.invokeAll(tasks)) {
+                resolved += future.get();
+            }
+            return resolved;
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Tablebase generation interrupted", e);
+        } catch (final ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private int resolve(final int index, final int sideToMove, final int pass) {
+        final int piece = index % SQUARES;
+        final int weakKing = (index / SQUARES) % SQUARES;
+        final int strongKing = (index / (SQUARES * SQUARES)) % SQUARES;
+        if (pass == 0) {
+            return initialise(index, sideToMove, strongKing, weakKing, piece);
+        }
+        if (this.table[index] != DRAW) {
+            return 0;
+        }
+        final int plies = sideToMove == STRONG_TO_MOVE ?
+                shortestWin(strongKing, weakKing, piece) :
+                longestDefence(strongKing, weakKing, piece);
+        if (plies < 0 || plies + 1 > pass) {
+            return 0;
+        }
+        this.table[index] = (byte) win(plies + 1);
+        return 1;
+    }
+
+    /**
+     * Marks impossible positions and checkmates, everything else starts as a draw.
+     */
+    private int initialise(final int index,
+                           final int sideToMove,
+                           final int strongKing,
+                           final int weakKing,
+                           final int piece) {
+        if (strongKing == weakKing || strongKing == piece || weakKing == piece ||
+                distance(strongKing, weakKing) <= 1 ||
+                (this.pieceType == PieceType.PAWN && (rank(piece) == 0 || rank(piece) == 7))) {
+            this.table[index] = (byte) ILLEGAL;
+            return 0;
+        }
+        final boolean weakInCheck = attackedByPiece(weakKing, piece, strongKing);
+        if (sideToMove == STRONG_TO_MOVE && weakInCheck) {
+            this.table[index] = (byte) ILLEGAL;
+            return 0;
+        }
+        if (sideToMove == WEAK_TO_MOVE && weakInCheck && !hasWeakMove(strongKing, weakKing, piece)) {
+            this.table[index] = (byte) win(0);
+            return 1;
+        }
+        return 0;
+    }
+
+    /**
+     * Returns the fewest plies to mate after the best strong move, or -1 if no move is known to win yet.
+     */
+    private int shortestWin(final int strongKing, final int weakKing, final int piece) {
+        int best = Integer.MAX_VALUE;
+        for (final int target : KING_STEPS[strongKing]) {
+            if (target != piece && distance(target, weakKing) > 1) {
+                best = Math.min(best, winPlies(this.table[index(WEAK_TO_MOVE, target, weakKing, piece)] & 0xFF));
+            }
+        }
+        if (this.pieceType == PieceType.PAWN) {
+            final int push = piece - 8;
+            if (push != strongKing && push != weakKing) {
+                if (rank(push) == 0) {
+                    final int converted = index(WEAK_TO_MOVE, strongKing, weakKing, push);
+                    best = Math.min(best, winPlies(this.dependencies.entry(EndgameSignature.KQK, converted)));
+                    best = Math.min(best, winPlies(this.dependencies.entry(EndgameSignature.KRK, converted)));
+                } else {
+                    best = Math.min(best, winPlies(this.table[index(WEAK_TO_MOVE, strongKing, weakKing, push)] & 0xFF));
+                    final int jump = push - 8;
+                    if (rank(piece) == 6 && jump != strongKing && jump != weakKing) {
+                        best = Math.min(best, winPlies(this.table[index(WEAK_TO_MOVE, strongKing, weakKing, jump)] & 0xFF));
+                    }
+                }
+            }
+        } else {
+            for (final int[] direction : this.pieceType == PieceType.QUEEN ? QUEEN_DIRECTIONS : ROOK_DIRECTIONS) {
+                int rank = rank(piece) + direction[0];
+                int file = file(piece) + direction[1];
+                while (rank >= 0 && rank < 8 && file >= 0 && file < 8) {
+                    final int target = rank * 8 + file;
+                    if (target == strongKing || target == weakKing) {
+                        break;
+                    }
+                    best = Math.min(best, winPlies(this.table[index(WEAK_TO_MOVE, strongKing, weakKing, target)] & 0xFF));
+                    rank += direction[0];
+                    file += direction[1];
+                }
+            }
+        }
+        return best == Integer.MAX_VALUE ? -1 : best;
+    }
+
+    /**
+     * Returns the most plies to mate the weak king can hold out for, or -1 if some move is not known to lose yet.
+     */
+    private int longestDefence(final int strongKing, final int weakKing, final int piece) {
+        int longest = -1;
+        for (final int target : KING_STEPS[weakKing]) {
+            if (!isWeakMove(strongKing, target, piece)) {
+                continue;
+            }
+            if (target == piece) {
+                //Capturing the piece leaves bare kings
+                return -1;
+            }
+            final int plies = winPlies(this.table[index(STRONG_TO_MOVE, strongKing, target, piece)] & 0xFF);
+            if (plies == Integer.MAX_VALUE) {
+                return -1;
+            }
+            longest = Math.max(longest, plies);
+        }
+        return longest;
+    }
+
+    private boolean hasWeakMove(final int strongKing, final int weakKing, final int piece) {
+        for (final int target : KING_STEPS[weakKing]) {
+            if (isWeakMove(strongKing, target, piece)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * A weak king move is legal if the target is not next to the strong king and not attacked by the piece. Taking
+     * the piece is covered, as a defended piece always stands next to the strong king.
+     */
+    private boolean isWeakMove(final int strongKing, final int target, final int piece) {
+        return target != strongKing && distance(target, strongKing) > 1 &&
+                (target == piece || !attackedByPiece(target, piece, strongKing));
+    }
+
+    /**
+     * Tests whether the piece attacks the square. Only the strong king can block, the weak king never shields a
+     * square it is moving to.
+     */
+    private boolean attackedByPiece(final int square, final int piece, final int strongKing) {
+        final int rankDelta = rank(square) - rank(piece);
+        final int fileDelta = file(square) - file(piece);
+        if (this.pieceType == PieceType.PAWN) {
+            return rankDelta == -1 && Math.abs(fileDelta) == 1;
+        }
+        final boolean straight = rankDelta == 0 || fileDelta == 0;
+        final boolean diagonal = Math.abs(rankDelta) == Math.abs(fileDelta);
+        if (square == piece || !(straight || (diagonal && this.pieceType == PieceType.QUEEN))) {
+            return false;
+        }
+        final int rankStep = Integer.signum(rankDelta);
+        final int fileStep = Integer.signum(fileDelta);
+        int rank = rank(piece) + rankStep;
+        int file = file(piece) + fileStep;
+        while (rank * 8 + file != square) {
+            if (rank * 8 + file == strongKing) {
+                return false;
+            }
+            rank += rankStep;
+            file += fileStep;
+        }
+        return true;
+    }
+
+    private int longestConversion() {
+        if (this.pieceType != PieceType.PAWN) {
+            return 0;
+        }
+        int longest = 0;
+        for (final EndgameSignature converted : new EndgameSignature[]{EndgameSignature.KQK, EndgameSignature.KRK}) {
+            for (int index = index(WEAK_TO_MOVE, 0, 0, 0); index < ENTRIES; index++) {
+                final int entry = this.dependencies.entry(converted, index);
+                if (isWin(entry)) {
+                    longest = Math.max(longest, plies(entry));
+                }
+            }
+        }
+        return longest;
+    }
+
+    private static int winPlies(final int entry) {
+        return isWin(entry) ? plies(entry) : Integer.MAX_VALUE;
+    }
+
+    private static int rank(final int square) {
+        return square / 8;
+    }
+
+    private static int file(final int square) {
+        return square % 8;
+    }
+
+    private static int distance(final int first, final int second) {
+        return Math.max(Math.abs(rank(first) - rank(second)), Math.abs(file(first) - file(second)));
+    }
+
+}
@@ -0,0 +1,700 @@
+package com.chess.engine.tablebase;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * A single memory-mapped Syzygy WDL (.rtbw) or DTZ (.rtbz) file. The header is parsed once when the table is opened
+ * and everything found later is read straight from the mapping, so probes never write shared state and need no
+ * locking.
+ *
+ * Squares and pieces use the Syzygy conventions: a1 is square 0 and h8 square 63, white pieces are coded 1 (pawn)
+ * to 6 (king) in Piece.PieceType order and black pieces the same plus 8.
+ */
+final class SyzygyTable {
+
+    static final int CHANGE_STM = Integer.MIN_VALUE;
+
+    private static final int[] WDL_MAGIC = {0x71, 0xe8, 0x23, 0x5d};
+    private static final int[] DTZ_MAGIC = {0xd7, 0x66, 0x0c, 0xa5};
+
+    private static final int STM = 1;
+    private static final int MAPPED = 2;
+    private static final int WIN_PLIES = 4;
+    private static final int LOSS_PLIES = 8;
+    private static final int WIDE = 16;
+    private static final int SINGLE_VALUE = 128;
+
+    private static final int SPLIT = 1;
+    private static final int HAS_PAWNS = 2;
+
+    static final int PAWN = 1;
+    static final int KING = 6;
+    static final int BLACK = 8;
+
+    private static final int MAX_PIECES = 7;
+
+    private static final int[] MAP_B1H1H7 = new int[64];
+    private static final int[] MAP_A1D1D4 = new int[64];
+    private static final int[][] MAP_KK = new int[10][64];
+    private static final long[][] BINOMIAL = new long[MAX_PIECES][64];
+    private static final int[] MAP_PAWNS = new int[64];
+    private static final int[][] LEAD_PAWN_IDX = new int[MAX_PIECES][64];
+    private static final int[][] LEAD_PAWNS_SIZE = new int[MAX_PIECES][4];
+
+    //WDL values -2..2 index the DTZ value maps in the order they are stored
+    private static final int[] WDL_MAP = {1, 3, 0, 2, 0};
+
+    static {
+        int code = 0;
+        for (int square = 0; square < 64; square++) {
+            if (offA1H8(square) < 0) {
+                MAP_B1H1H7[square] = code++;
+            }
+        }
+        code = 0;
+        final int[] diagonal = new int[4];
+        int diagonalCount = 0;
+        for (int square = 0; square <= 27; square++) {
+            if (offA1H8(square) < 0 && file(square) <= 3) {
+                MAP_A1D1D4[square] = code++;
+            } else if (offA1H8(square) == 0 && file(square) <= 3) {
+                diagonal[diagonalCount++] = square;
+            }
+        }
+        for (int i = 0; i < diagonalCount; i++) {
+            MAP_A1D1D4[diagonal[i]] = code++;
+        }
+        //Two kings with the first in the a1-d1-d4 triangle, the positions with both on the diagonal coded last
+        final int[][] bothOnDiagonal = new int[64][2];
+        int bothOnDiagonalCount = 0;
+        code = 0;
+        for (int index = 0; index < 10; index++) {
+            for (int first = 0; first <= 27; first++) {
+                if (MAP_A1D1D4[first] != index || (index == 0 && first != 1)) {
+                    continue;
+                }
+                for (int second = 0; second < 64; second++) {
+                    if (distance(first, second) <= 1) {
+                        continue;
+                    }
+                    if (offA1H8(first) == 0 && offA1H8(second) > 0) {
+                        continue;
+                    }
+                    if (offA1H8(first) == 0 && offA1H8(second) == 0) {
+                        bothOnDiagonal[bothOnDiagonalCount][0] = index;
+                        bothOnDiagonal[bothOnDiagonalCount++][1] = second;
+                    } else {
+                        MAP_KK[index][second] = code++;
+                    }
+                }
+            }
+        }
+        for (int i = 0; i < bothOnDiagonalCount; i++) {
+            MAP_KK[bothOnDiagonal[i][0]][bothOnDiagonal[i][1]] = code++;
+        }
+        BINOMIAL[0][0] = 1;
+        for (int n = 1; n < 64; n++) {
+            for (int k = 0; k < MAX_PIECES && k <= n; k++) {
+                BINOMIAL[k][n] = (k > 0 ? BINOMIAL[k - 1][n - 1] : 0) + (k < n ? BINOMIAL[k][n - 1] : 0);
+            }
+        }
+        //The leading pawn is the one with the highest value: nearest the edge and then on the lowest rank
+        int availableSquares = 47;
+        for (int leadPawns = 1; leadPawns < MAX_PIECES - 1; leadPawns++) {
+            for (int file = 0; file <= 3; file++) {
+                int index = 0;
+                for (int rank = 1; rank <= 6; rank++) {
+                    final int square = rank * 8 + file;
+                    if (leadPawns == 1) {
+                        MAP_PAWNS[square] = availableSquares--;
+                        MAP_PAWNS[square ^ 7] = availableSquares--;
+                    }
+                    LEAD_PAWN_IDX[leadPawns][square] = index;
+                    index += BINOMIAL[leadPawns - 1][MAP_PAWNS[square]];
+                }
+                LEAD_PAWNS_SIZE[leadPawns][file] = index;
+            }
+        }
+    }
+
+    private final String name;
+    private final boolean dtz;
+    private final int pieceCount;
+    private final boolean hasPawns;
+    private final boolean hasUniquePieces;
+    private final boolean symmetric;
+    private final int[] pawnCount;
+    private final ByteBuffer buffer;
+    private final PairsData[][] items;
+    private int map;
+
+    /**
+     * Constructor for SyzygyTable
+     *
+     * @param name   material in Syzygy notation, e.g. KRvKN
+     * @param dtz    true for a DTZ table, false for WDL
+     * @param buffer the mapped file
+     * @throws IOException if the file does not match its name
+     */
+    SyzygyTable(final String name, final boolean dtz, final ByteBuffer buffer) throws IOException {
+        this.name = name;
+        this.dtz = dtz;
+        this.buffer = buffer.order(ByteOrder.LITTLE_ENDIAN);
+        final String[] sides = name.split("v");
+        if (sides.length != 2 || !sides[0].startsWith("K") || !sides[1].startsWith("K")) {
+            throw new IOException("Invalid table name: " + name);
+        }
+        final int[][] counts = {materialCounts(sides[0]), materialCounts(sides[1])};
+        int pieces = 0;
+        boolean unique = false;
+        for (final int[] side : counts) {
+            for (int type = PAWN; type <= KING; type++) {
+                pieces += side[type];
+                if (type < KING && side[type] == 1) {
+                    unique = true;
+                }
+            }
+        }
+        this.pieceCount = pieces;
+        this.hasPawns = counts[0][PAWN] + counts[1][PAWN] > 0;
+        this.hasUniquePieces = unique;
+        this.symmetric = sides[0].equals(sides[1]);
+        //The side with fewer pawns leads as it compresses better
+        final boolean whiteLeads = counts[1][PAWN] == 0 ||
+                (counts[0][PAWN] > 0 && counts[1][PAWN] >= counts[0][PAWN]);
+        this.pawnCount = new int[]{counts[whiteLeads ? 0 : 1][PAWN], counts[whiteLeads ? 1 : 0][PAWN]};
+        if (pieces > MAX_PIECES) {
+            throw new IOException("Too many pieces: " + name);
+        }
+        final int[] magic = dtz ? DTZ_MAGIC : WDL_MAGIC;
+        for (int i = 0; i < magic.length; i++) {
+            if ((buffer.get(i) & 0xFF) != magic[i]) {
+                throw new IOException("Not a Syzygy table: " + name);
+            }
+        }
+        this.items = new PairsData[dtz ? 1 : 2][this.hasPawns ? 4 : 1];
+        parse(magic.length);
+    }
+
+    String getName() {
+        return this.name;
+    }
+
+    int getPieceCount() {
+        return this.pieceCount;
+    }
+
+    boolean isSymmetric() {
+        return this.symmetric;
+    }
+
+    private static int[] materialCounts(final String side) throws IOException {
+        final int[] counts = new int[KING + 1];
+        for (final char c : side.toCharArray()) {
+            final int type = "PNBRQK".indexOf(c) + 1;
+            if (type == 0) {
+                throw new IOException("Invalid piece in table name: " + side);
+            }
+            counts[type]++;
+        }
+        return counts;
+    }
+
+    private void parse(int data) throws IOException {
+        final int flags = this.buffer.get(data) & 0xFF;
+        if (((flags & HAS_PAWNS) != 0) != this.hasPawns || ((flags & SPLIT) != 0) == this.symmetric) {
+            throw new IOException("Table does not match its name: " + this.name);
+        }
+        data++;
+        final int sides = this.items.length == 2 && !this.symmetric ? 2 : 1;
+        final int maxFile = this.hasPawns ? 3 : 0;
+        final boolean pawnsOnBothSides = this.hasPawns && this.pawnCount[1] > 0;
+        for (int file = 0; file <= maxFile; file++) {
+            for (int i = 0; i < sides; i++) {
+                this.items[i][file] = new PairsData();
+            }
+            final int first = this.buffer.get(data) & 0xFF;
+            final int second = pawnsOnBothSides ? this.buffer.get(data + 1) & 0xFF : 0xFF;
+            final int[][] order = {{first & 0xF, second & 0xF}, {first >>> 4, second >>> 4}};
+            data += pawnsOnBothSides ? 2 : 1;
+            for (int k = 0; k < this.pieceCount; k++, data++) {
+                final int pieces = this.buffer.get(data) & 0xFF;
+                for (int i = 0; i < sides; i++) {
+                    this.items[i][file].pieces[k] = i == 0 ? pieces & 0xF : pieces >>> 4;
+                }
+            }
+            for (int i = 0; i < sides; i++) {
+                setGroups(this.items[i][file], order[i], file);
+            }
+        }
+        data += data & 1;
+        for (int file = 0; file <= maxFile; file++) {
+            for (int i = 0; i < sides; i++) {
+                data = setSizes(this.items[i][file], data);
+            }
+        }
+        if (this.dtz) {
+            data = setDtzMap(data, maxFile);
+        }
+        for (int file = 0; file <= maxFile; file++) {
+            for (int i = 0; i < sides; i++) {
+                this.items[i][file].sparseIndex = data;
+                data += this.items[i][file].sparseIndexSize * 6;
+            }
+        }
+        for (int file = 0; file <= maxFile; file++) {
+            for (int i = 0; i < sides; i++) {
+                this.items[i][file].blockLength = data;
+                data += this.items[i][file].blockLengthSize * 2;
+            }
+        }
+        for (int file = 0; file <= maxFile; file++) {
+            for (int i = 0; i < sides; i++) {
+                data = (data + 0x3F) & ~0x3F;
+                this.items[i][file].data = data;
+                data += this.items[i][file].numBlocks * this.items[i][file].sizeofBlock;
+            }
+        }
+        if (data > this.buffer.capacity()) {
+            throw new IOException("Truncated table: " + this.name);
+        }
+    }
+
+    /**
+     * Works out how the pieces are grouped and the index multiplier of every group, the groups being encoded in
+     * the order stored in the file.
+     */
+    private void setGroups(final PairsData d, final int[] order, final int file) {
+        int n = 0;
+        int firstLength = this.hasPawns ? 0 : this.hasUniquePieces ? 3 : 2;
+        d.groupLength[n] = 1;
+        for (int i = 1; i < this.pieceCount; i++) {
+            if (--firstLength > 0 || d.pieces[i] == d.pieces[i - 1]) {
+                d.groupLength[n]++;
+            } else {
+                d.groupLength[++n] = 1;
+            }
+        }
+        d.groupLength[++n] = 0;
+        final boolean pawnsOnBothSides = this.hasPawns && this.pawnCount[1] > 0;
+        int next = pawnsOnBothSides ? 2 : 1;
+        int freeSquares = 64 - d.groupLength[0] - (pawnsOnBothSides ? d.groupLength[1] : 0);
+        long index = 1;
+        for (int k = 0; next < n || k == order[0] || k == order[1]; k++) {
+            if (k == order[0]) {
+                d.groupIndex[0] = index;
+                index *= this.hasPawns ? LEAD_PAWNS_SIZE[d.groupLength[0]][file] :
+                        this.hasUniquePieces ? 31332 : 462;
+            } else if (k == order[1]) {
+                d.groupIndex[1] = index;
+                index *= BINOMIAL[d.groupLength[1]][48 - d.groupLength[0]];
+            } else {
+                d.groupIndex[next] = index;
+                index *= BINOMIAL[d.groupLength[next]][freeSquares];
+                freeSquares -= d.groupLength[next++];
+            }
+        }
+        d.groupIndex[n] = index;
+    }
+
+    /**
+     * Reads the block layout and the canonical Huffman code of the compressed values.
+     */
+    private int setSizes(final PairsData d, int data) {
+        d.flags = this.buffer.get(data++) & 0xFF;
+        if ((d.flags & SINGLE_VALUE) != 0) {
+            d.minSymbolLength = this.buffer.get(data++) & 0xFF;
+            return data;
+        }
+        int groups = 0;
+        while (d.groupLength[groups] != 0) {
+            groups++;
+        }
+        final long tableSize = d.groupIndex[groups];
+        d.sizeofBlock = 1 << (this.buffer.get(data++) & 0xFF);
+        d.span = 1L << (this.buffer.get(data++) & 0xFF);
+        d.sparseIndexSize = (int) ((tableSize + d.span - 1) / d.span);
+        final int padding = this.buffer.get(data++) & 0xFF;
+        d.numBlocks = this.buffer.getInt(data);
+        data += 4;
+        d.blockLengthSize = d.numBlocks + padding;
+        d.maxSymbolLength = this.buffer.get(data++) & 0xFF;
+        d.minSymbolLength = this.buffer.get(data++) & 0xFF;
+        d.lowestSymbol = data;
+        final int lengths = d.maxSymbolLength - d.minSymbolLength + 1;
+        d.base64 = new long[lengths];
+        //Longer codes have lower values, so base64[i] is the lowest code of length minSymbolLength + i padded to
+        //64 bits and the codes of one length lie between base64[i] and base64[i - 1]
+        for (int i = lengths - 2; i >= 0; i--) {
+            d.base64[i] = (d.base64[i + 1] + unsignedShort(d.lowestSymbol + 2 * i) -
+                    unsignedShort(d.lowestSymbol + 2 * (i + 1))) / 2;
+        }
+        for (int i = 0; i < lengths; i++) {
+            final int shift = 64 - i - d.minSymbolLength;
+            d.base64[i] = shift >= 64 ? 0 : d.base64[i] << shift;
+        }
+        data += lengths * 2;
+        final int symbols = unsignedShort(data);
+        data += 2;
+        d.btree = data;
+        d.symbolLength = new int[symbols];
+        final boolean[] visited = new boolean[symbols];
+        for (int symbol = 0; symbol < symbols; symbol++) {
+            if (!visited[symbol]) {
+                d.symbolLength[symbol] = setSymbolLength(d, symbol, visited);
+            }
+        }
+        return data + symbols * 3 + (symbols & 1);
+    }
+
+    /**
+     * Number of values, less one, a symbol expands into. Symbols are pairs of smaller symbols down to the leaves,
+     * which have 0xFFF as their right half.
+     */
+    private int setSymbolLength(final PairsData d, final int symbol, final boolean[] visited) {
+        visited[symbol] = true;
+        final int right = rightSymbol(d, symbol);
+        if (right == 0xFFF) {
+            return 0;
+        }
+        final int left = leftSymbol(d, symbol);
+        if (!visited[left]) {
+            d.symbolLength[left] = setSymbolLength(d, left, visited);
+        }
+        if (!visited[right]) {
+            d.symbolLength[right] = setSymbolLength(d, right, visited);
+        }
+        return d.symbolLength[left] + d.symbolLength[right] + 1;
+    }
+
+    private int setDtzMap(int data, final int maxFile) {
+        this.map = data;
+        for (int file = 0; file <= maxFile; file++) {
+            final PairsData d = this.items[0][file];
+            if ((d.flags & MAPPED) == 0) {
+                continue;
+            }
+            if ((d.flags & WIDE) != 0) {
+                data += data & 1;
+                for (int i = 0; i < 4; i++) {
+                    d.mapIndex[i] = (data - this.map) / 2 + 1;
+                    data += 2 * unsignedShort(data) + 2;
+                }
+            } else {
+                for (int i = 0; i < 4; i++) {
+                    d.mapIndex[i] = data - this.map + 1;
+                    data += (this.buffer.get(data) & 0xFF) + 1;
+                }
+            }
+        }
+        return data + (data & 1);
+    }
+
+    /**
+     * Looks a position up. The pieces must be listed in ascending square order.
+     *
+     * @param boardPieces   piece codes
+     * @param boardSquares  squares of the pieces
+     * @param size          number of pieces
+     * @param sideToMove    0 for white, 1 for black
+     * @param blackStronger true if black has the material of the first side in the table name
+     * @param wdl           the position's WDL value, used to decode DTZ values
+     * @return the WDL value from -2 to 2, the DTZ value in plies, or CHANGE_STM if a DTZ table only stores the
+     * other side to move
+     */
+    int probe(final int[] boardPieces,
+              final int[] boardSquares,
+              final int size,
+              final int sideToMove,
+              final boolean blackStronger,
+              final int wdl) {
+        //Tables are stored with the first side of the name as white, and symmetric tables for white to move only
+        final boolean flip = (this.symmetric && sideToMove == 1) || blackStronger;
+        final int flipColor = flip ? BLACK : 0;
+        final int flipSquares = flip ? 56 : 0;
+        final int stm = (flip ? 1 : 0) ^ sideToMove;
+        final int[] squares = new int[size];
+        final int[] pieces = new int[size];
+        int count = 0;
+        int leadPawnsCount = 0;
+        int leadPawn = 0;
+        int tableFile = 0;
+        if (this.hasPawns) {
+            leadPawn = this.items[0][0].pieces[0] ^ flipColor;
+            for (int i = 0; i < size; i++) {
+                if (boardPieces[i] == leadPawn) {
+                    squares[count] = boardSquares[i] ^ flipSquares;
+                    pieces[count++] = boardPieces[i] ^ flipColor;
+                }
+            }
+            leadPawnsCount = count;
+            int leading = 0;
+            for (int i = 1; i < leadPawnsCount; i++) {
+                if (MAP_PAWNS[squares[i]] > MAP_PAWNS[squares[leading]]) {
+                    leading = i;
+                }
+            }
+            swap(squares, 0, leading);
+            tableFile = Math.min(file(squares[0]), 7 - file(squares[0]));
+        }
+        if (this.dtz && (this.items[0][tableFile].flags & STM) != stm && !(this.symmetric && !this.hasPawns)) {
+            return CHANGE_STM;
+        }
+        for (int i = 0; i < size; i++) {
+            if (!this.hasPawns || boardPieces[i] != leadPawn) {
+                squares[count] = boardSquares[i] ^ flipSquares;
+                pieces[count++] = boardPieces[i] ^ flipColor;
+            }
+        }
+        final PairsData d = this.items[this.dtz ? 0 : stm][tableFile];
+        //Reorder the pieces into the sequence the table was compressed with
+        for (int i = leadPawnsCount; i < size - 1; i++) {
+            for (int j = i + 1; j < size; j++) {
+                if (d.pieces[i] == pieces[j]) {
+                    swap(pieces, i, j);
+                    swap(squares, i, j);
+                    break;
+                }
+            }
+        }
+        //Mirror so the leading piece is on files a-d
+        if (file(squares[0]) > 3) {
+            for (int i = 0; i < size; i++) {
+                squares[i] ^= 7;
+            }
+        }
+        long index;
+        if (this.hasPawns) {
+            index = LEAD_PAWN_IDX[leadPawnsCount][squares[0]];
+            for (int i = 2; i < leadPawnsCount; i++) {
+                for (int j = i; j > 1 && MAP_PAWNS[squares[j - 1]] > MAP_PAWNS[squares[j]]; j--) {
+                    swap(squares, j - 1, j);
+                }
+            }
+            for (int i = 1; i < leadPawnsCount; i++) {
+                index += BINOMIAL[i][MAP_PAWNS[squares[i]]];
+            }
+        } else {
+            //Without pawns the leading piece is also brought below rank 5 and below the a1-h8 diagonal
+            if (rank(squares[0]) > 3) {
+                for (int i = 0; i < size; i++) {
+                    squares[i] ^= 56;
+                }
+            }
+            for (int i = 0; i < d.groupLength[0]; i++) {
+                if (offA1H8(squares[i]) == 0) {
+                    continue;
+                }
+                if (offA1H8(squares[i]) > 0) {
+                    for (int j = i; j < size; j++) {
+                        squares[j] = ((squares[j] >>> 3) | (squares[j] << 3)) & 63;
+                    }
+                }
+                break;
+            }
+            index = this.hasUniquePieces ? uniquePiecesIndex(squares) : MAP_KK[MAP_A1D1D4[squares[0]]][squares[1]];
+        }
+        index *= d.groupIndex[0];
+        int groupStart = d.groupLength[0];
+        boolean remainingPawns = this.hasPawns && this.pawnCount[1] > 0;
+        int next = 0;
+        while (d.groupLength[++next] != 0) {
+            final int length = d.groupLength[next];
+            for (int i = groupStart + 1; i < groupStart + length; i++) {
+                for (int j = i; j > groupStart && squares[j - 1] > squares[j]; j--) {
+                    swap(squares, j - 1, j);
+                }
+            }
+            long n = 0;
+            //Squares taken by earlier groups are skipped
+            for (int i = 0; i < length; i++) {
+                final int square = squares[groupStart + i];
+                int adjust = 0;
+                for (int j = 0; j < groupStart; j++) {
+                    if (square > squares[j]) {
+                        adjust++;
+                    }
+                }
+                n += BINOMIAL[i + 1][square - adjust - (remainingPawns ? 8 : 0)];
+            }
+            remainingPawns = false;
+            index += n * d.groupIndex[next];
+            groupStart += length;
+        }
+        return mapScore(tableFile, decompressPairs(d, index), wdl);
+    }
+
+    /**
+     * Index of the three leading unique pieces, the first one in the a1-d1-d4 triangle.
+     */
+    static long uniquePiecesIndex(final int[] squares) {
+        final int adjust1 = squares[1] > squares[0] ? 1 : 0;
+        final int adjust2 = (squares[2] > squares[0] ? 1 : 0) + (squares[2] > squares[1] ? 1 : 0);
+        if (offA1H8(squares[0]) != 0) {
+            return (MAP_A1D1D4[squares[0]] * 63L + (squares[1] - adjust1)) * 62 + squares[2] - adjust2;
+        }
+        if (offA1H8(squares[1]) != 0) {
+            return (6 * 63 + rank(squares[0]) * 28 + MAP_B1H1H7[squares[1]]) * 62L + squares[2] - adjust2;
+        }
+        if (offA1H8(squares[2]) != 0) {
+            return 6 * 63 * 62 + 4 * 28 * 62 +
+                    rank(squares[0]) * 7 * 28 +
+                    (rank(squares[1]) - adjust1) * 28 +
+                    MAP_B1H1H7[squares[2]];
+        }
+        return 6 * 63 * 62 + 4 * 28 * 62 + 4 * 7 * 28 +
+                rank(squares[0]) * 7 * 6 +
+                (rank(squares[1]) - adjust1) * 6 +
+                (rank(squares[2]) - adjust2);
+    }
+
+    private int mapScore(final int tableFile, final int value, final int wdl) {
+        if (!this.dtz) {
+            return value - 2;
+        }
+        final PairsData d = this.items[0][tableFile];
+        int result = value;
+        if ((d.flags & MAPPED) != 0) {
+            final int index = d.mapIndex[WDL_MAP[wdl + 2]] + value;
+            result = (d.flags & WIDE) != 0 ?
+                    unsignedShort(this.map + 2 * index) :
+                    this.buffer.get(this.map + index) & 0xFF;
+        }
+        //Values stored in moves are converted to plies
+        if ((wdl == 2 && (d.flags & WIN_PLIES) == 0) ||
+                (wdl == -2 && (d.flags & LOSS_PLIES) == 0) ||
+                wdl == 1 || wdl == -1) {
+            result *= 2;
+        }
+        return result + 1;
+    }
+
+    /**
+     * Finds the value at an index. The values are split in blocks of Huffman coded symbols, each symbol standing
+     * for a run of values built by recursive pairing.
+     */
+    private int decompressPairs(final PairsData d, final long index) {
+        if ((d.flags & SINGLE_VALUE) != 0) {
+            return d.minSymbolLength;
+        }
+        //The sparse index points at the value in the middle of every span, walk the blocks from there
+        final int k = (int) (index / d.span);
+        int block = this.buffer.getInt(d.sparseIndex + 6 * k);
+        int offset = unsignedShort(d.sparseIndex + 6 * k + 4);
+        offset += (int) (index % d.span - d.span / 2);
+        while (offset < 0) {
+            offset += blockLength(d, --block) + 1;
+        }
+        while (offset > blockLength(d, block)) {
+            offset -= blockLength(d, block++) + 1;
+        }
+        int pointer = d.data + block * d.sizeofBlock;
+        long buffer64 = Long.reverseBytes(this.buffer.getLong(pointer));
+        pointer += 8;
+        int buffer64Size = 64;
+        int symbol;
+        while (true) {
+            int length = 0;
+            while (lessUnsigned(buffer64, d.base64[length])) {
+                length++;
+            }
+            symbol = (int) ((buffer64 - d.base64[length]) >>> (64 - length - d.minSymbolLength));
+            symbol += unsignedShort(d.lowestSymbol + 2 * length);
+            if (offset < d.symbolLength[symbol] + 1) {
+                break;
+            }
+            offset -= d.symbolLength[symbol] + 1;
+            length += d.minSymbolLength;
+            buffer64 <<= length;
+            buffer64Size -= length;
+            if (buffer64Size <= 32) {
+                buffer64Size += 32;
+                buffer64 |= (Integer.reverseBytes(this.buffer.getInt(pointer)) & 0xFFFFFFFFL) << (64 - buffer64Size);
+                pointer += 4;
+            }
+        }
+        while (d.symbolLength[symbol] != 0) {
+            final int left = leftSymbol(d, symbol);
+            if (offset < d.symbolLength[left] + 1) {
+                symbol = left;
+            } else {
+                offset -= d.symbolLength[left] + 1;
+                symbol = rightSymbol(d, symbol);
+            }
+        }
+        return leftSymbol(d, symbol);
+    }
+
+    private int blockLength(final PairsData d, final int block) {
+        return unsignedShort(d.blockLength + 2 * block);
+    }
+
+    private int leftSymbol(final PairsData d, final int symbol) {
+        final int base = d.btree + 3 * symbol;
+        return ((this.buffer.get(base + 1) & 0xF) << 8) | (this.buffer.get(base) & 0xFF);
+    }
+
+    private int rightSymbol(final PairsData d, final int symbol) {
+        final int base = d.btree + 3 * symbol;
+        return ((this.buffer.get(base + 2) & 0xFF) << 4) | ((this.buffer.get(base + 1) & 0xFF) >>> 4);
+    }
+
+    private int unsignedShort(final int offset) {
+        return this.buffer.getShort(offset) & 0xFFFF;
+    }
+
+    private static boolean lessUnsigned(final long first, final long second) {
+        return (first + Long.MIN_VALUE) < (second + Long.MIN_VALUE);
+    }
+
+    private static void swap(final int[] values, final int first, final int second) {
+        final int value = values[first];
+        values[first] = values[second];
+        values[second] = value;
+    }
+
+    private static int file(final int square) {
+        return square & 7;
+    }
+
+    private static int rank(final int square) {
+        return square >>> 3;
+    }
+
+    private static int offA1H8(final int square) {
+        return rank(square) - file(square);
+    }
+
+    private static int distance(final int first, final int second) {
+        return Math.max(Math.abs(rank(first) - rank(second)), Math.abs(file(first) - file(second)));
+    }
+
+    /**
+     * Decoding parameters of one side to move and leading pawn file. The int fields are offsets into the mapping.
+     */
+    private static final class PairsData {
+
+        private int flags;
+        private int sizeofBlock;
+        private long span;
+        private int numBlocks;
+        private int maxSymbolLength;
+        private int minSymbolLength;
+        private int lowestSymbol;
+        private int btree;
+        private int blockLength;
+        private int blockLengthSize;
+        private int sparseIndex;
+        private int sparseIndexSize;
+        private int data;
+        private long[] base64;
+        private int[] symbolLength;
+        private final int[] pieces = new int[MAX_PIECES];
+        private final long[] groupIndex = new long[MAX_PIECES + 1];
+        private final int[] groupLength = new int[MAX_PIECES + 1];
+        private final int[] mapIndex = new int[4];
+    }
+
+}
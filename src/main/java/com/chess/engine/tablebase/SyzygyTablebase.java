@@ -0,0 +1,374 @@
+package com.chess.engine.tablebase;
+
+import com.chess.engine.board.Board;
+import com.chess.engine.board.BoardUtils;
+import com.chess.engine.board.Move;
+import com.chess.engine.board.Tile;
+import com.chess.engine.pieces.Piece;
+import com.chess.engine.player.MoveTransition;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Probing of Syzygy WDL and DTZ tablebases from a local directory. Every table in the directory is mapped and its
+ * header parsed when the tablebase is opened; after that probes only read the mappings, so any number of search
+ * threads can probe at once without locks.
+ *
+ * The tables leave out positions where the side to move has a winning capture, so probes look at captures (and
+ * for DTZ pawn moves) before trusting the stored value. Only queen promotions are tried, matching the moves Board
+ * generates. Positions where castling is possible are not covered.
+ */
+public final class SyzygyTablebase {
+
+    public static final int LOSS = -2;
+    public static final int BLESSED_LOSS = -1;
+    public static final int DRAW = 0;
+    public static final int CURSED_WIN = 1;
+    public static final int WIN = 2;
+
+    public static final int FAILED = Integer.MIN_VALUE;
+    //Below the distance-to-mate tables, a WDL win says nothing about how far away the mate is
+    public static final int WIN_SCORE = 4000;
+
+    private static final String WDL_SUFFIX = ".rtbw";
+    private static final String DTZ_SUFFIX = ".rtbz";
+    private static final int MAX_DTZ = 1 << 18;
+
+    private static final int OK = 0;
+    private static final int FAIL = 1;
+    private static final int ZEROING_BEST_MOVE = 2;
+    private static final int CHANGE_STM = 3;
+
+    private final Map<String, SyzygyTable> wdlTables;
+    private final Map<String, SyzygyTable> dtzTables;
+    private final int maxPieces;
+
+    private SyzygyTablebase(final Map<String, SyzygyTable> wdlTables,
+                            final Map<String, SyzygyTable> dtzTables) {
+        this.wdlTables = wdlTables;
+        this.dtzTables = dtzTables;
+        int pieces = 0;
+        for (final SyzygyTable table : wdlTables.values()) {
+            pieces = Math.max(pieces, table.getPieceCount());
+        }
+        this.maxPieces = pieces;
+    }
+
+    /**
+     * Maps every .rtbw and .rtbz file in the directory.
+     *
+     * @param directory
+     * @return
+     * @throws IOException if a file cannot be read or is not a valid table
+     */
+    public static SyzygyTablebase open(final File directory) throws IOException {
+        final Map<String, SyzygyTable> wdlTables = new HashMap<String, SyzygyTable>();
+        final Map<String, SyzygyTable> dtzTables = new HashMap<String, SyzygyTable>();
+        final File[] files = directory.listFiles();
+        if (files != null) {
+            for (final File file : files) {
+                final String fileName = file.getName();
+                if (fileName.endsWith(WDL_SUFFIX)) {
+                    final String name = fileName.substring(0, fileName.length() - WDL_SUFFIX.length());
+                    wdlTables.put(name, new SyzygyTable(name, false, map(file)));
+                } else if (fileName.endsWith(DTZ_SUFFIX)) {
+                    final String name = fileName.substring(0, fileName.length() - DTZ_SUFFIX.length());
+                    dtzTables.put(name, new SyzygyTable(name, true, map(file)));
+                }
+            }
+        }
+        return new SyzygyTablebase(wdlTables, dtzTables);
+    }
+
+    private static MappedByteBuffer map(final File file) throws IOException {
+        final RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+        try {
+            final FileChannel channel = randomAccessFile.getChannel();
+            //Valid tables are 16 bytes past a multiple of 64
+            if (channel.size() % 64 != 16 || channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Corrupt or unsupported table: " + file);
+            }
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } finally {
+            randomAccessFile.close();
+        }
+    }
+
+    public int getMaxPieces() {
+        return this.maxPieces;
+    }
+
+    public boolean isEmpty() {
+        return this.wdlTables.isEmpty();
+    }
+
+    public int size() {
+        return this.wdlTables.size() + this.dtzTables.size();
+    }
+
+    /**
+     * Returns whether the board has few enough pieces to be covered by the tables.
+     *
+     * @param board
+     * @return
+     */
+    public boolean covers(final Board board) {
+        return board.getWhitePieces().size() + board.getBlackPieces().size() <= this.maxPieces;
+    }
+
+    /**
+     * Returns the win/draw/loss value for the player to move, from LOSS to WIN, or FAILED if the position is not
+     * in the tables.
+     *
+     * @param board
+     * @return
+     */
+    public int probeWdl(final Board board) {
+        if (!covers(board)) {
+            return FAILED;
+        }
+        final int[] state = {OK};
+        final int wdl = search(board, false, state);
+        return state[0] == FAIL ? FAILED : wdl;
+    }
+
+    /**
+     * Returns the distance to the next capture or pawn move in plies, positive when the player to move wins,
+     * negative when it loses and 0 for a draw, or FAILED if the position is not in the tables. Wins and losses
+     * spoiled by the fifty move rule are 100 plies further away.
+     *
+     * @param board
+     * @return
+     */
+    public int probeDtz(final Board board) {
+        if (!covers(board)) {
+            return FAILED;
+        }
+        final int[] state = {OK};
+        final int dtz = probeDtz(board, state);
+        return state[0] == FAIL ? FAILED : dtz;
+    }
+
+    /**
+     * Converts a WDL value into a search score relative to the player to move, counting wins found closer to the
+     * root as better.
+     *
+     * @param wdl
+     * @param ply
+     * @return
+     */
+    public static int score(final int wdl, final int ply) {
+        return wdl == WIN ? WIN_SCORE - ply : wdl == LOSS ? -WIN_SCORE + ply : 0;
+    }
+
+    /**
+     * Picks the move that keeps the best outcome: the quickest conversion when winning and the longest resistance
+     * when losing. Returns null if the position or one of its successors is not in the tables.
+     *
+     * @param board
+     * @return
+     */
+    public Move bestMove(final Board board) {
+        if (!covers(board)) {
+            return null;
+        }
+        final int[] state = {OK};
+        Move bestMove = null;
+        int bestRank = Integer.MIN_VALUE;
+        for (final Move move : board.currentPlayer().getLegalMoves()) {
+            final MoveTransition transition = board.currentPlayer().makeMove(move);
+            if (!transition.getMoveStatus().isDone()) {
+                continue;
+            }
+            final Board child = transition.getTransitionBoard();
+            int dtz;
+            if (isZeroing(move)) {
+                dtz = dtzBeforeZeroing(-search(child, false, state));
+            } else {
+                dtz = -probeDtz(child, state);
+                dtz = dtz > 0 ? dtz + 1 : dtz < 0 ? dtz - 1 : 0;
+            }
+            if (state[0] == FAIL) {
+                return null;
+            }
+            if (dtz == 2 && child.currentPlayer().isInCheckMate()) {
+                dtz = 1;
+            }
+            final int rank = dtz > 0 ? 2 * MAX_DTZ - dtz : dtz < 0 ? -2 * MAX_DTZ - dtz : 0;
+            if (rank > bestRank) {
+                bestRank = rank;
+                bestMove = move;
+            }
+        }
+        return bestMove;
+    }
+
+    /**
+     * Combines the stored value with the results of captures, and for DTZ probes also pawn moves. The tables store
+     * arbitrary values where such a move is best, and know nothing of en passant. The state is set to
+     * ZEROING_BEST_MOVE if one of those moves decides the value.
+     */
+    private int search(final Board board, final boolean checkZeroingMoves, final int[] state) {
+        int bestValue = LOSS;
+        int totalCount = 0;
+        int moveCount = 0;
+        for (final Move move : board.currentPlayer().getLegalMoves()) {
+            if (move.isCastlingMove()) {
+                state[0] = FAIL;
+                return DRAW;
+            }
+            final MoveTransition transition = board.currentPlayer().makeMove(move);
+            if (!transition.getMoveStatus().isDone()) {
+                continue;
+            }
+            totalCount++;
+            if (!move.isAttack() && (!checkZeroingMoves ||
+                    move.getMovedPiece().getPieceType() != Piece.PieceType.PAWN)) {
+                continue;
+            }
+            moveCount++;
+            final int value = -search(transition.getTransitionBoard(), false, state);
+            if (state[0] == FAIL) {
+                return DRAW;
+            }
+            if (value > bestValue) {
+                bestValue = value;
+                if (value >= WIN) {
+                    state[0] = ZEROING_BEST_MOVE;
+                    return value;
+                }
+            }
+        }
+        final boolean noMoreMoves = moveCount > 0 && moveCount == totalCount;
+        final int value;
+        if (noMoreMoves) {
+            value = bestValue;
+        } else {
+            value = probeTable(board, false, DRAW, state);
+            if (state[0] == FAIL) {
+                return DRAW;
+            }
+        }
+        if (bestValue >= value) {
+            state[0] = bestValue > DRAW || noMoreMoves ? ZEROING_BEST_MOVE : OK;
+            return bestValue;
+        }
+        state[0] = OK;
+        return value;
+    }
+
+    private int probeDtz(final Board board, final int[] state) {
+        state[0] = OK;
+        final int wdl = search(board, true, state);
+        if (state[0] == FAIL || wdl == DRAW) {
+            return 0;
+        }
+        if (state[0] == ZEROING_BEST_MOVE) {
+            return dtzBeforeZeroing(wdl);
+        }
+        int dtz = probeTable(board, true, wdl, state);
+        if (state[0] == FAIL) {
+            return 0;
+        }
+        if (state[0] != CHANGE_STM) {
+            return (dtz + (wdl == BLESSED_LOSS || wdl == CURSED_WIN ? 100 : 0)) * Integer.signum(wdl);
+        }
+        //The table only stores the other side to move, so take the best of the positions one ply on
+        int minDtz = 0xFFFF;
+        for (final Move move : board.currentPlayer().getLegalMoves()) {
+            final MoveTransition transition = board.currentPlayer().makeMove(move);
+            if (!transition.getMoveStatus().isDone()) {
+                continue;
+            }
+            final Board child = transition.getTransitionBoard();
+            final boolean zeroing = isZeroing(move);
+            dtz = zeroing ? -dtzBeforeZeroing(search(child, false, state)) : -probeDtz(child, state);
+            if (dtz == 1 && child.currentPlayer().isInCheckMate()) {
+                minDtz = 1;
+            }
+            if (!zeroing) {
+                dtz += Integer.signum(dtz);
+            }
+            if (dtz < minDtz && Integer.signum(dtz) == Integer.signum(wdl)) {
+                minDtz = dtz;
+            }
+            if (state[0] == FAIL) {
+                return 0;
+            }
+        }
+        return minDtz == 0xFFFF ? -1 : minDtz;
+    }
+
+    /**
+     * Looks the board up in the table for its material, setting the state to FAIL if there is no such table or
+     * CHANGE_STM if a DTZ table only stores the other side to move.
+     */
+    private int probeTable(final Board board, final boolean dtz, final int wdl, final int[] state) {
+        final int[] pieces = new int[BoardUtils.NUM_TILES];
+        final int[] squares = new int[BoardUtils.NUM_TILES];
+        int size = 0;
+        //Syzygy numbers squares from a1, Board from a8
+        for (int square = 0; square < BoardUtils.NUM_TILES; square++) {
+            final Tile tile = board.getTile(square ^ 56);
+            if (tile.isTileOccupied()) {
+                final Piece piece = tile.getPiece();
+                pieces[size] = piece.getPieceType().ordinal() + 1 +
+                        (piece.getPieceAlliance().isBlack() ? SyzygyTable.BLACK : 0);
+                squares[size++] = square;
+            }
+        }
+        if (size == 2) {
+            return DRAW;
+        }
+        final String whiteMaterial = material(pieces, size, 0);
+        final String blackMaterial = material(pieces, size, SyzygyTable.BLACK);
+        final Map<String, SyzygyTable> tables = dtz ? this.dtzTables : this.wdlTables;
+        boolean blackStronger = false;
+        SyzygyTable table = tables.get(whiteMaterial + "v" + blackMaterial);
+        if (table == null) {
+            table = tables.get(blackMaterial + "v" + whiteMaterial);
+            blackStronger = true;
+        }
+        if (table == null) {
+            state[0] = FAIL;
+            return 0;
+        }
+        final int sideToMove = board.currentPlayer().getAlliance().isWhite() ? 0 : 1;
+        final int value = table.probe(pieces, squares, size, sideToMove, blackStronger, wdl);
+        if (value == SyzygyTable.CHANGE_STM) {
+            state[0] = CHANGE_STM;
+            return 0;
+        }
+        return value;
+    }
+
+    /**
+     * Material of one side in table name order, e.g. KRBP.
+     */
+    private static String material(final int[] pieces, final int size, final int color) {
+        final StringBuilder builder = new StringBuilder();
+        for (int type = SyzygyTable.KING; type >= SyzygyTable.PAWN; type--) {
+            for (int i = 0; i < size; i++) {
+                if (pieces[i] == type + color) {
+                    builder.append("PNBRQK".charAt(type - 1));
+                }
+            }
+        }
+        return builder.toString();
+    }
+
+    private static boolean isZeroing(final Move move) {
+        return move.isAttack() || move.getMovedPiece().getPieceType() == Piece.PieceType.PAWN;
+    }
+
+    private static int dtzBeforeZeroing(final int wdl) {
+        return wdl == WIN ? 1 : wdl == CURSED_WIN ? 101 : wdl == BLESSED_LOSS ? -101 : wdl == LOSS ? -1 : 0;
+    }
+
+}
@@ -2,13 +2,23 @@ package com.chess.gui;
 
 
 import com.chess.engine.board.Board;
+import com.chess.engine.book.PolyglotBook;
+import com.chess.engine.book.PolyglotKeys;
 import com.chess.engine.board.BoardUtils;
 import com.chess.engine.board.Move;
 import com.chess.engine.board.Tile;
 import com.chess.engine.pieces.Piece;
 import com.chess.engine.player.MoveTransition;
-import com.chess.engine.player.ai.MiniMax;
-import com.chess.engine.player.ai.MoveStrategy;
+import com.chess.engine.player.ai.CancellationToken;
+import com.chess.engine.player.ai.EngineSession;
+import com.chess.engine.player.ai.EvaluationWeights;
+import com.chess.engine.player.ai.IterativeDeepening;
+import com.chess.engine.player.ai.SearchResult;
+import com.chess.engine.player.ai.SearchStatistics;
+import com.chess.engine.player.ai.TaperedBoardEvaluator;
+import com.chess.engine.tablebase.EndgameTablebase;
+import com.chess.engine.tablebase.SyzygyTablebase;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
 import javax.imageio.ImageIO;
 import javax.swing.*;
@@ -43,14 +53,27 @@ public class Table extends Observable {
     private BoardDirection boardDirection;
 
     private Move computerMove;
+    private AIThinkTank thinkTank;
+    private AIThinkTank cancelledThinkTank;
+    private EngineSession engineSession;
+    private final EndgameTablebase tablebase;
+    private final SyzygyTablebase syzygyTablebase;
+    private final PolyglotBook openingBook;
+    private final EvaluationWeights evaluationWeights;
 
     private boolean highlightLegalMoves;
+    private boolean ponderingEnabled;
 
     private final static Dimension OUTER_FRAME_DIMENSION = new Dimension(600, 600);
     private final static Dimension BOARD_PANEL_DIMENSION = new Dimension(400, 350);
     private final static Dimension TILE_PANEL_DIMENSION = new Dimension(10, 10);
 
     private static String defaultPieceImagesPath = "art/fancy/";
+    private static final String TABLEBASE_PATH = System.getProperty("jchess.tablebases", "tablebases");
+    private static final String SYZYGY_PATH = System.getProperty("jchess.syzygy", "syzygy");
+    private static final String BOOK_PATH = System.getProperty("jchess.book", "book.bin");
+    private static final String BOOK_KEYS_PATH = System.getProperty("jchess.book.keys", "random64.txt");
+    private static final String WEIGHTS_PATH = System.getProperty("jchess.weights", "weights.properties");
     private final Color lightTileColour = Color.decode("#FFFACD");
     private final Color darkTileColour = Color.decode("#593E1A");
 
@@ -74,6 +97,12 @@ public class Table extends Observable {
         this.gameSetup = new GameSetup(this.gameFrame, true);
         this.boardDirection = BoardDirection.NORMAL;
         this.highlightLegalMoves = false;
+        this.ponderingEnabled = false;
+        this.evaluationWeights = loadEvaluationWeights();
+        this.engineSession = createEngineSession();
+        this.tablebase = loadTablebase();
+        this.syzygyTablebase = loadSyzygyTablebase();
+        this.openingBook = loadOpeningBook();
         this.gameFrame.add(this.takenPiecesPanel, BorderLayout.WEST);
         this.gameFrame.add(this.boardPanel, BorderLayout.CENTER);
         this.gameFrame.add(this.gameHistoryPanel, BorderLayout.EAST);
@@ -84,6 +113,84 @@ public class Table extends Observable {
         return INSTANCE;
     }
 
+    /**
+     * Reads the tapered evaluation weights from the configured file, falling back to the defaults.
+     */
+    private static EvaluationWeights loadEvaluationWeights() {
+        final File file = new File(WEIGHTS_PATH);
+        if (!file.isFile()) {
+            return EvaluationWeights.defaults();
+        }
+        try {
+            final EvaluationWeights weights = EvaluationWeights.load(file);
+            System.out.println("Evaluation weights " + file);
+            return weights;
+        } catch (final IOException e) {
+            e.printStackTrace();
+            return EvaluationWeights.defaults();
+        }
+    }
+
+    private EngineSession createEngineSession() {
+        return new EngineSession(new TaperedBoardEvaluator(this.evaluationWeights));
+    }
+
+    /**
+     * Maps the endgame tablebases written by GenerateTablebases, or returns null if there are none.
+     */
+    private static EndgameTablebase loadTablebase() {
+        final File directory = new File(TABLEBASE_PATH);
+        if (!directory.isDirectory()) {
+            return null;
+        }
+        try {
+            final EndgameTablebase tablebase = EndgameTablebase.open(directory);
+            System.out.println("Tablebases " + tablebase.getSignatures());
+            return tablebase.isEmpty() ? null : tablebase;
+        } catch (final IOException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    /**
+     * Maps the Syzygy tables in the configured directory, or returns null if there are none.
+     */
+    private static SyzygyTablebase loadSyzygyTablebase() {
+        final File directory = new File(SYZYGY_PATH);
+        if (!directory.isDirectory()) {
+            return null;
+        }
+        try {
+            final SyzygyTablebase syzygyTablebase = SyzygyTablebase.open(directory);
+            System.out.println("Syzygy tables " + syzygyTablebase.size() + " up to " +
+                    syzygyTablebase.getMaxPieces() + " pieces");
+            return syzygyTablebase.isEmpty() ? null : syzygyTablebase;
+        } catch (final IOException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    /**
+     * Maps the configured Polyglot book, or returns null if the book or its Random64 keys are missing.
+     */
+    private static PolyglotBook loadOpeningBook() {
+        final File bookFile = new File(BOOK_PATH);
+        final File keysFile = new File(BOOK_KEYS_PATH);
+        if (!bookFile.isFile() || !keysFile.isFile()) {
+            return null;
+        }
+        try {
+            final PolyglotBook openingBook = PolyglotBook.open(bookFile, PolyglotKeys.load(keysFile));
+            System.out.println("Opening book " + openingBook.size() + " entries");
+            return openingBook;
+        } catch (final IOException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
     public void show(){
         Table.get().getMoveLog().clear();
         Table.get().getGameHistoryPanel().redo(chessBoard, Table.get().getMoveLog());
@@ -123,9 +230,17 @@ public class Table extends Observable {
 
     private JMenu createFileMenu() {
         final JMenu fileMenu = new JMenu("File");
+        final JMenuItem newGameMenuItem = new JMenuItem("New Game");
+        newGameMenuItem.addActionListener(new ActionListener() {
+            public void actionPerformed(ActionEvent e) {
+                Table.get().newGame();
+            }
+        });
+        fileMenu.add(newGameMenuItem);
         final JMenuItem exitMenuItem = new JMenuItem("Exit");
         exitMenuItem.addActionListener(new ActionListener() {
             public void actionPerformed(ActionEvent e) {
+                Table.get().cancelSearch();
                 System.exit(0);
             }
         });
@@ -159,6 +274,17 @@ public class Table extends Observable {
         });
 
         preferencesMenu.add(legalMoveHighlighterCheckbox);
+        final JCheckBoxMenuItem ponderingCheckbox = new JCheckBoxMenuItem("Ponder On Opponent's Time", false);
+        ponderingCheckbox.addActionListener(new ActionListener() {
+            public void actionPerformed(ActionEvent e) {
+                ponderingEnabled = ponderingCheckbox.isSelected();
+                if (!ponderingEnabled && thinkTank != null && thinkTank.pondering) {
+                    cancelSearch();
+                }
+            }
+        });
+
+        preferencesMenu.add(ponderingCheckbox);
         return preferencesMenu;
     }
 
@@ -169,6 +295,7 @@ public class Table extends Observable {
         setupGameMenuItem.addActionListener(new ActionListener() {
             @Override
             public void actionPerformed(ActionEvent e) {
+                Table.get().cancelSearch();
                 Table.get().getGameSetup().promptUser();
                 Table.get().setupUpdate(Table.get().getGameSetup());
             }
@@ -179,6 +306,33 @@ public class Table extends Observable {
 
     }
 
+    /**
+     * Stops the engine search in progress, if any. Its move is discarded, and the next search waits for it to wind
+     * down before using the engine session.
+     */
+    private void cancelSearch() {
+        if (this.thinkTank != null) {
+            this.thinkTank.cancelSearch();
+            this.cancelledThinkTank = this.thinkTank;
+            this.thinkTank = null;
+        }
+    }
+
+    /**
+     * Cancels any running search and resets the board to the starting position.
+     */
+    private void newGame() {
+        cancelSearch();
+        this.engineSession = createEngineSession();
+        this.chessBoard = Board.createStandardBoard();
+        this.computerMove = null;
+        this.sourceTile = null;
+        this.destinationTile = null;
+        this.humanMovedPiece = null;
+        show();
+        setupUpdate(this.gameSetup);
+    }
+
     private void setupUpdate(final GameSetup gameSetup) {
         setChanged();
         notifyObservers(gameSetup);
@@ -192,10 +346,20 @@ public class Table extends Observable {
             if (Table.get().getGameSetup().isAIPlayer(Table.get().getGameBoard().currentPlayer()) &&
                     !Table.get().getGameBoard().currentPlayer().isInCheckMate() &&
                     !Table.get().getGameBoard().currentPlayer().isInStaleMate()) {
-                //create AI Thread
-                //execute AI work
-                final AIThinkTank thinkTank = new AIThinkTank();
-                thinkTank.execute();
+                final AIThinkTank ponderingThinkTank = Table.get().thinkTank;
+                if (ponderingThinkTank != null && ponderingThinkTank.isPonderHit(Table.get().getGameBoard())) {
+                    //the human played the predicted reply, so the pondering search becomes the real one
+                    ponderingThinkTank.ponderHit();
+                } else {
+                    //create AI Thread
+                    //execute AI work
+                    Table.get().cancelSearch();
+                    final AIThinkTank thinkTank = new AIThinkTank(Table.get().getGameBoard(), false);
+                    Table.get().thinkTank = thinkTank;
+                    thinkTank.execute();
+                }
+            } else {
+                Table.get().cancelSearch();
             }
             if (Table.get().getGameBoard().currentPlayer().isInCheckMate()) {
                 System.out.println("Game Over, " + Table.get().getGameBoard().currentPlayer() + "is in checkmate");
@@ -206,31 +370,134 @@ public class Table extends Observable {
         }
     }
 
-    private static class AIThinkTank extends SwingWorker<Move, String> {
-        private AIThinkTank() {
+    /**
+     * Starts searching the position after the human reply predicted by the engine's principal variation, so the
+     * work is already under way when the human plays it.
+     *
+     * @param searchResult result of the engine move just played
+     */
+    private void startPondering(final SearchResult searchResult) {
+        if (!this.ponderingEnabled || this.thinkTank != null ||
+                searchResult.getPrincipalVariation().size() < 2 ||
+                this.gameSetup.isAIPlayer(this.chessBoard.currentPlayer())) {
+            return;
+        }
+        final Move predictedMove = searchResult.getPrincipalVariation().get(1);
+        final MoveTransition transition = this.chessBoard.currentPlayer().makeMove(predictedMove);
+        if (!transition.getMoveStatus().isDone()) {
+            return;
+        }
+        this.thinkTank = new AIThinkTank(transition.getTransitionBoard(), true);
+        this.thinkTank.execute();
+    }
+
+    private static class AIThinkTank extends SwingWorker<SearchResult, String> {
+
+        private final Board board;
+        private final EngineSession engineSession;
+        private final CancellationToken cancellationToken;
+        private AIThinkTank cancelledThinkTank;
+        private boolean pondering;
+        //Both only touched on the event dispatch thread
+        private boolean searchFinished;
+        private boolean moveDelivered;
+
+        /**
+         * Constructor for AIThinkTank
+         *
+         * @param board     position to search
+         * @param pondering true if the board is a predicted position whose move is held back until a ponder hit
+         */
+        private AIThinkTank(final Board board, final boolean pondering) {
+            this.board = board;
+            this.engineSession = Table.get().engineSession;
+            this.cancellationToken = new CancellationToken();
+            this.cancelledThinkTank = Table.get().cancelledThinkTank;
+            this.pondering = pondering;
+        }
+
+        private void cancelSearch() {
+            this.cancellationToken.cancel();
+        }
 
+        private boolean isPonderHit(final Board gameBoard) {
+            return this.pondering && gameBoard.getZobristKey() == this.board.getZobristKey();
+        }
+
+        /**
+         * Turns the pondering search into the engine's move. If done has already run while the search was still
+         * pondering, the move is played straight away; otherwise done plays it once it runs. isDone is not used
+         * here because it turns true on the worker thread before done is queued on the event dispatch thread.
+         */
+        private void ponderHit() {
+            this.pondering = false;
+            if (this.searchFinished) {
+                playMove();
+            }
         }
 
         @Override
-        protected Move doInBackground() throws Exception {
-            final MoveStrategy miniMax = new MiniMax(4);
-            final Move bestMove = miniMax.execute(Table.get().getGameBoard());
+        protected SearchResult doInBackground() throws Exception {
+            //A cancelled search only stops at its next checkpoint, and until then it still writes to the history
+            //table, the evaluation caches and the last result of the shared engine session
+            if (this.cancelledThinkTank != null) {
+                this.cancelledThinkTank.awaitSearch();
+                this.cancelledThinkTank = null;
+            }
+            final PolyglotBook openingBook = Table.get().openingBook;
+            final Move bookMove = openingBook != null ? openingBook.pickMove(this.board) : null;
+            if (bookMove != null) {
+                System.out.println("Book move " + bookMove);
+                return new SearchResult(bookMove, 0, 0, ImmutableList.of(bookMove), new SearchStatistics());
+            }
+            final IterativeDeepening strategy = new IterativeDeepening(4, this.engineSession);
+            strategy.setTablebase(Table.get().tablebase);
+            strategy.setSyzygyTablebase(Table.get().syzygyTablebase);
+            return strategy.search(this.board, this.cancellationToken);
+        }
 
-            return bestMove;
+        /**
+         * Blocks until doInBackground has returned, whatever its outcome.
+         */
+        private void awaitSearch() throws InterruptedException {
+            try {
+                get();
+            } catch (final ExecutionException e) {
+                //the search failed, which the worker waiting for it need not know about
+            }
         }
 
         @Override
         public void done() {
+            this.searchFinished = true;
+            if (!this.pondering) {
+                playMove();
+            }
+        }
+
+        private void playMove() {
+            if (this.cancellationToken.isCancelled() || this.moveDelivered || Table.get().thinkTank != this) {
+                return;
+            }
+            this.moveDelivered = true;
+            Table.get().thinkTank = null;
             try {
-                final Move bestMove = get();
+                final SearchResult searchResult = get();
+                final Move bestMove = searchResult.getBestMove();
+                final MoveTransition transition = Table.get().getGameBoard().currentPlayer().makeMove(bestMove);
+                if (!transition.getMoveStatus().isDone()) {
+                    System.out.println("Discarding illegal engine move " + bestMove);
+                    return;
+                }
 
                 Table.get().updateComputerMove(bestMove);
-                Table.get().updateGameBoard(Table.get().getGameBoard().currentPlayer().makeMove(bestMove).getTransitionBoard());
+                Table.get().updateGameBoard(transition.getTransitionBoard());
                 Table.get().getMoveLog().addMove(bestMove);
                 Table.get().getGameHistoryPanel().redo(Table.get().getGameBoard(), Table.get().getMoveLog());
                 Table.get().getTakenPiecesPanel().redo(Table.get().getMoveLog());
                 Table.get().getBoardPanel().drawBoard(Table.get().getGameBoard());
                 Table.get().moveMadeUpdate(PlayerType.COMPUTER);
+                Table.get().startPondering(searchResult);
 
 
             } catch (InterruptedException e) {
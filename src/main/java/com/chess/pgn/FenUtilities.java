@@ -0,0 +1,171 @@
+package com.chess.pgn;
+
+import com.chess.engine.Alliance;
+import com.chess.engine.board.Board;
+import com.chess.engine.board.BoardUtils;
+import com.chess.engine.pieces.*;
+
+public class FenUtilities {
+
+    /**
+     * Constructor for FenUtilities throwing error.
+     */
+    private FenUtilities() {
+        throw new RuntimeException("Not Instantiable!");
+    }
+
+    /**
+     * Creates a board from a FEN string. Castling rights are represented by leaving the king and the relevant rooks
+     * on their first move; the move counters are ignored as Board does not track them.
+     *
+     * @param fenString
+     * @return
+     */
+    public static Board createGameFromFEN(final String fenString) {
+        final String[] fenPartitions = fenString.trim().split("\\s+");
+        if (fenPartitions.length < 2) {
+            throw new IllegalArgumentException("Invalid FEN: " + fenString);
+        }
+        final String castlingRights = fenPartitions.length > 2 ? fenPartitions[2] : "-";
+        final Board.Builder builder = new Board.Builder();
+        int tile = 0;
+        for (final char c : fenPartitions[0].toCharArray()) {
+            if (c == '/') {
+                continue;
+            }
+            if (Character.isDigit(c)) {
+                tile += c - '0';
+                continue;
+            }
+            if (!BoardUtils.isValidTileCoordinate(tile)) {
+                throw new IllegalArgumentException("Invalid FEN: " + fenString);
+            }
+            builder.setPiece(createPiece(c, tile, castlingRights));
+            tile++;
+        }
+        if (tile != BoardUtils.NUM_TILES) {
+            throw new IllegalArgumentException("Invalid FEN: " + fenString);
+        }
+        final Alliance moveMaker = moveMaker(fenPartitions[1]);
+        builder.setMoveMaker(moveMaker);
+        if (fenPartitions.length > 3 && !fenPartitions[3].equals("-")) {
+            //The pawn that just jumped stands one rank beyond the en passant target square
+            final int target = BoardUtils.getCoordinateAtPosition(fenPartitions[3]);
+            final int pawnPosition = target + (moveMaker.isWhite() ? BoardUtils.NUM_TILES_PER_ROW : -BoardUtils.NUM_TILES_PER_ROW);
+            if (BoardUtils.isValidTileCoordinate(pawnPosition)) {
+                builder.setEnPassantPawn(new Pawn(moveMaker.isWhite() ? Alliance.BLACK : Alliance.WHITE, pawnPosition, false));
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Creates a FEN string for the board. Castling rights are taken from kings and rooks still on their first move
+     * and the move counters are written as 0 1.
+     *
+     * @param board
+     * @return
+     */
+    public static String createFENFromGame(final Board board) {
+        final StringBuilder builder = new StringBuilder();
+        for (int rank = 0; rank < BoardUtils.NUM_TILES_PER_ROW; rank++) {
+            int empty = 0;
+            for (int file = 0; file < BoardUtils.NUM_TILES_PER_ROW; file++) {
+                final int tile = rank * BoardUtils.NUM_TILES_PER_ROW + file;
+                final Piece piece = board.getTile(tile).getPiece();
+                if (piece == null) {
+                    empty++;
+                    continue;
+                }
+                if (empty > 0) {
+                    builder.append(empty);
+                    empty = 0;
+                }
+                builder.append(board.getTile(tile).toString());
+            }
+            if (empty > 0) {
+                builder.append(empty);
+            }
+            if (rank < BoardUtils.NUM_TILES_PER_ROW - 1) {
+                builder.append('/');
+            }
+        }
+        builder.append(board.currentPlayer().getAlliance().isWhite() ? " w " : " b ");
+        builder.append(castlingRights(board));
+        builder.append(' ');
+        final Pawn enPassantPawn = board.getEnPassantPawn();
+        if (enPassantPawn != null) {
+            builder.append(BoardUtils.getPositionAtCoordinate(enPassantPawn.getPiecePosition() -
+                    BoardUtils.NUM_TILES_PER_ROW * enPassantPawn.getPieceAlliance().getDirection()));
+        } else {
+            builder.append('-');
+        }
+        builder.append(" 0 1");
+        return builder.toString();
+    }
+
+    private static String castlingRights(final Board board) {
+        final StringBuilder builder = new StringBuilder();
+        if (hasCastlingRight(board, 60, 63)) {
+            builder.append('K');
+        }
+        if (hasCastlingRight(board, 60, 56)) {
+            builder.append('Q');
+        }
+        if (hasCastlingRight(board, 4, 7)) {
+            builder.append('k');
+        }
+        if (hasCastlingRight(board, 4, 0)) {
+            builder.append('q');
+        }
+        return builder.length() == 0 ? "-" : builder.toString();
+    }
+
+    private static boolean hasCastlingRight(final Board board, final int kingTile, final int rookTile) {
+        final Piece king = board.getTile(kingTile).getPiece();
+        final Piece rook = board.getTile(rookTile).getPiece();
+        return king != null && king.getPieceType().isKing() && king.isFirstMove() &&
+                rook != null && rook.getPieceType().isRook() && rook.isFirstMove() &&
+                rook.getPieceAlliance() == king.getPieceAlliance();
+    }
+
+    private static Alliance moveMaker(final String moveMakerString) {
+        if (moveMakerString.equals("w")) {
+            return Alliance.WHITE;
+        } else if (moveMakerString.equals("b")) {
+            return Alliance.BLACK;
+        }
+        throw new IllegalArgumentException("Invalid FEN side to move: " + moveMakerString);
+    }
+
+    private static Piece createPiece(final char c, final int tile, final String castlingRights) {
+        final Alliance alliance = Character.isUpperCase(c) ? Alliance.WHITE : Alliance.BLACK;
+        switch (Character.toLowerCase(c)) {
+            case 'p':
+                return new Pawn(alliance, tile, alliance.isWhite() ? BoardUtils.SECOND_RANK[tile] : BoardUtils.SEVENTH_RANK[tile]);
+            case 'n':
+                return new Knight(alliance, tile, false);
+            case 'b':
+                return new Bishop(alliance, tile, false);
+            case 'q':
+                return new Queen(alliance, tile, false);
+            case 'k':
+                final boolean canCastle = alliance.isWhite() ?
+                        castlingRights.contains("K") || castlingRights.contains("Q") :
+                        castlingRights.contains("k") || castlingRights.contains("q");
+                return new King(alliance, tile, canCastle);
+            case 'r':
+                return new Rook(alliance, tile, isCastlingRook(alliance, tile, castlingRights));
+            default:
+                throw new IllegalArgumentException("Invalid FEN piece: " + c);
+        }
+    }
+
+    private static boolean isCastlingRook(final Alliance alliance, final int tile, final String castlingRights) {
+        if (alliance.isWhite()) {
+            return (tile == 63 && castlingRights.contains("K")) || (tile == 56 && castlingRights.contains("Q"));
+        }
+        return (tile == 7 && castlingRights.contains("k")) || (tile == 0 && castlingRights.contains("q"));
+    }
+
+}
@@ -0,0 +1,142 @@
+package com.chess.pgn;
+
+import com.google.common.collect.ImmutableMap;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads games one at a time from a PGN stream, so files of any size can be processed in constant memory. Only the
+ * tag pairs are parsed here; the movetext is kept as raw text and tokenized on demand by the caller, which lets the
+ * expensive part run on whichever thread replays the game.
+ */
+public final class PgnReader implements Closeable {
+
+    private final BufferedReader reader;
+    private String pendingLine;
+
+    public PgnReader(final Reader reader) {
+        this.reader = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader);
+    }
+
+    /**
+     * Reads the next game.
+     *
+     * @return the game, or null at the end of the stream
+     * @throws IOException
+     */
+    public PgnGame next() throws IOException {
+        final Map<String, String> tags = new LinkedHashMap<String, String>();
+        final StringBuilder movetext = new StringBuilder();
+        String line;
+        while ((line = nextLine()) != null) {
+            line = line.trim();
+            final int restOfLineComment = line.indexOf(';');
+            if (restOfLineComment >= 0 && !line.startsWith("[") && line.lastIndexOf('{', restOfLineComment) < 0) {
+                line = line.substring(0, restOfLineComment).trim();
+                if (line.isEmpty()) {
+                    continue;
+                }
+            }
+            if (line.startsWith("[")) {
+                if (movetext.length() > 0) {
+                    //A tag after movetext starts the next game
+                    this.pendingLine = line;
+                    break;
+                }
+                parseTag(line, tags);
+            } else if (line.isEmpty()) {
+                if (movetext.length() > 0) {
+                    break;
+                }
+            } else if (!line.startsWith("%")) {
+                movetext.append(line).append(' ');
+            }
+        }
+        if (tags.isEmpty() && movetext.length() == 0) {
+            return null;
+        }
+        return new PgnGame(tags, movetext.toString());
+    }
+
+    private String nextLine() throws IOException {
+        if (this.pendingLine != null) {
+            final String line = this.pendingLine;
+            this.pendingLine = null;
+            return line;
+        }
+        return this.reader.readLine();
+    }
+
+    private static void parseTag(final String line, final Map<String, String> tags) {
+        final int space = line.indexOf(' ');
+        final int firstQuote = line.indexOf('"');
+        final int lastQuote = line.lastIndexOf('"');
+        if (space > 1 && firstQuote > space && lastQuote > firstQuote) {
+            tags.put(line.substring(1, space), line.substring(firstQuote + 1, lastQuote));
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.reader.close();
+    }
+
+    /**
+     * A single game as read from the stream.
+     */
+    public static final class PgnGame {
+
+        private final Map<String, String> tags;
+        private final String movetext;
+
+        PgnGame(final Map<String, String> tags, final String movetext) {
+            this.tags = ImmutableMap.copyOf(tags);
+            this.movetext = movetext;
+        }
+
+        public Map<String, String> getTags() {
+            return this.tags;
+        }
+
+        /**
+         * Returns the game result, "1-0", "0-1", "1/2-1/2" or "*", preferring the Result tag over the termination
+         * marker in the movetext.
+         *
+         * @return
+         */
+        public String getResult() {
+            final String result = this.tags.get("Result");
+            if (result != null) {
+                return result;
+            }
+            final String[] tokens = this.movetext.trim().split("\\s+");
+            return tokens[tokens.length - 1];
+        }
+
+        /**
+         * Returns the FEN of the starting position if the game does not start from the standard position.
+         *
+         * @return
+         */
+        public String getStartingFen() {
+            return this.tags.get("FEN");
+        }
+
+        /**
+         * Returns the SAN moves of the main line with comments, variations, annotations and move numbers removed.
+         *
+         * @return
+         */
+        public List<String> getMoves() {
+            return PgnUtilities.tokenizeMovetext(this.movetext);
+        }
+
+    }
+
+}
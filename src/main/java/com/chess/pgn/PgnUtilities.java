@@ -0,0 +1,159 @@
+package com.chess.pgn;
+
+import com.chess.engine.board.Board;
+import com.chess.engine.board.BoardUtils;
+import com.chess.engine.board.Move;
+import com.chess.engine.pieces.Piece;
+import com.google.common.collect.ImmutableList;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class PgnUtilities {
+
+    /**
+     * Constructor for PgnUtilities throwing error.
+     */
+    private PgnUtilities() {
+        throw new RuntimeException("Not Instantiable!");
+    }
+
+    /**
+     * Splits PGN movetext into its main-line SAN moves. Brace comments, variations, numeric annotation glyphs, move
+     * numbers and the game termination marker are dropped.
+     *
+     * @param movetext
+     * @return
+     */
+    public static List<String> tokenizeMovetext(final String movetext) {
+        final List<String> moves = new ArrayList<String>();
+        final StringBuilder token = new StringBuilder();
+        int variationDepth = 0;
+        boolean inComment = false;
+        for (int i = 0; i <= movetext.length(); i++) {
+            final char c = i < movetext.length() ? movetext.charAt(i) : ' ';
+            if (inComment) {
+                inComment = c != '}';
+                continue;
+            }
+            if (c == '{' || c == '(' || c == ')' || Character.isWhitespace(c)) {
+                if (variationDepth == 0) {
+                    addToken(token.toString(), moves);
+                }
+                token.setLength(0);
+                if (c == '{') {
+                    inComment = true;
+                } else if (c == '(') {
+                    variationDepth++;
+                } else if (c == ')') {
+                    variationDepth = Math.max(0, variationDepth - 1);
+                }
+            } else {
+                token.append(c);
+            }
+        }
+        return ImmutableList.copyOf(moves);
+    }
+
+    private static void addToken(final String token, final List<String> moves) {
+        String move = token;
+        final int dot = move.lastIndexOf('.');
+        if (dot >= 0) {
+            move = move.substring(dot + 1);
+        }
+        if (move.isEmpty() || move.startsWith("$") || move.equals("*") ||
+                (Character.isDigit(move.charAt(0)) && !move.startsWith("0-0"))) {
+            return;
+        }
+        moves.add(move);
+    }
+
+    /**
+     * Finds the legal move described by a SAN string such as "Nbd7", "exd5", "e8=Q+" or "O-O".
+     *
+     * @param board
+     * @param san
+     * @return the move, or null if no legal move matches or the move promotes to anything but a queen
+     */
+    public static Move createMove(final Board board, final String san) {
+        String text = san.replaceAll("[+#!?]", "");
+        if (text.equals("O-O") || text.equals("0-0") || text.equals("O-O-O") || text.equals("0-0-0")) {
+            final boolean kingSide = text.length() == 3;
+            for (final Move move : board.currentPlayer().getLegalMoves()) {
+                if (move.isCastlingMove() &&
+                        (move.getDestinationCoordinate() > move.getCurrentCoordinate()) == kingSide) {
+                    return legalOrNull(board, move);
+                }
+            }
+            return null;
+        }
+        final int promotion = text.indexOf('=');
+        String promotionPiece = null;
+        if (promotion >= 0) {
+            promotionPiece = text.substring(promotion + 1);
+            text = text.substring(0, promotion);
+        } else if (text.length() > 2 && "QRBN".indexOf(text.charAt(text.length() - 1)) >= 0) {
+            promotionPiece = text.substring(text.length() - 1);
+            text = text.substring(0, text.length() - 1);
+        }
+        //Board only generates queen promotions, so an underpromotion must not be matched to one
+        if (promotionPiece != null && !promotionPiece.equals("Q")) {
+            return null;
+        }
+        if (text.length() < 2) {
+            return null;
+        }
+        final Integer destination = BoardUtils.POSITION_TO_COORDINATE.get(text.substring(text.length() - 2));
+        if (destination == null) {
+            return null;
+        }
+        final Piece.PieceType pieceType = pieceType(text.charAt(0));
+        final String disambiguation = text.substring(pieceType == Piece.PieceType.PAWN ? 0 : 1, text.length() - 2)
+                .replace("x", "");
+        Move match = null;
+        for (final Move move : board.currentPlayer().getLegalMoves()) {
+            if (move.getDestinationCoordinate() == destination && !move.isCastlingMove() &&
+                    move.getMovedPiece().getPieceType() == pieceType &&
+                    matchesDisambiguation(move.getCurrentCoordinate(), disambiguation) &&
+                    board.currentPlayer().makeMove(move).getMoveStatus().isDone()) {
+                if (match != null) {
+                    return null;
+                }
+                match = move;
+            }
+        }
+        return match;
+    }
+
+    private static Move legalOrNull(final Board board, final Move move) {
+        return board.currentPlayer().makeMove(move).getMoveStatus().isDone() ? move : null;
+    }
+
+    private static Piece.PieceType pieceType(final char c) {
+        switch (c) {
+            case 'N':
+                return Piece.PieceType.KNIGHT;
+            case 'B':
+                return Piece.PieceType.BISHOP;
+            case 'R':
+                return Piece.PieceType.ROOK;
+            case 'Q':
+                return Piece.PieceType.QUEEN;
+            case 'K':
+                return Piece.PieceType.KING;
+            default:
+                return Piece.PieceType.PAWN;
+        }
+    }
+
+    private static boolean matchesDisambiguation(final int source, final String disambiguation) {
+        final String square = BoardUtils.getPositionAtCoordinate(source);
+        for (final char c : disambiguation.toCharArray()) {
+            if (square.indexOf(c) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+}
@@ -0,0 +1,133 @@
+package com.chess.tools;
+
+import com.chess.engine.board.Board;
+import com.chess.engine.board.Move;
+import com.chess.engine.player.MoveTransition;
+import com.chess.engine.player.ai.BoardEvaluator;
+import com.chess.engine.player.ai.CancellationToken;
+import com.chess.engine.player.ai.EngineSession;
+import com.chess.engine.player.ai.EvaluationTerms;
+import com.chess.engine.player.ai.IterativeDeepening;
+import com.chess.engine.player.ai.NnueBoardEvaluator;
+import com.chess.engine.player.ai.NnueNetwork;
+import com.chess.engine.player.ai.PawnHashTable;
+import com.chess.engine.player.ai.SearchResult;
+import com.chess.engine.player.ai.StandardBoardEvaluator;
+import com.chess.pgn.FenUtilities;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Compares the network evaluator against StandardBoardEvaluator: first the search speed in nodes per second over a
+ * fixed set of positions, followed by the time spent in each standard evaluation term, then strength in a match of
+ * fixed depth games played from the same positions with colours alternated. Games that reach the ply limit are
+ * scored as draws.
+ *
+ * Usage: BenchmarkEvaluators <network file> [depth] [games]
+ */
+public class BenchmarkEvaluators {
+
+    private static final String[] POSITIONS = {
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+            "r1bqkbnr/pppp1ppp/2n5/4p3/4P3/5N2/PPPP1PPP/RNBQKB1R w KQkq - 2 3",
+            "rnbqkb1r/pp2pppp/3p1n2/8/3NP3/8/PPP2PPP/RNBQKB1R w KQkq - 1 5",
+            "rnbqkb1r/ppp1pppp/5n2/3p4/2PP4/8/PP2PPPP/RNBQKBNR w KQkq - 1 3",
+            "r1bq1rk1/ppp2ppp/2np1n2/2b1p3/2B1P3/2NP1N2/PPP2PPP/R1BQ1RK1 w - - 0 7",
+            "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1"
+    };
+    private static final int MAX_PLIES = 200;
+
+    private BenchmarkEvaluators() {
+        throw new RuntimeException("Not Instantiable!");
+    }
+
+    public static void main(final String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: BenchmarkEvaluators <network file> [depth] [games]");
+            System.exit(2);
+        }
+        final NnueNetwork network = NnueNetwork.load(new File(args[0]));
+        final int depth = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+        final int games = args.length > 2 ? Integer.parseInt(args[2]) : 2 * POSITIONS.length;
+
+        final NnueBoardEvaluator nnueEvaluator = new NnueBoardEvaluator(network);
+        System.out.println("standard " + nodesPerSecond(new StandardBoardEvaluator(), depth) + " nps");
+        final StandardBoardEvaluator profiledEvaluator =
+                new StandardBoardEvaluator(EvaluationTerms.standardTerms(new PawnHashTable()), true);
+        nodesPerSecond(profiledEvaluator, depth);
+        System.out.print(profiledEvaluator);
+        System.out.println("network  " + nodesPerSecond(nnueEvaluator, depth) + " nps" +
+                " (hidden " + network.getHiddenSize() +
+                ", refreshes " + nnueEvaluator.getRefreshes() +
+                ", incremental updates " + nnueEvaluator.getUpdates() + ")");
+
+        int wins = 0;
+        int draws = 0;
+        int losses = 0;
+        for (int game = 0; game < games; game++) {
+            final boolean networkIsWhite = game % 2 == 0;
+            final EngineSession networkSession = new EngineSession(new NnueBoardEvaluator(network));
+            final EngineSession standardSession = new EngineSession(new StandardBoardEvaluator());
+            final int result = play(FenUtilities.createGameFromFEN(POSITIONS[(game / 2) % POSITIONS.length]),
+                    networkIsWhite ? networkSession : standardSession,
+                    networkIsWhite ? standardSession : networkSession,
+                    depth);
+            final int networkResult = networkIsWhite ? result : -result;
+            if (networkResult > 0) {
+                wins++;
+            } else if (networkResult < 0) {
+                losses++;
+            } else {
+                draws++;
+            }
+            System.out.println("game " + (game + 1) + ": network " +
+                    (networkResult > 0 ? "won" : networkResult < 0 ? "lost" : "drew") +
+                    " as " + (networkIsWhite ? "white" : "black"));
+        }
+        System.out.println("network vs standard +" + wins + " =" + draws + " -" + losses);
+    }
+
+    private static long nodesPerSecond(final BoardEvaluator boardEvaluator, final int depth) {
+        final EngineSession engineSession = new EngineSession(boardEvaluator);
+        long nodes = 0;
+        long time = 0;
+        for (final String position : POSITIONS) {
+            final SearchResult result = new IterativeDeepening(depth, engineSession)
+                    .search(FenUtilities.createGameFromFEN(position), new CancellationToken());
+            nodes += result.getNodes();
+            time += result.getElapsedTime();
+        }
+        return nodes * 1000 / Math.max(1, time);
+    }
+
+    /**
+     * Plays a game between two engines.
+     *
+     * @return 1 if white won, -1 if black won, 0 for a draw
+     */
+    private static int play(final Board start,
+                            final EngineSession white,
+                            final EngineSession black,
+                            final int depth) {
+        Board board = start;
+        for (int ply = 0; ply < MAX_PLIES; ply++) {
+            if (board.currentPlayer().isInCheckMate()) {
+                return board.currentPlayer().getAlliance().isWhite() ? -1 : 1;
+            }
+            if (board.currentPlayer().isInStaleMate()) {
+                return 0;
+            }
+            final EngineSession engineSession = board.currentPlayer().getAlliance().isWhite() ? white : black;
+            final Move move = new IterativeDeepening(depth, engineSession)
+                    .search(board, new CancellationToken()).getBestMove();
+            if (move == null) {
+                return 0;
+            }
+            final MoveTransition transition = board.currentPlayer().makeMove(move);
+            board = transition.getTransitionBoard();
+        }
+        return 0;
+    }
+
+}
@@ -0,0 +1,216 @@
+package com.chess.tools;
+
+import com.chess.engine.board.Board;
+import com.chess.engine.board.Move;
+import com.chess.engine.book.OpeningBookBuilder;
+import com.chess.engine.book.PolyglotKeys;
+import com.chess.engine.player.MoveTransition;
+import com.chess.pgn.FenUtilities;
+import com.chess.pgn.PgnReader;
+import com.chess.pgn.PgnUtilities;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Builds a Polyglot opening book from PGN game collections. The files are streamed one game at a time into a
+ * bounded queue and replayed by one worker per core, so memory use depends on the entry limit rather than on the
+ * size of the archive. Games without a decisive or drawn result are skipped.
+ *
+ * Usage: BuildOpeningBook <random64 file> <output book> <ply limit> <pgn file>...
+ *
+ * The system properties jchess.book.threads, jchess.book.entries and jchess.book.mingames override the number of
+ * workers, the number of (position, move) pairs kept in memory and the number of games a move needs to be written.
+ */
+public class BuildOpeningBook {
+
+    private static final int QUEUE_CAPACITY = 1024;
+    private static final int BATCH_SIZE = 4096;
+    private static final int REPORT_INTERVAL = 100000;
+
+    private BuildOpeningBook() {
+        throw new RuntimeException("Not Instantiable!");
+    }
+
+    public static void main(final String[] args) throws IOException, InterruptedException, ExecutionException {
+        if (args.length < 4) {
+            System.err.println("Usage: BuildOpeningBook <random64 file> <output book> <ply limit> <pgn file>...");
+            System.exit(2);
+        }
+        final PolyglotKeys keys = PolyglotKeys.load(new File(args[0]));
+        final File output = new File(args[1]);
+        final int plyLimit = Integer.parseInt(args[2]);
+        final int threads = Integer.getInteger("jchess.book.threads", Runtime.getRuntime().availableProcessors());
+        final int maxEntries = Integer.getInteger("jchess.book.entries", 8000000);
+        final int minGames = Integer.getInteger("jchess.book.mingames", 1);
+
+        final long start = System.currentTimeMillis();
+        final OpeningBookBuilder builder = new OpeningBookBuilder(maxEntries);
+        final BlockingQueue<Object> queue = new ArrayBlockingQueue<Object>(QUEUE_CAPACITY);
+        final AtomicLong replayed = new AtomicLong();
+        final AtomicLong rejected = new AtomicLong();
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        final List<Future<?>> workers = new ArrayList<Future<?>>();
+        for (int i = 0; i < threads; i++) {
+            workers.add(executor.submit(new Worker(queue, builder, keys, plyLimit, replayed, rejected)));
+        }
+        long games = 0;
+        for (int i = 3; i < args.length; i++) {
+            final PgnReader reader = new PgnReader(
+                    new InputStreamReader(new FileInputStream(args[i]), StandardCharsets.ISO_8859_1));
+            try {
+                PgnReader.PgnGame game;
+                while ((game = reader.next()) != null) {
+                    queue.put(game);
+                    if (++games % REPORT_INTERVAL == 0) {
+                        System.out.println(games + " games read, " + builder.size() + " entries");
+                    }
+                }
+            } finally {
+                reader.close();
+            }
+        }
+        for (int i = 0; i < threads; i++) {
+            queue.put(Worker.POISON);
+        }
+        for (final Future<?> worker : workers) {
+            worker.get();
+        }
+        executor.shutdown();
+
+        final File temporary = new File(output.getPath() + ".tmp");
+        final int written = builder.write(temporary, minGames);
+        if ((output.exists() && !output.delete()) || !temporary.renameTo(output)) {
+            throw new IOException("Cannot replace " + output);
+        }
+        System.out.println(games + " games read" +
+                " replayed " + replayed.get() +
+                " rejected " + rejected.get() +
+                " entries " + written +
+                (builder.getPruneThreshold() > 0 ? " (dropped moves seen in up to " +
+                        builder.getPruneThreshold() + " games)" : "") +
+                " time " + (System.currentTimeMillis() - start) + "ms");
+    }
+
+    private static final class Worker implements Runnable {
+
+        private static final Object POISON = new Object();
+
+        private final BlockingQueue<Object> queue;
+        private final OpeningBookBuilder builder;
+        private final PolyglotKeys keys;
+        private final int plyLimit;
+        private final AtomicLong replayed;
+        private final AtomicLong rejected;
+
+        private Worker(final BlockingQueue<Object> queue,
+                       final OpeningBookBuilder builder,
+                       final PolyglotKeys keys,
+                       final int plyLimit,
+                       final AtomicLong replayed,
+                       final AtomicLong rejected) {
+            this.queue = queue;
+            this.builder = builder;
+            this.keys = keys;
+            this.plyLimit = plyLimit;
+            this.replayed = replayed;
+            this.rejected = rejected;
+        }
+
+        @Override
+        public void run() {
+            //A game is only added once it has been replayed, so the batch has to hold a whole one
+            final OpeningBookBuilder.Batch batch = this.builder.newBatch(Math.max(BATCH_SIZE, this.plyLimit));
+            try {
+                Object item;
+                while ((item = this.queue.take()) != POISON) {
+                    if (!batch.hasRoomFor(this.plyLimit)) {
+                        this.builder.flush(batch);
+                    }
+                    if (replaySafely((PgnReader.PgnGame) item, batch)) {
+                        this.replayed.incrementAndGet();
+                    } else {
+                        this.rejected.incrementAndGet();
+                    }
+                }
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                this.builder.flush(batch);
+            }
+        }
+
+        /**
+         * Rejects a game that fails with an unchecked exception instead of letting it end the worker: once every
+         * worker has stopped taking games the reader would block on the full queue forever. None of the moves of
+         * such a game are kept, as the positions leading up to the failure cannot be trusted either.
+         */
+        private boolean replaySafely(final PgnReader.PgnGame game, final OpeningBookBuilder.Batch batch) {
+            final int size = batch.size();
+            try {
+                return replay(game, batch);
+            } catch (final RuntimeException e) {
+                batch.truncate(size);
+                return false;
+            }
+        }
+
+        /**
+         * Adds the opening moves of the game to the batch. Moves up to the first one that cannot be replayed are
+         * kept, since the position before it was reached legally.
+         */
+        private boolean replay(final PgnReader.PgnGame game, final OpeningBookBuilder.Batch batch) {
+            final int whiteScore = whiteScore(game.getResult());
+            if (whiteScore < 0) {
+                return false;
+            }
+            Board board;
+            try {
+                board = game.getStartingFen() == null ? Board.createStandardBoard() :
+                        FenUtilities.createGameFromFEN(game.getStartingFen());
+            } catch (final RuntimeException e) {
+                return false;
+            }
+            int ply = 0;
+            for (final String san : game.getMoves()) {
+                if (ply++ >= this.plyLimit) {
+                    break;
+                }
+                final Move move = PgnUtilities.createMove(board, san);
+                if (move == null) {
+                    return false;
+                }
+                final boolean whiteToMove = board.currentPlayer().getAlliance().isWhite();
+                batch.add(this.keys.hash(board), move, whiteToMove ? whiteScore : 2 - whiteScore);
+                final MoveTransition transition = board.currentPlayer().makeMove(move);
+                board = transition.getTransitionBoard();
+            }
+            return true;
+        }
+
+        private static int whiteScore(final String result) {
+            if (result.equals("1-0")) {
+                return 2;
+            } else if (result.equals("0-1")) {
+                return 0;
+            } else if (result.equals("1/2-1/2")) {
+                return 1;
+            }
+            return -1;
+        }
+
+    }
+
+}
@@ -0,0 +1,53 @@
+package com.chess.tools;
+
+import com.chess.engine.tablebase.EndgameSignature;
+import com.chess.engine.tablebase.EndgameTablebase;
+import com.chess.engine.tablebase.RetrogradeGenerator;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Offline generation of the distance-to-mate tablebases. Writes one file per signature into the directory, which
+ * the engine picks up through EndgameTablebase.open.
+ *
+ * Usage: GenerateTablebases <directory> [threads]
+ */
+public class GenerateTablebases {
+
+    private GenerateTablebases() {
+        throw new RuntimeException("Not Instantiable!");
+    }
+
+    public static void main(final String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: GenerateTablebases <directory> [threads]");
+            System.exit(2);
+        }
+        final File directory = new File(args[0]);
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Cannot create " + directory);
+        }
+        final int threads = args.length > 1 ?
+                Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        for (final EndgameSignature signature : EndgameSignature.values()) {
+            final long start = System.currentTimeMillis();
+            //Reopened for every signature so tables written earlier in the run are available as dependencies
+            final RetrogradeGenerator generator =
+                    new RetrogradeGenerator(signature, EndgameTablebase.open(directory), threads);
+            generator.generate();
+            final File file = new File(directory, signature.getFileName());
+            final File temporary = new File(directory, signature.getFileName() + ".tmp");
+            generator.write(temporary);
+            if (!temporary.renameTo(file)) {
+                throw new IOException("Cannot replace " + file);
+            }
+            System.out.println(signature +
+                    " wins " + generator.count(true) +
+                    " draws " + generator.count(false) +
+                    " longest mate " + generator.getLongestMate() + " plies" +
+                    " time " + (System.currentTimeMillis() - start) + "ms");
+        }
+    }
+
+}
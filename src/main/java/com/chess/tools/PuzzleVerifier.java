@@ -0,0 +1,109 @@
+package com.chess.tools;
+
+import com.chess.engine.board.Board;
+import com.chess.engine.player.ai.CancellationToken;
+import com.chess.engine.player.ai.ProofNumberSearch;
+import com.chess.engine.player.ai.SearchResult;
+import com.chess.pgn.FenUtilities;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+
+/**
+ * Headless batch verification of mate puzzles. Reads an EPD file where every line holds a position followed by a
+ * "dm" (direct mate) operation, e.g.
+ *
+ * r1bqkb1r/pppp1ppp/2n2n2/4p2Q/2B1P3/8/PPPP1PPP/RNB1K1NR w KQkq - dm 1; id "scholar";
+ *
+ * and checks with ProofNumberSearch that each position is a forced mate in the given number of moves. Exits with a
+ * non-zero status if any puzzle could not be proven.
+ *
+ * Usage: PuzzleVerifier <epd file> [node limit]
+ */
+public class PuzzleVerifier {
+
+    private static final int FEN_FIELDS = 4;
+    private static final long DEFAULT_NODE_LIMIT = 2000000;
+    private static final int MAX_STORED_NODES = 1000000;
+
+    private PuzzleVerifier() {
+        throw new RuntimeException("Not Instantiable!");
+    }
+
+    public static void main(final String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: PuzzleVerifier <epd file> [node limit]");
+            System.exit(2);
+        }
+        final long nodeLimit = args.length > 1 ? Long.parseLong(args[1]) : DEFAULT_NODE_LIMIT;
+        int puzzles = 0;
+        int solved = 0;
+        final BufferedReader reader = new BufferedReader(new FileReader(args[0]));
+        try {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                puzzles++;
+                if (verify(line, lineNumber, nodeLimit)) {
+                    solved++;
+                }
+            }
+        } finally {
+            reader.close();
+        }
+        System.out.println(solved + "/" + puzzles + " puzzles solved");
+        System.exit(solved == puzzles ? 0 : 1);
+    }
+
+    private static boolean verify(final String line, final int lineNumber, final long nodeLimit) {
+        final String[] fields = line.split("\\s+", FEN_FIELDS + 1);
+        if (fields.length <= FEN_FIELDS) {
+            System.out.println(lineNumber + ": INVALID missing dm operation");
+            return false;
+        }
+        final StringBuilder fen = new StringBuilder();
+        for (int i = 0; i < FEN_FIELDS; i++) {
+            fen.append(fields[i]).append(' ');
+        }
+        int mateInMoves = 0;
+        String id = String.valueOf(lineNumber);
+        for (final String operation : fields[FEN_FIELDS].split(";")) {
+            final String[] operands = operation.trim().split("\\s+", 2);
+            if (operands.length < 2) {
+                continue;
+            }
+            if (operands[0].equals("dm")) {
+                mateInMoves = Integer.parseInt(operands[1].trim());
+            } else if (operands[0].equals("id")) {
+                id = operands[1].replace("\"", "").trim();
+            }
+        }
+        if (mateInMoves < 1) {
+            System.out.println(id + ": INVALID missing dm operation");
+            return false;
+        }
+        final Board board;
+        try {
+            board = FenUtilities.createGameFromFEN(fen.toString());
+        } catch (final RuntimeException e) {
+            System.out.println(id + ": INVALID " + e.getMessage());
+            return false;
+        }
+        final ProofNumberSearch solver = new ProofNumberSearch(mateInMoves, nodeLimit, MAX_STORED_NODES);
+        final SearchResult result = solver.search(board, new CancellationToken());
+        final boolean proven = result.getScore() > 0;
+        System.out.println(id + ": " + (proven ? "SOLVED" : "FAILED") +
+                " mate in " + mateInMoves +
+                " nodes " + result.getNodes() +
+                " time " + result.getElapsedTime() + "ms" +
+                (proven ? " pv " + result.principalVariationText() : ""));
+        return proven;
+    }
+
+}
@@ -0,0 +1,374 @@
+package com.chess.tools;
+
+import com.chess.engine.board.Board;
+import com.chess.engine.player.Player;
+import com.chess.engine.player.ai.EvaluationWeights;
+import com.chess.engine.player.ai.TaperedBoardEvaluator;
+import com.chess.pgn.FenUtilities;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Texel-style tuning of the TaperedBoardEvaluator weights. Each line of the position file holds a FEN followed by
+ * the result of the game it was taken from, either as "1-0", "0-1" or "1/2-1/2", as [1.0], [0.5] or [0.0], or as an
+ * EPD c9 operation. The evaluation of every position is reduced once to a linear combination of the weights, kept
+ * in primitive arrays split into one block per core, and the mean squared difference between the result and a
+ * sigmoid of the evaluation is then minimised by gradient descent with every block's error and gradient computed
+ * in parallel. The tuned weights are written in the format EvaluationWeights.load reads, so the GUI picks them up at
+ * startup through jchess.weights.
+ *
+ * Usage: TuneEvaluation <positions file> <output weights> [iterations] [start weights]
+ *
+ * The system properties jchess.tune.threads and jchess.tune.rate override the number of workers and the step size.
+ */
+public class TuneEvaluation {
+
+    private static final int CHUNK_SIZE = 16384;
+    private static final int REPORT_INTERVAL = 100;
+    private static final double BETA1 = 0.9;
+    private static final double BETA2 = 0.999;
+    private static final double EPSILON = 1e-8;
+
+    private TuneEvaluation() {
+        throw new RuntimeException("Not Instantiable!");
+    }
+
+    public static void main(final String[] args) throws IOException, InterruptedException, ExecutionException {
+        if (args.length < 2) {
+            System.err.println("Usage: TuneEvaluation <positions file> <output weights> [iterations] [start weights]");
+            System.exit(2);
+        }
+        final File output = new File(args[1]);
+        final int iterations = args.length > 2 ? Integer.parseInt(args[2]) : 1000;
+        final EvaluationWeights start = args.length > 3 ?
+                EvaluationWeights.load(new File(args[3])) : EvaluationWeights.defaults();
+        final int threads = Integer.getInteger("jchess.tune.threads", Runtime.getRuntime().availableProcessors());
+        final double rate = Double.parseDouble(System.getProperty("jchess.tune.rate", "1.0"));
+
+        final long startTime = System.currentTimeMillis();
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            final List<Block> blocks = load(new File(args[0]), executor, threads);
+            int positions = 0;
+            for (final Block block : blocks) {
+                positions += block.size;
+            }
+            if (positions == 0) {
+                throw new IOException("No usable positions in " + args[0]);
+            }
+            final double[] weights = new double[EvaluationWeights.COUNT];
+            final int[] initial = start.toArray();
+            for (int i = 0; i < weights.length; i++) {
+                weights[i] = initial[i];
+            }
+            final double k = fitScale(blocks, weights, executor, positions);
+            System.out.println(positions + " positions loaded in " + (System.currentTimeMillis() - startTime) +
+                    "ms, K " + k + ", error " + error(blocks, weights, k, executor, positions, null));
+
+            final double[] gradient = new double[weights.length];
+            final double[] firstMoment = new double[weights.length];
+            final double[] secondMoment = new double[weights.length];
+            for (int iteration = 1; iteration <= iterations; iteration++) {
+                final double error = error(blocks, weights, k, executor, positions, gradient);
+                for (int i = 0; i < weights.length; i++) {
+                    firstMoment[i] = BETA1 * firstMoment[i] + (1 - BETA1) * gradient[i];
+                    secondMoment[i] = BETA2 * secondMoment[i] + (1 - BETA2) * gradient[i] * gradient[i];
+                    final double corrected = firstMoment[i] / (1 - Math.pow(BETA1, iteration));
+                    final double scale = secondMoment[i] / (1 - Math.pow(BETA2, iteration));
+                    weights[i] -= rate * corrected / (Math.sqrt(scale) + EPSILON);
+                }
+                if (iteration % REPORT_INTERVAL == 0 || iteration == iterations) {
+                    System.out.println("iteration " + iteration + " error " + error);
+                    save(weights, output);
+                }
+            }
+            System.out.println("final error " + error(blocks, weights, k, executor, positions, null) +
+                    " time " + (System.currentTimeMillis() - startTime) + "ms");
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static void save(final double[] weights, final File output) throws IOException {
+        final int[] values = new int[weights.length];
+        for (int i = 0; i < weights.length; i++) {
+            values[i] = (int) Math.round(weights[i]);
+        }
+        final File temporary = new File(output.getPath() + ".tmp");
+        new EvaluationWeights(values).save(temporary);
+        if ((output.exists() && !output.delete()) || !temporary.renameTo(output)) {
+            throw new IOException("Cannot replace " + output);
+        }
+    }
+
+    /**
+     * Reads the position file and converts it chunk by chunk on the executor, then merges the chunks into one block
+     * per worker so the error computation gets an even split.
+     */
+    private static List<Block> load(final File file,
+                                    final ExecutorService executor,
+                                    final int threads) throws IOException, InterruptedException, ExecutionException {
+        final List<Future<Block>> chunks = new ArrayList<Future<Block>>();
+        final BufferedReader reader = new BufferedReader(
+                new InputStreamReader(new FileInputStream(file), StandardCharsets.ISO_8859_1));
+        try {
+            List<String> lines = new ArrayList<String>(CHUNK_SIZE);
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lines.add(line);
+                if (lines.size() == CHUNK_SIZE) {
+                    chunks.add(executor.submit(new Loader(lines)));
+                    lines = new ArrayList<String>(CHUNK_SIZE);
+                }
+            }
+            chunks.add(executor.submit(new Loader(lines)));
+        } finally {
+            reader.close();
+        }
+        final List<Block> loaded = new ArrayList<Block>();
+        int rejected = 0;
+        for (final Future<Block> chunk : chunks) {
+            final Block block = chunk.get();
+            loaded.add(block);
+            rejected += block.rejected;
+        }
+        if (rejected > 0) {
+            System.out.println(rejected + " lines skipped");
+        }
+        final List<Block> blocks = new ArrayList<Block>();
+        final int perBlock = (loaded.size() + threads - 1) / threads;
+        for (int i = 0; i < loaded.size(); i += perBlock) {
+            blocks.add(Block.merge(loaded.subList(i, Math.min(loaded.size(), i + perBlock))));
+        }
+        return blocks;
+    }
+
+    /**
+     * Finds the sigmoid scale that best fits the results with the starting weights, first in steps of 0.1 and then
+     * in steps of 0.01 around the best one.
+     */
+    private static double fitScale(final List<Block> blocks,
+                                   final double[] weights,
+                                   final ExecutorService executor,
+                                   final int positions) throws InterruptedException, ExecutionException {
+        double best = 1;
+        double bestError = Double.MAX_VALUE;
+        for (double step = 0.1; step >= 0.01; step /= 10) {
+            final double centre = best;
+            for (int i = -9; i <= 10; i++) {
+                final double k = centre + i * step;
+                if (k <= 0) {
+                    continue;
+                }
+                final double error = error(blocks, weights, k, executor, positions, null);
+                if (error < bestError) {
+                    bestError = error;
+                    best = k;
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Returns the mean squared error over all positions and, if gradient is not null, fills it with the derivative
+     * of the error with respect to each weight.
+     */
+    private static double error(final List<Block> blocks,
+                                final double[] weights,
+                                final double k,
+                                final ExecutorService executor,
+                                final int positions,
+                                final double[] gradient) throws InterruptedException, ExecutionException {
+        final List<Future<double[]>> parts = new ArrayList<Future<double[]>>();
+        for (final Block block : blocks) {
+            parts.add(executor.submit(new Callable<double[]>() {
+                @Override
+                public double[] call() {
+                    return block.error(weights, k, gradient != null);
+                }
+            }));
+        }
+        double error = 0;
+        if (gradient != null) {
+            Arrays.fill(gradient, 0);
+        }
+        for (final Future<double[]> part : parts) {
+            final double[] result = part.get();
+            error += result[0];
+            if (gradient != null) {
+                for (int i = 0; i < gradient.length; i++) {
+                    gradient[i] += result[i + 1] / positions;
+                }
+            }
+        }
+        return error / positions;
+    }
+
+    private static final class Loader implements Callable<Block> {
+
+        private final List<String> lines;
+
+        private Loader(final List<String> lines) {
+            this.lines = lines;
+        }
+
+        @Override
+        public Block call() {
+            final TaperedBoardEvaluator evaluator = new TaperedBoardEvaluator();
+            final int[] indices = new int[TaperedBoardEvaluator.MAX_LINEAR_TERMS];
+            final float[] coefficients = new float[TaperedBoardEvaluator.MAX_LINEAR_TERMS];
+            final Block block = new Block(this.lines.size());
+            for (final String line : this.lines) {
+                final String trimmed = line.trim();
+                if (trimmed.isEmpty()) {
+                    continue;
+                }
+                final float result = parseResult(trimmed);
+                final Board board;
+                try {
+                    board = result < 0 ? null : FenUtilities.createGameFromFEN(fen(trimmed));
+                } catch (final RuntimeException e) {
+                    block.rejected++;
+                    continue;
+                }
+                final Player currentPlayer = board == null ? null : board.currentPlayer();
+                if (currentPlayer == null || currentPlayer.isInCheckMate() || currentPlayer.isInStaleMate()) {
+                    block.rejected++;
+                    continue;
+                }
+                final int count = evaluator.linearTerms(board, indices, coefficients);
+                block.add(indices, coefficients, count, evaluator.getPawnStructure(board), result);
+            }
+            return block;
+        }
+
+        /**
+         * Returns the first six fields of the line, or the first four for EPD lines without move counters.
+         */
+        private static String fen(final String line) {
+            final String[] fields = line.split("\\s+");
+            if (fields.length >= 6 && fields[4].matches("\\d+") && fields[5].matches("\\d+")) {
+                return fields[0] + " " + fields[1] + " " + fields[2] + " " + fields[3] + " " + fields[4] + " " + fields[5];
+            }
+            return fields[0] + " " + fields[1] + " " + fields[2] + " " + (fields.length > 3 ? fields[3] : "-") + " 0 1";
+        }
+
+        private static float parseResult(final String line) {
+            if (line.contains("1/2-1/2") || line.contains("[0.5]")) {
+                return 0.5f;
+            } else if (line.contains("1-0") || line.contains("[1.0]")) {
+                return 1;
+            } else if (line.contains("0-1") || line.contains("[0.0]")) {
+                return 0;
+            }
+            return -1;
+        }
+
+    }
+
+    /**
+     * A run of positions stored as flat primitive arrays: position i owns the terms from offsets[i] up to
+     * offsets[i + 1].
+     */
+    private static final class Block {
+
+        private int[] offsets;
+        private int[] indices;
+        private float[] coefficients;
+        private float[] constants;
+        private float[] results;
+        private int size;
+        private int terms;
+        private int rejected;
+
+        private Block(final int capacity) {
+            this.offsets = new int[capacity + 1];
+            this.indices = new int[capacity * 64];
+            this.coefficients = new float[capacity * 64];
+            this.constants = new float[capacity];
+            this.results = new float[capacity];
+        }
+
+        private void add(final int[] termIndices,
+                         final float[] termCoefficients,
+                         final int count,
+                         final int constant,
+                         final float result) {
+            if (this.size == this.results.length) {
+                this.offsets = Arrays.copyOf(this.offsets, this.size * 2 + 1);
+                this.constants = Arrays.copyOf(this.constants, this.size * 2);
+                this.results = Arrays.copyOf(this.results, this.size * 2);
+            }
+            if (this.terms + count > this.indices.length) {
+                final int capacity = Math.max(this.indices.length * 2, this.terms + count);
+                this.indices = Arrays.copyOf(this.indices, capacity);
+                this.coefficients = Arrays.copyOf(this.coefficients, capacity);
+            }
+            System.arraycopy(termIndices, 0, this.indices, this.terms, count);
+            System.arraycopy(termCoefficients, 0, this.coefficients, this.terms, count);
+            this.terms += count;
+            this.constants[this.size] = constant;
+            this.results[this.size] = result;
+            this.offsets[++this.size] = this.terms;
+        }
+
+        private static Block merge(final List<Block> parts) {
+            int capacity = 0;
+            for (final Block part : parts) {
+                capacity += part.size;
+            }
+            final Block block = new Block(Math.max(1, capacity));
+            for (final Block part : parts) {
+                for (int i = 0; i < part.size; i++) {
+                    final int from = part.offsets[i];
+                    final int count = part.offsets[i + 1] - from;
+                    block.add(Arrays.copyOfRange(part.indices, from, from + count),
+                            Arrays.copyOfRange(part.coefficients, from, from + count),
+                            count, (int) part.constants[i], part.results[i]);
+                }
+            }
+            return block;
+        }
+
+        /**
+         * Returns the summed squared error of the block in the first element followed, if requested, by the
+         * summed gradient for every weight.
+         */
+        private double[] error(final double[] weights, final double k, final boolean withGradient) {
+            final double[] result = new double[withGradient ? weights.length + 1 : 1];
+            final double scale = k * Math.log(10) / 400;
+            for (int i = 0; i < this.size; i++) {
+                double score = this.constants[i];
+                for (int j = this.offsets[i]; j < this.offsets[i + 1]; j++) {
+                    score += this.coefficients[j] * weights[this.indices[j]];
+                }
+                final double sigmoid = 1 / (1 + Math.exp(-scale * score));
+                final double difference = sigmoid - this.results[i];
+                result[0] += difference * difference;
+                if (withGradient) {
+                    final double derivative = 2 * difference * sigmoid * (1 - sigmoid) * scale;
+                    for (int j = this.offsets[i]; j < this.offsets[i + 1]; j++) {
+                        result[this.indices[j] + 1] += derivative * this.coefficients[j];
+                    }
+                }
+            }
+            return result;
+        }
+
+    }
+
+}
@@ -0,0 +1,66 @@
+package com.chess.engine.book;
+
+import com.chess.engine.board.Board;
+import com.chess.engine.board.BoardUtils;
+import com.chess.engine.board.Move;
+import com.chess.pgn.FenUtilities;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Round trips moves through the Polyglot move encoding.
+ */
+public class PolyglotBookTest {
+
+    @Test
+    public void everyLegalMoveSurvivesEncodeAndDecode() {
+        final String[] positions = {
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+                "r3k2r/8/8/8/8/8/8/R3K2R w KQkq - 0 1",
+                "r3k2r/8/8/8/8/8/8/R3K2R b KQkq - 0 1",
+                "4k3/1P6/8/3pP3/8/8/6p1/4K3 w - d6 0 1"
+        };
+        for (final String position : positions) {
+            final Board board = FenUtilities.createGameFromFEN(position);
+            int legalMoves = 0;
+            for (final Move move : board.currentPlayer().getLegalMoves()) {
+                if (!board.currentPlayer().makeMove(move).getMoveStatus().isDone()) {
+                    continue;
+                }
+                legalMoves++;
+                assertEquals(move, PolyglotBook.decode(board, PolyglotBook.encode(move)), position + " " + move);
+            }
+            assertTrue(legalMoves > 0, position);
+        }
+    }
+
+    @Test
+    public void castlingIsEncodedAsKingTakesRook() {
+        final Board white = FenUtilities.createGameFromFEN("r3k2r/8/8/8/8/8/8/R3K2R w KQkq - 0 1");
+        assertEquals(encoded("e1", "h1"), PolyglotBook.encode(castle(white, "g1")));
+        assertEquals(encoded("e1", "a1"), PolyglotBook.encode(castle(white, "c1")));
+        final Board black = FenUtilities.createGameFromFEN("r3k2r/8/8/8/8/8/8/R3K2R b KQkq - 0 1");
+        assertEquals(encoded("e8", "h8"), PolyglotBook.encode(castle(black, "g8")));
+        assertEquals(encoded("e8", "a8"), PolyglotBook.encode(castle(black, "c8")));
+    }
+
+    private static Move castle(final Board board, final String destination) {
+        for (final Move move : board.currentPlayer().getLegalMoves()) {
+            if (move.isCastlingMove() &&
+                    move.getDestinationCoordinate() == BoardUtils.getCoordinateAtPosition(destination)) {
+                return move;
+            }
+        }
+        throw new AssertionError("No castling move to " + destination);
+    }
+
+    private static int encoded(final String from, final String to) {
+        final int source = BoardUtils.getCoordinateAtPosition(from);
+        final int destination = BoardUtils.getCoordinateAtPosition(to);
+        return PolyglotKeys.row(source) << 9 | PolyglotKeys.file(source) << 6 |
+                PolyglotKeys.row(destination) << 3 | PolyglotKeys.file(destination);
+    }
+
+}
@@ -0,0 +1,135 @@
+package com.chess.engine.book;
+
+import com.chess.engine.board.Board;
+import com.chess.engine.board.BoardUtils;
+import com.chess.engine.board.Move;
+import com.chess.engine.player.MoveTransition;
+import com.chess.pgn.FenUtilities;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Checks PolyglotKeys against the Polyglot format. The reference keys published with the format need the standard
+ * Random64 numbers, which are not part of this repository: point jchess.book.keys at them, or place them in
+ * src/test/resources/random64.txt, to run that test. The remaining tests check each part of the key against the
+ * offsets of the format using generated numbers.
+ */
+public class PolyglotKeysTest {
+
+    private static long[] numbers;
+    private static PolyglotKeys keys;
+
+    @BeforeAll
+    public static void createKeys() throws IOException {
+        final Random random = new Random(20240229L);
+        numbers = new long[PolyglotKeys.KEY_COUNT];
+        final File file = File.createTempFile("random64", ".txt");
+        file.deleteOnExit();
+        final Writer writer = new FileWriter(file);
+        try {
+            for (int i = 0; i < numbers.length; i++) {
+                numbers[i] = random.nextLong();
+                writer.write(String.format("0x%016X,%n", numbers[i]));
+            }
+        } finally {
+            writer.close();
+        }
+        keys = PolyglotKeys.load(file);
+    }
+
+    @Test
+    public void matchesPublishedReferenceKeys() throws IOException {
+        final File file = new File(System.getProperty("jchess.book.keys", "src/test/resources/random64.txt"));
+        assumeTrue(file.isFile(), "standard Random64 numbers not available");
+        final PolyglotKeys standardKeys = PolyglotKeys.load(file);
+        Board board = Board.createStandardBoard();
+        assertEquals(0x463b96181691fc9cL, standardKeys.hash(board));
+        board = play(board, "e2", "e4");
+        assertEquals(0x823c9b50fd114196L, standardKeys.hash(board));
+        board = play(board, "d7", "d5");
+        assertEquals(0x0756b94461c50fb0L, standardKeys.hash(board));
+        board = play(board, "e4", "e5");
+        assertEquals(0x662fafb965db29d4L, standardKeys.hash(board));
+        board = play(board, "f7", "f5");
+        assertEquals(0x22a48b5a8e47ff78L, standardKeys.hash(board));
+        board = play(board, "e1", "e2");
+        assertEquals(0x652a607ca3f242c1L, standardKeys.hash(board));
+        board = play(board, "e8", "f7");
+        assertEquals(0x00fdd303c946bdd9L, standardKeys.hash(board));
+
+        board = Board.createStandardBoard();
+        board = play(board, "a2", "a4");
+        board = play(board, "b7", "b5");
+        board = play(board, "h2", "h4");
+        board = play(board, "b5", "b4");
+        board = play(board, "c2", "c4");
+        assertEquals(0x3c8123ea7b067637L, standardKeys.hash(board));
+        board = play(board, "b4", "c3");
+        board = play(board, "a1", "a3");
+        assertEquals(0x5c3f9b829b279560L, standardKeys.hash(board));
+    }
+
+    @Test
+    public void piecesUseKindRowAndFile() {
+        final Board board = FenUtilities.createGameFromFEN("4k3/8/8/8/8/8/8/4K3 b - - 0 1");
+        //white king kind 11 on e1, black king kind 10 on e8
+        assertEquals(numbers[64 * 11 + 4] ^ numbers[64 * 10 + 8 * 7 + 4], keys.hash(board));
+    }
+
+    @Test
+    public void whiteToMoveAddsTurnKey() {
+        final Board black = FenUtilities.createGameFromFEN("4k3/8/8/8/8/8/8/4K3 b - - 0 1");
+        final Board white = FenUtilities.createGameFromFEN("4k3/8/8/8/8/8/8/4K3 w - - 0 1");
+        assertEquals(numbers[780], keys.hash(black) ^ keys.hash(white));
+    }
+
+    @Test
+    public void castlingRightsUseTheirOwnKeys() {
+        final String position = "r3k2r/8/8/8/8/8/8/R3K2R w ";
+        final long none = keys.hash(FenUtilities.createGameFromFEN(position + "- - 0 1"));
+        assertEquals(numbers[768], none ^ keys.hash(FenUtilities.createGameFromFEN(position + "K - 0 1")));
+        assertEquals(numbers[769], none ^ keys.hash(FenUtilities.createGameFromFEN(position + "Q - 0 1")));
+        assertEquals(numbers[770], none ^ keys.hash(FenUtilities.createGameFromFEN(position + "k - 0 1")));
+        assertEquals(numbers[771], none ^ keys.hash(FenUtilities.createGameFromFEN(position + "q - 0 1")));
+    }
+
+    @Test
+    public void enPassantFileOnlyCountsWhenCapturable() {
+        final long withoutCapture = keys.hash(FenUtilities.createGameFromFEN("4k3/8/8/8/4P3/8/8/4K3 b - e3 0 1"));
+        final long noTarget = keys.hash(FenUtilities.createGameFromFEN("4k3/8/8/8/4P3/8/8/4K3 b - - 0 1"));
+        assertEquals(noTarget, withoutCapture);
+        final long withCapture = keys.hash(FenUtilities.createGameFromFEN("4k3/8/8/8/3pP3/8/8/4K3 b - e3 0 1"));
+        final long capturableNoTarget = keys.hash(FenUtilities.createGameFromFEN("4k3/8/8/8/3pP3/8/8/4K3 b - - 0 1"));
+        assertEquals(numbers[772 + 4], withCapture ^ capturableNoTarget);
+    }
+
+    @Test
+    public void rowsCountFromTheFirstRank() {
+        assertEquals(0, PolyglotKeys.row(BoardUtils.getCoordinateAtPosition("a1")));
+        assertEquals(7, PolyglotKeys.row(BoardUtils.getCoordinateAtPosition("h8")));
+        assertEquals(BoardUtils.getCoordinateAtPosition("c6"), PolyglotKeys.tile(5, 2));
+        assertNotEquals(keys.hash(Board.createStandardBoard()), 0L);
+    }
+
+    private static Board play(final Board board, final String from, final String to) {
+        final Move move = Move.MoveFactory.createMove(board,
+                BoardUtils.getCoordinateAtPosition(from), BoardUtils.getCoordinateAtPosition(to));
+        assertNotNull(move);
+        final MoveTransition transition = board.currentPlayer().makeMove(move);
+        assertTrue(transition.getMoveStatus().isDone(), from + to);
+        return transition.getTransitionBoard();
+    }
+
+}
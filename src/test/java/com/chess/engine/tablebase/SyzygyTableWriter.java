@@ -0,0 +1,303 @@
+package com.chess.engine.tablebase;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * Writes the KQvK and KRvK sample tables under src/test/resources/syzygy in the Syzygy file format, with the values
+ * taken from the distance-to-mate tables of RetrogradeGenerator. Each side to move is stored either as a single
+ * value or as fixed length Huffman codes of plain values, never as pairs, which the format allows and keeps this
+ * writer short.
+ *
+ * Run the main method from the project root to regenerate the files.
+ */
+final class SyzygyTableWriter {
+
+    private static final int[] WDL_MAGIC = {0x71, 0xe8, 0x23, 0x5d};
+    private static final int[] DTZ_MAGIC = {0xd7, 0x66, 0x0c, 0xa5};
+    private static final int SPLIT = 1;
+    private static final int SINGLE_VALUE = 128;
+    private static final int TABLE_SIZE = 31332;
+    private static final int BLOCK_BITS = 6;
+    private static final int SPAN_BITS = 8;
+    private static final int UNSET = -1;
+
+    private static final int WHITE_KING = 6;
+    private static final int BLACK_KING = 14;
+
+    private SyzygyTableWriter() {
+        throw new RuntimeException("Not Instantiable!");
+    }
+
+    public static void main(final String[] args) throws IOException {
+        final File directory = new File(args.length > 0 ? args[0] : "src/test/resources/syzygy");
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Cannot create " + directory);
+        }
+        final File dtmDirectory = new File(directory, "dtm");
+        if (!dtmDirectory.isDirectory() && !dtmDirectory.mkdirs()) {
+            throw new IOException("Cannot create " + dtmDirectory);
+        }
+        try {
+            final EndgameTablebase empty = EndgameTablebase.open(dtmDirectory);
+            for (final EndgameSignature signature : new EndgameSignature[]{EndgameSignature.KQK,
+                    EndgameSignature.KRK}) {
+                final RetrogradeGenerator generator = new RetrogradeGenerator(signature, empty, 1);
+                generator.generate();
+                generator.write(new File(dtmDirectory, signature.getFileName()));
+            }
+            final EndgameTablebase dtm = EndgameTablebase.open(dtmDirectory);
+            writeTables(directory, dtm, EndgameSignature.KQK, "KQvK", 5);
+            writeTables(directory, dtm, EndgameSignature.KRK, "KRvK", 4);
+        } finally {
+            for (final EndgameSignature signature : EndgameSignature.values()) {
+                new File(dtmDirectory, signature.getFileName()).delete();
+            }
+            dtmDirectory.delete();
+        }
+    }
+
+    /**
+     * Stores the WDL values of both sides to move and the DTZ values of the strong side to move, which is the only
+     * side that wins. Without pawns the distance to a zeroing move is the distance to mate, stored in moves.
+     */
+    private static void writeTables(final File directory,
+                                    final EndgameTablebase dtm,
+                                    final EndgameSignature signature,
+                                    final String name,
+                                    final int piece) throws IOException {
+        final int[] whiteToMove = newValues();
+        final int[] blackToMove = newValues();
+        final int[] distances = newValues();
+        final int[] squares = new int[3];
+        for (int whiteKing = 0; whiteKing < 64; whiteKing++) {
+            for (int whitePiece = 0; whitePiece < 64; whitePiece++) {
+                for (int blackKing = 0; blackKing < 64; blackKing++) {
+                    if (whiteKing == whitePiece || whiteKing == blackKing || whitePiece == blackKing) {
+                        continue;
+                    }
+                    squares[0] = whiteKing;
+                    squares[1] = whitePiece;
+                    squares[2] = blackKing;
+                    final int index = (int) index(squares);
+                    //EndgameTablebase numbers squares from a8
+                    final int strong = dtm.entry(signature, EndgameTablebase.index(EndgameTablebase.STRONG_TO_MOVE,
+                            whiteKing ^ 56, blackKing ^ 56, whitePiece ^ 56));
+                    final int weak = dtm.entry(signature, EndgameTablebase.index(EndgameTablebase.WEAK_TO_MOVE,
+                            whiteKing ^ 56, blackKing ^ 56, whitePiece ^ 56));
+                    if (strong != EndgameTablebase.ILLEGAL) {
+                        final boolean win = EndgameTablebase.isWin(strong);
+                        store(whiteToMove, index, win ? 4 : 2);
+                        store(distances, index, win ? (EndgameTablebase.plies(strong) - 1) / 2 : 0);
+                    }
+                    if (weak != EndgameTablebase.ILLEGAL) {
+                        store(blackToMove, index, EndgameTablebase.isWin(weak) ? 0 : 2);
+                    }
+                }
+            }
+        }
+        final List<Integer> pieces = new ArrayList<Integer>();
+        pieces.add(WHITE_KING);
+        pieces.add(piece);
+        pieces.add(BLACK_KING);
+        write(new File(directory, name + ".rtbw"), WDL_MAGIC, pieces, new int[][]{whiteToMove, blackToMove});
+        write(new File(directory, name + ".rtbz"), DTZ_MAGIC, pieces, new int[][]{distances});
+    }
+
+    private static int[] newValues() {
+        final int[] values = new int[TABLE_SIZE];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = UNSET;
+        }
+        return values;
+    }
+
+    private static void store(final int[] values, final int index, final int value) {
+        if (values[index] != UNSET && values[index] != value) {
+            throw new IllegalStateException("Index " + index + " holds " + values[index] + " and " + value);
+        }
+        values[index] = value;
+    }
+
+    /**
+     * Index of three unique pieces the way SyzygyTable computes it, after bringing the first piece into the
+     * a1-d1-d4 triangle.
+     */
+    private static long index(final int[] position) {
+        final int[] squares = position.clone();
+        if ((squares[0] & 7) > 3) {
+            for (int i = 0; i < squares.length; i++) {
+                squares[i] ^= 7;
+            }
+        }
+        if ((squares[0] >>> 3) > 3) {
+            for (int i = 0; i < squares.length; i++) {
+                squares[i] ^= 56;
+            }
+        }
+        for (int i = 0; i < squares.length; i++) {
+            final int offDiagonal = (squares[i] >>> 3) - (squares[i] & 7);
+            if (offDiagonal == 0) {
+                continue;
+            }
+            if (offDiagonal > 0) {
+                for (int j = i; j < squares.length; j++) {
+                    squares[j] = ((squares[j] >>> 3) | (squares[j] << 3)) & 63;
+                }
+            }
+            break;
+        }
+        return SyzygyTable.uniquePiecesIndex(squares);
+    }
+
+    private static void write(final File file,
+                              final int[] magic,
+                              final List<Integer> pieces,
+                              final int[][] sides) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.allocate(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+        for (final int b : magic) {
+            buffer.put((byte) b);
+        }
+        buffer.put((byte) SPLIT);
+        //A single group holds all three pieces, so it is the first and only one encoded
+        buffer.put((byte) 0);
+        for (final int piece : pieces) {
+            buffer.put((byte) (piece | piece << 4));
+        }
+        align(buffer, 2);
+        final List<int[]> symbols = new ArrayList<int[]>();
+        for (final int[] values : sides) {
+            symbols.add(writeSizes(buffer, values));
+        }
+        for (int side = 0; side < sides.length; side++) {
+            if (symbols.get(side) != null) {
+                writeSparseIndex(buffer, symbols.get(side).length);
+            }
+        }
+        for (int side = 0; side < sides.length; side++) {
+            if (symbols.get(side) != null) {
+                final int perBlock = valuesPerBlock(symbols.get(side).length);
+                for (int start = 0; start < TABLE_SIZE; start += perBlock) {
+                    buffer.putShort((short) (Math.min(perBlock, TABLE_SIZE - start) - 1));
+                }
+            }
+        }
+        for (int side = 0; side < sides.length; side++) {
+            if (symbols.get(side) != null) {
+                align(buffer, 64);
+                writeBlocks(buffer, sides[side], symbols.get(side));
+            }
+        }
+        //Mapped tables are 16 bytes past a multiple of 64
+        align(buffer, 64);
+        buffer.position(buffer.position() + 16);
+        final OutputStream out = new FileOutputStream(file);
+        try {
+            out.write(buffer.array(), 0, buffer.position());
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * Writes the block layout and the Huffman code of one side, returning the values the symbols stand for or null
+     * if every position has the same value.
+     */
+    private static int[] writeSizes(final ByteBuffer buffer, final int[] values) {
+        final TreeSet<Integer> distinct = new TreeSet<Integer>();
+        for (final int value : values) {
+            if (value != UNSET) {
+                distinct.add(value);
+            }
+        }
+        if (distinct.size() <= 1) {
+            buffer.put((byte) SINGLE_VALUE);
+            buffer.put((byte) (distinct.isEmpty() ? 0 : distinct.first()));
+            return null;
+        }
+        int bits = 1;
+        while ((1 << bits) < distinct.size()) {
+            bits++;
+        }
+        final int[] symbols = new int[1 << bits];
+        int symbol = 0;
+        for (final int value : distinct) {
+            symbols[symbol++] = value;
+        }
+        buffer.put((byte) 0);
+        buffer.put((byte) BLOCK_BITS);
+        buffer.put((byte) SPAN_BITS);
+        buffer.put((byte) 0);
+        buffer.putInt((TABLE_SIZE + valuesPerBlock(symbols.length) - 1) / valuesPerBlock(symbols.length));
+        //Every code has the same length, so the lowest symbol of that length is the first one
+        buffer.put((byte) bits);
+        buffer.put((byte) bits);
+        buffer.putShort((short) 0);
+        buffer.putShort((short) symbols.length);
+        for (final int value : symbols) {
+            //Leaves hold the value in the left half and 0xFFF in the right
+            buffer.put((byte) value);
+            buffer.put((byte) (((value >>> 8) & 0xF) | 0xF0));
+            buffer.put((byte) 0xFF);
+        }
+        return symbols;
+    }
+
+    private static void writeSparseIndex(final ByteBuffer buffer, final int symbols) {
+        final int perBlock = valuesPerBlock(symbols);
+        final int blocks = (TABLE_SIZE + perBlock - 1) / perBlock;
+        final int span = 1 << SPAN_BITS;
+        for (int start = 0; start < TABLE_SIZE; start += span) {
+            final int middle = start + span / 2;
+            final int block = Math.min(middle / perBlock, blocks - 1);
+            buffer.putInt(block);
+            buffer.putShort((short) (middle - block * perBlock));
+        }
+    }
+
+    private static void writeBlocks(final ByteBuffer buffer, final int[] values, final int[] symbols) {
+        final int bits = Integer.numberOfTrailingZeros(symbols.length);
+        final int perBlock = valuesPerBlock(symbols.length);
+        for (int start = 0; start < TABLE_SIZE; start += perBlock) {
+            final byte[] block = new byte[1 << BLOCK_BITS];
+            for (int i = 0; i < perBlock && start + i < TABLE_SIZE; i++) {
+                final int code = symbol(symbols, values[start + i]);
+                for (int bit = 0; bit < bits; bit++) {
+                    if ((code >>> (bits - 1 - bit) & 1) != 0) {
+                        final int position = i * bits + bit;
+                        block[position >>> 3] |= 0x80 >>> (position & 7);
+                    }
+                }
+            }
+            buffer.put(block);
+        }
+    }
+
+    private static int symbol(final int[] symbols, final int value) {
+        for (int symbol = 0; symbol < symbols.length; symbol++) {
+            if (symbols[symbol] == value) {
+                return symbol;
+            }
+        }
+        //Indices no legal position reaches are stored as the first value
+        return 0;
+    }
+
+    private static int valuesPerBlock(final int symbols) {
+        return (8 << BLOCK_BITS) / Integer.numberOfTrailingZeros(symbols);
+    }
+
+    private static void align(final ByteBuffer buffer, final int alignment) {
+        while (buffer.position() % alignment != 0) {
+            buffer.put((byte) 0);
+        }
+    }
+
+}
@@ -0,0 +1,168 @@
+package com.chess.engine.tablebase;
+
+import com.chess.engine.board.Board;
+import com.chess.pgn.FenUtilities;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Probes the KQvK and KRvK sample tables written by SyzygyTableWriter.
+ */
+public class SyzygyTablebaseTest {
+
+    private static File directory;
+    private static SyzygyTablebase tablebase;
+
+    @BeforeAll
+    public static void open() throws IOException, URISyntaxException {
+        directory = new File(SyzygyTablebaseTest.class.getResource("/syzygy").toURI());
+        tablebase = SyzygyTablebase.open(directory);
+    }
+
+    @Test
+    public void opensEveryTable() {
+        assertEquals(4, tablebase.size());
+        assertEquals(3, tablebase.getMaxPieces());
+    }
+
+    @Test
+    public void probesMates() {
+        assertEquals(SyzygyTablebase.WIN, wdl("k7/8/1K6/8/8/8/8/7R w - - 0 1"));
+        assertEquals(1, dtz("k7/8/1K6/8/8/8/8/7R w - - 0 1"));
+        assertEquals(SyzygyTablebase.LOSS, wdl("k7/8/1K6/8/8/8/8/7R b - - 0 1"));
+        assertEquals(-2, dtz("k7/8/1K6/8/8/8/8/7R b - - 0 1"));
+        assertEquals(SyzygyTablebase.WIN, wdl("k7/8/1K6/8/8/8/8/6Q1 w - - 0 1"));
+        assertEquals(1, dtz("k7/8/1K6/8/8/8/8/6Q1 w - - 0 1"));
+        //Colours reversed, the table is probed with black as the strong side
+        assertEquals(SyzygyTablebase.WIN, wdl("7r/8/8/8/8/1k6/8/K7 b - - 0 1"));
+        assertEquals(1, dtz("7r/8/8/8/8/1k6/8/K7 b - - 0 1"));
+    }
+
+    @Test
+    public void probesDraws() {
+        //The queen is taken
+        assertEquals(SyzygyTablebase.DRAW, wdl("k7/1Q6/8/8/8/8/8/7K b - - 0 1"));
+        assertEquals(0, dtz("k7/1Q6/8/8/8/8/8/7K b - - 0 1"));
+        //Stalemate
+        assertEquals(SyzygyTablebase.DRAW, wdl("k7/2Q5/8/8/8/8/8/7K b - - 0 1"));
+        assertEquals(SyzygyTablebase.DRAW, wdl("8/8/8/8/8/8/7R/k1K5 b - - 0 1"));
+    }
+
+    @Test
+    public void agreesWithDistanceToMate(@TempDir final File dtmDirectory) throws IOException {
+        final RetrogradeGenerator generator = new RetrogradeGenerator(EndgameSignature.KRK,
+                EndgameTablebase.open(dtmDirectory), 1);
+        generator.generate();
+        generator.write(new File(dtmDirectory, EndgameSignature.KRK.getFileName()));
+        final EndgameTablebase dtm = EndgameTablebase.open(dtmDirectory);
+        final Random random = new Random(7);
+        int probed = 0;
+        while (probed < 500) {
+            final Board board = randomPosition(random);
+            final int score = dtm.probe(board);
+            if (score == EndgameTablebase.NOT_FOUND || board.currentPlayer().getOpponent().isInCheck()) {
+                continue;
+            }
+            probed++;
+            final int plies = EndgameTablebase.WIN_SCORE - Math.abs(score);
+            final String position = FenUtilities.createFENFromGame(board);
+            if (score == 0) {
+                assertEquals(SyzygyTablebase.DRAW, tablebase.probeWdl(board), position);
+                assertEquals(0, tablebase.probeDtz(board), position);
+            } else if (score > 0) {
+                assertEquals(SyzygyTablebase.WIN, tablebase.probeWdl(board), position);
+                assertEquals(plies, tablebase.probeDtz(board), position);
+            } else {
+                assertEquals(SyzygyTablebase.LOSS, tablebase.probeWdl(board), position);
+                assertTrue(tablebase.probeDtz(board) < 0, position);
+            }
+        }
+    }
+
+    @Test
+    public void rejectsTheWrongMagic() throws IOException {
+        final ByteBuffer buffer = read(new File(directory, "KQvK.rtbw"));
+        new SyzygyTable("KQvK", false, buffer.duplicate());
+        //The magic number written the wrong way round
+        buffer.put(0, (byte) 0x5d).put(1, (byte) 0x23).put(2, (byte) 0xe8).put(3, (byte) 0x71);
+        assertRejected("KQvK", false, buffer);
+        assertRejected("KQvK", true, read(new File(directory, "KQvK.rtbw")));
+    }
+
+    private static void assertRejected(final String name, final boolean dtz, final ByteBuffer buffer) {
+        try {
+            new SyzygyTable(name, dtz, buffer);
+            fail("Accepted " + name + (dtz ? " as DTZ" : " as WDL"));
+        } catch (final IOException expected) {
+            assertTrue(expected.getMessage().startsWith("Not a Syzygy table"));
+        }
+    }
+
+    private static Board randomPosition(final Random random) {
+        final char[] squares = new char[64];
+        Arrays.fill(squares, ' ');
+        final char[] pieces = random.nextBoolean() ? new char[]{'K', 'R', 'k'} : new char[]{'k', 'r', 'K'};
+        for (final char piece : pieces) {
+            int square;
+            do {
+                square = random.nextInt(64);
+            } while (squares[square] != ' ');
+            squares[square] = piece;
+        }
+        final StringBuilder fen = new StringBuilder();
+        for (int row = 0; row < 8; row++) {
+            int empty = 0;
+            for (int file = 0; file < 8; file++) {
+                final char piece = squares[row * 8 + file];
+                if (piece == ' ') {
+                    empty++;
+                    continue;
+                }
+                if (empty > 0) {
+                    fen.append(empty);
+                    empty = 0;
+                }
+                fen.append(piece);
+            }
+            if (empty > 0) {
+                fen.append(empty);
+            }
+            fen.append(row < 7 ? "/" : "");
+        }
+        fen.append(random.nextBoolean() ? " w" : " b").append(" - - 0 1");
+        return FenUtilities.createGameFromFEN(fen.toString());
+    }
+
+    private static ByteBuffer read(final File file) throws IOException {
+        final RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+        try {
+            final byte[] bytes = new byte[(int) randomAccessFile.length()];
+            randomAccessFile.readFully(bytes);
+            return ByteBuffer.wrap(bytes);
+        } finally {
+            randomAccessFile.close();
+        }
+    }
+
+    private static int wdl(final String fen) {
+        return tablebase.probeWdl(FenUtilities.createGameFromFEN(fen));
+    }
+
+    private static int dtz(final String fen) {
+        return tablebase.probeDtz(FenUtilities.createGameFromFEN(fen));
+    }
+
+}